@@ -0,0 +1,139 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Holds a dedicated connection outside the pool that LISTENs on the invalidation channel. If
+// the connection drops we cannot know which messages were missed, so every (re)connect flushes
+// all local caches before listening again.
+@Component
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+    private static final int POLL_TIMEOUT_MILLIS = 10_000;
+
+    private final DataSource dataSource;
+    private final CacheRegistry cacheRegistry;
+    private final CacheProperties properties;
+    private final Counter received;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public CacheInvalidationListener(DataSource dataSource, CacheRegistry cacheRegistry,
+            CacheProperties properties, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.cacheRegistry = cacheRegistry;
+        this.properties = properties;
+        this.received = meterRegistry.counter("cache.invalidations.received");
+        this.reconnects = meterRegistry.counter("cache.invalidations.reconnects");
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofVirtual().name("cache-invalidation-listener").start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        boolean firstConnect = true;
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + properties.channel() + "\"");
+                }
+                if (!firstConnect) {
+                    reconnects.increment();
+                    log.warn("Invalidation listener reconnected, flushing all local caches");
+                }
+                // anything cached before LISTEN took effect may already be stale
+                cacheRegistry.invalidateAll();
+                firstConnect = false;
+                receive(connection.unwrap(PGConnection.class), connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Invalidation listener lost its connection, retrying in {}",
+                        properties.reconnectDelay(), e);
+                // caches stay enabled meanwhile, the TTL bounds how stale they get
+                try {
+                    Thread.sleep(properties.reconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(PGConnection pgConnection, Connection connection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+            if (notifications == null || notifications.length == 0) {
+                // getNotifications does not notice a dead socket on its own
+                if (!connection.isValid(2)) {
+                    throw new SQLException("invalidation listener connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                apply(notification.getParameter());
+            }
+        }
+    }
+
+    private void apply(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || message.substring(0, separator)
+                .equals(CacheInvalidationPublisher.NODE_ID)) {
+            return;
+        }
+        received.increment();
+        String payload = message.substring(separator + 1);
+        if (payload.equals(CacheInvalidations.ALL)) {
+            cacheRegistry.invalidateAll();
+            return;
+        }
+        CacheInvalidations.decode(payload).applyTo(cacheRegistry);
+    }
+
+    // a connection from the pool would be held forever, so open our own with the pool's settings
+    private Connection openConnection() throws SQLException {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        return DriverManager.getConnection(hikari.getJdbcUrl(), hikari.getUsername(),
+                hikari.getPassword());
+    }
+}
@@ -0,0 +1,153 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.lang.management.ManagementFactory;
+
+import org.jooq.DSLContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+
+// Drops affected local cache entries as soon as a write commits, and tells the other replicas
+// through a NOTIFY sent on the write's own connection just before it commits. Postgres delivers
+// notifications exactly when their transaction commits, so no committed write goes without its
+// invalidation, and a failing NOTIFY fails the write. A transaction's invalidations go out
+// together, so a burst of writes turns into one message instead of one per write.
+@Component
+public class CacheInvalidationPublisher {
+
+    static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final DSLContext dsl;
+    private final CacheRegistry cacheRegistry;
+    private final CacheProperties properties;
+
+    public CacheInvalidationPublisher(DSLContext dsl, CacheRegistry cacheRegistry,
+            CacheProperties properties) {
+        this.dsl = dsl;
+        this.cacheRegistry = cacheRegistry;
+        this.properties = properties;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        CacheInvalidations invalidations = new CacheInvalidations();
+        collect(event, invalidations);
+        invalidations.applyTo(cacheRegistry);
+        recordDeleted(event);
+    }
+
+    // other replicas learn about deleted ids on their first lookup miss, ids are never reused
+    private void recordDeleted(DomainEvent event) {
+        if (event instanceof DomainEvent.LineupDeleted e) {
+            recordDeleted(CacheRegistry.LINEUP_IDS, e.lineupId());
+        } else if (event instanceof DomainEvent.UserDeleted e) {
+            recordDeleted(CacheRegistry.USER_IDS, e.userId());
+        }
+    }
+
+    private void recordDeleted(String name, Long id) {
+        MissingIds ids = cacheRegistry.findMissingIds(name);
+        if (ids != null) {
+            ids.recordDeleted(id);
+        }
+    }
+
+    // runs as the event is published, inside the write's transaction when there is one
+    @EventListener
+    public void notifyReplicas(DomainEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the write has committed already
+            CacheInvalidations invalidations = new CacheInvalidations();
+            collect(event, invalidations);
+            send(invalidations);
+            return;
+        }
+        CacheInvalidations pending =
+                (CacheInvalidations) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new CacheInvalidations();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingNotify(pending));
+        }
+        collect(event, pending);
+    }
+
+    private void send(CacheInvalidations invalidations) {
+        // the sender prefix lets us skip our own messages, they were applied locally already
+        int maxLength = CacheInvalidations.MAX_PAYLOAD_LENGTH - NODE_ID.length() - 1;
+        for (String payload : invalidations.encode(maxLength)) {
+            dsl.fetch("select pg_notify(?, ?)", properties.channel(), NODE_ID + "|" + payload);
+        }
+    }
+
+    private final class PendingNotify implements TransactionSynchronization {
+
+        private final CacheInvalidations invalidations;
+
+        PendingNotify(CacheInvalidations invalidations) {
+            this.invalidations = invalidations;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            send(invalidations);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager
+                    .unbindResourceIfPossible(CacheInvalidationPublisher.this);
+        }
+    }
+
+    // Like counts only feed the "most liked" part of the owner's summary, which is left to expire
+    // through the TTL rather than looking up the lineup owner on every like.
+    static void collect(DomainEvent event, CacheInvalidations invalidations) {
+        switch (event) {
+            case DomainEvent.LineupCreated e -> {
+                invalidations.add(CacheRegistry.LINEUP_IDS, e.lineupId());
+                invalidations.add(CacheRegistry.USER_SUMMARY, e.userId());
+                invalidations.addAll(CacheRegistry.LINEUP_SEARCH);
+            }
+            case DomainEvent.LineupUpdated e -> {
+                invalidations.add(CacheRegistry.LINEUP, e.lineupId());
+                invalidations.add(CacheRegistry.USER_SUMMARY, e.userId());
+                invalidations.addAll(CacheRegistry.LINEUP_SEARCH);
+            }
+            case DomainEvent.LineupDeleted e -> {
+                invalidations.add(CacheRegistry.LINEUP, e.lineupId());
+                invalidations.addAll(CacheRegistry.LINEUP_SEARCH);
+                // any summary may list the lineup as recently liked
+                invalidations.addAll(CacheRegistry.USER_SUMMARY);
+            }
+            case DomainEvent.LikeAdded e ->
+                invalidations.add(CacheRegistry.USER_SUMMARY, e.userId());
+            case DomainEvent.LikeRemoved e ->
+                invalidations.add(CacheRegistry.USER_SUMMARY, e.userId());
+            case DomainEvent.UserCreated e ->
+                // nothing else can be cached for a user that did not exist
+                invalidations.add(CacheRegistry.USER_IDS, e.userId());
+            case DomainEvent.UserRenamed e -> {
+                invalidations.add(CacheRegistry.USER_SUMMARY, e.userId());
+                // the author name is baked into every cached lineup of theirs
+                invalidations.addAll(CacheRegistry.LINEUP);
+                invalidations.addAll(CacheRegistry.LINEUP_SEARCH);
+            }
+            case DomainEvent.UserDeleted e -> {
+                invalidations.addAll(CacheRegistry.USER_SUMMARY);
+                invalidations.addAll(CacheRegistry.LINEUP);
+                invalidations.addAll(CacheRegistry.LINEUP_SEARCH);
+            }
+        }
+    }
+}
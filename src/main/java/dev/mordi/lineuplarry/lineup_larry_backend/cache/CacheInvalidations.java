@@ -0,0 +1,100 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A batch of keys to drop per cache, with a compact text form that fits NOTIFY payloads:
+// "lineup:1,2;user-summary:*" drops two lineups and every user summary, "*" drops everything.
+final class CacheInvalidations {
+
+    static final String ALL = "*";
+
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final Map<String, Set<String>> keys = new LinkedHashMap<>();
+
+    void add(String cache, Object key) {
+        Set<String> cacheKeys = keys.computeIfAbsent(cache, c -> new LinkedHashSet<>());
+        if (!cacheKeys.contains(ALL)) {
+            cacheKeys.add(String.valueOf(key));
+        }
+    }
+
+    void addAll(String cache) {
+        Set<String> cacheKeys = keys.computeIfAbsent(cache, c -> new LinkedHashSet<>());
+        cacheKeys.clear();
+        cacheKeys.add(ALL);
+    }
+
+    boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    void applyTo(CacheRegistry registry) {
+        keys.forEach((cache, cacheKeys) -> {
+            if (cacheKeys.contains(ALL)) {
+                registry.invalidateAll(cache);
+            } else {
+                registry.invalidate(cache, cacheKeys);
+            }
+        });
+    }
+
+    // split into as many payloads as needed to stay under the NOTIFY limit
+    List<String> encode(int maxLength) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder();
+        for (Map.Entry<String, Set<String>> entry : keys.entrySet()) {
+            String cache = entry.getKey();
+            boolean sectionOpen = false;
+            for (String key : entry.getValue()) {
+                int needed = sectionOpen
+                        ? key.length() + 1
+                        : (payload.isEmpty() ? 0 : 1) + cache.length() + 1 + key.length();
+                if (!payload.isEmpty() && payload.length() + needed > maxLength) {
+                    payloads.add(payload.toString());
+                    payload.setLength(0);
+                    sectionOpen = false;
+                }
+                if (sectionOpen) {
+                    payload.append(',');
+                } else {
+                    if (!payload.isEmpty()) {
+                        payload.append(';');
+                    }
+                    payload.append(cache).append(':');
+                    sectionOpen = true;
+                }
+                payload.append(key);
+            }
+        }
+        if (!payload.isEmpty()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    static CacheInvalidations decode(String payload) {
+        CacheInvalidations invalidations = new CacheInvalidations();
+        for (String section : payload.split(";")) {
+            int colon = section.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String cache = section.substring(0, colon);
+            for (String key : section.substring(colon + 1).split(",")) {
+                if (key.equals(ALL)) {
+                    invalidations.addAll(cache);
+                } else if (!key.isEmpty()) {
+                    invalidations.add(cache, key);
+                }
+            }
+        }
+        return invalidations;
+    }
+}
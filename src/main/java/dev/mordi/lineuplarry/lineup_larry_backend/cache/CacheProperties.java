@@ -0,0 +1,39 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.cache")
+public record CacheProperties(
+        // off by default, the integration tests reseed the database behind the caches' back
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("30s") Duration ttl,
+        // past the ttl an entry is still served for this long while it is reloaded in the
+        // background, and for up to staleIfError while loading it fails on the database
+        @DefaultValue("30s") Duration staleWhileRevalidate,
+        @DefaultValue("10m") Duration staleIfError,
+        @DefaultValue("10000") int maxSize,
+        // Postgres channel used to tell the other replicas what to drop
+        @DefaultValue("cache_invalidation") String channel,
+        @DefaultValue("1s") Duration reconnectDelay,
+        // concurrent loads of the same key share one query, see SingleFlight. Unlike the caches
+        // this is safe with reseeding, nothing is kept once the load is done.
+        @DefaultValue("true") boolean coalesce,
+        // how long a caller waits on someone else's load before giving up with a 503
+        @DefaultValue("2s") Duration coalesceMaxWait,
+        // lookups of ids above the highest one seen re-read it at most this often, see MissingIds
+        @DefaultValue("1s") Duration missingIdsRefreshInterval,
+        // a lookup miss is only remembered for ids that were allocated at least this long ago,
+        // so inserts that have not committed yet are never recorded as missing
+        @DefaultValue("30s") Duration missingIdsSettleDelay,
+        // one bit per id, 50M ids take about 6MB per table
+        @DefaultValue("50000000") int missingIdsMaxTracked) {
+
+    public static CacheProperties disabled() {
+        return new CacheProperties(false, Duration.ofSeconds(30), Duration.ofSeconds(30),
+                Duration.ofMinutes(10), 10_000, "cache_invalidation", Duration.ofSeconds(1), true,
+                Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(30), 50_000_000);
+    }
+}
@@ -0,0 +1,113 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class CacheRegistry {
+
+    public static final String LINEUP = "lineup";
+    public static final String USER_SUMMARY = "user-summary";
+    public static final String LINEUP_SEARCH = "lineup-search";
+    public static final String LINEUP_IDS = "lineup-ids";
+    public static final String USER_IDS = "user-ids";
+
+    private final CacheProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, LocalCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SingleFlight<?, ?>> flights = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MissingIds> missingIds = new ConcurrentHashMap<>();
+
+    public CacheRegistry(CacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <V> LocalCache<Long, V> createLongKeyed(String name) {
+        return create(name, Long::valueOf);
+    }
+
+    // for caches whose keys cannot be derived from a write, any change drops all of them
+    public <K, V> LocalCache<K, V> createDroppedWhole(String name) {
+        return create(name, rawKey -> {
+            throw new IllegalArgumentException(name + " can only be invalidated as a whole");
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> LocalCache<K, V> create(String name, Function<String, K> keyParser) {
+        return (LocalCache<K, V>) caches.computeIfAbsent(name,
+                n -> new LocalCache<K, V>(n, properties, keyParser, meterRegistry));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> SingleFlight<K, V> singleFlight(String name) {
+        return (SingleFlight<K, V>) flights.computeIfAbsent(name,
+                n -> new SingleFlight<K, V>(n, properties, meterRegistry));
+    }
+
+    // the first caller's loader is the one used, it should read max(id) of the table
+    public MissingIds missingIds(String name, LongSupplier maxIdLoader) {
+        return missingIds.computeIfAbsent(name,
+                n -> new MissingIds(n, properties, maxIdLoader, meterRegistry));
+    }
+
+    MissingIds findMissingIds(String name) {
+        return missingIds.get(name);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public void invalidate(String name, Collection<String> rawKeys) {
+        LocalCache<?, ?> cache = caches.get(name);
+        if (cache != null) {
+            SingleFlight<?, ?> flight = flights.get(name);
+            rawKeys.forEach(rawKey -> invalidate(cache, flight, rawKey));
+        }
+        // for missing ids an invalidation means the ids were just created
+        MissingIds ids = missingIds.get(name);
+        if (ids != null) {
+            rawKeys.forEach(rawKey -> ids.recordCreated(Long.parseLong(rawKey)));
+        }
+    }
+
+    public void invalidateAll(String name) {
+        SingleFlight<?, ?> flight = flights.get(name);
+        if (flight != null) {
+            flight.forgetAll();
+        }
+        LocalCache<?, ?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        MissingIds ids = missingIds.get(name);
+        if (ids != null) {
+            ids.clear();
+        }
+    }
+
+    public void invalidateAll() {
+        flights.values().forEach(SingleFlight::forgetAll);
+        caches.values().forEach(LocalCache::invalidateAll);
+        missingIds.values().forEach(MissingIds::clear);
+    }
+
+    // the flight of the same name goes first. A load that sees the bumped generation must not
+    // join one that started before the write, or it would cache what that one read.
+    private static <K> void invalidate(LocalCache<K, ?> cache, SingleFlight<?, ?> flight,
+            String rawKey) {
+        K key = cache.parseKey(rawKey);
+        if (flight != null) {
+            flight.forget(key);
+        }
+        cache.invalidate(key);
+    }
+}
@@ -0,0 +1,196 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.dao.DataAccessException;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReadYourWrites;
+import dev.mordi.lineuplarry.lineup_larry_backend.jfr.CacheLookupEvent;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Small bounded read-through cache. Created through the CacheRegistry so that invalidations
+// coming in from other replicas can find it by name.
+//
+// Past the ttl an entry goes stale rather than away: for staleWhileRevalidate it is still
+// served while one background load refreshes it, and if loading fails because the database is
+// unavailable it is served for up to staleIfError. Invalidated entries are never served stale.
+//
+// Loads read from the primary, and clients that just wrote bypass the cache altogether, see
+// ReadYourWrites.
+public final class LocalCache<K, V> {
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+
+    private final String name;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long staleWhileRevalidateNanos;
+    private final long staleIfErrorNanos;
+    private final int maxSize;
+    private final Function<String, K> keyParser;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    // bumped on every invalidation so that loads racing with a write do not cache old data.
+    // Through the CacheRegistry, loads in a SingleFlight of the same name are dropped first.
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter staleOnError;
+    private final Counter refreshFailures;
+
+    LocalCache(String name, CacheProperties properties, Function<String, K> keyParser,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = properties.enabled();
+        this.ttlNanos = properties.ttl().toNanos();
+        this.staleWhileRevalidateNanos = properties.staleWhileRevalidate().toNanos();
+        this.staleIfErrorNanos = properties.staleIfError().toNanos();
+        this.maxSize = properties.maxSize();
+        this.keyParser = keyParser;
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss")
+                .register(meterRegistry);
+        this.staleHits = Counter.builder("cache.gets").tag("cache", name).tag("result", "stale")
+                .register(meterRegistry);
+        this.staleOnError = Counter.builder("cache.gets").tag("cache", name)
+                .tag("result", "stale-on-error")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("cache.refresh.failures").tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // null results are not cached
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        if (!enabled || ReadYourWrites.awaitsOwnWrite()) {
+            return loader.apply(key);
+        }
+        CacheLookupEvent event = new CacheLookupEvent();
+        event.begin();
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        long age = entry != null ? now - entry.loadedAt() : Long.MAX_VALUE;
+        if (age < ttlNanos) {
+            hits.increment();
+            commit(event, key, true);
+            return entry.value();
+        }
+        if (age - ttlNanos < staleWhileRevalidateNanos) {
+            staleHits.increment();
+            refreshInBackground(key, loader);
+            StaleContent.mark(name, age - ttlNanos, StaleContent.REVALIDATING);
+            commit(event, key, true);
+            return entry.value();
+        }
+        misses.increment();
+
+        try {
+            V value = load(key, loader, now);
+            commit(event, key, false);
+            return value;
+        } catch (RuntimeException e) {
+            if (entry == null || age - ttlNanos >= staleIfErrorNanos || !isUnavailable(e)) {
+                throw e;
+            }
+            staleOnError.increment();
+            StaleContent.mark(name, age - ttlNanos, StaleContent.ON_ERROR);
+            commit(event, key, true);
+            return entry.value();
+        }
+    }
+
+    private V load(K key, Function<? super K, ? extends V> loader, long now) {
+        long generationBeforeLoad = generation.get();
+        V value = ReadYourWrites.onPrimary(() -> loader.apply(key));
+        if (value == null) {
+            // gone from the database, a stale copy must not outlive it
+            entries.remove(key);
+        } else if (generation.get() == generationBeforeLoad) {
+            put(key, new Entry<>(value, now));
+        }
+        return value;
+    }
+
+    // at most one refresh per key, the stale entry keeps being served until it lands
+    private void refreshInBackground(K key, Function<? super K, ? extends V> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        Thread.ofVirtual().name("cache-refresh-" + name).start(() -> {
+            try {
+                load(key, loader, System.nanoTime());
+            } catch (RuntimeException e) {
+                refreshFailures.increment();
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    // errors that say nothing about the data, only that it cannot be read right now
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof DataAccessException || e instanceof OverloadException;
+    }
+
+    // on a miss the event spans the load as well
+    private void commit(CacheLookupEvent event, K key, boolean hit) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cache = name;
+            event.key = String.valueOf(key);
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    K parseKey(String rawKey) {
+        return keyParser.apply(rawKey);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(K key, Entry<V> entry) {
+        if (entries.size() >= maxSize) {
+            evict(entry.loadedAt());
+        }
+        entries.put(key, entry);
+    }
+
+    // drops entries too old to be served even stale, and if that is not enough an arbitrary
+    // tenth of the cache
+    private void evict(long now) {
+        long maxAge = ttlNanos + Math.max(staleWhileRevalidateNanos, staleIfErrorNanos);
+        entries.values().removeIf(e -> now - e.loadedAt() >= maxAge);
+        int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReadYourWrites;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Negative cache for a table with bigserial ids, answering "does not exist" without a query.
+// Two things are known to be missing: ids above the highest id in the table, and ids in a bitmap
+// of deleted ids or ids a lookup came back empty for. Ids are never reused, so a bit once set
+// stays true.
+//
+// Inserts on any replica raise the high-water mark through the invalidation channel. A lookup
+// above the mark re-reads max(id) first if the last read is older than missingIdsRefreshInterval,
+// and lookups arriving meanwhile share that read. So an id created elsewhere whose invalidation
+// has not arrived gets a 404 for at most that interval; clients reading their own writes bypass
+// the caches altogether. Created through the CacheRegistry, only active while caches are enabled.
+public final class MissingIds {
+
+    private final String name;
+    private final boolean enabled;
+    private final long refreshIntervalNanos;
+    private final long settleDelayNanos;
+    private final int maxTracked;
+    private final LongSupplier maxIdLoader;
+    private final BitSet missing = new BitSet();
+    private final ReentrantReadWriteLock bitsLock = new ReentrantReadWriteLock();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Counter answered;
+    private volatile long highWaterMark = -1;
+    private volatile long refreshedAt;
+    // misses at or below this id are final, it trails the high-water mark by the settle delay
+    private volatile long settledMark = -1;
+    private long pendingMark = -1;
+    private long pendingSince;
+
+    MissingIds(String name, CacheProperties properties, LongSupplier maxIdLoader,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = properties.enabled();
+        this.refreshIntervalNanos = properties.missingIdsRefreshInterval().toNanos();
+        this.settleDelayNanos = properties.missingIdsSettleDelay().toNanos();
+        this.maxTracked = properties.missingIdsMaxTracked();
+        this.maxIdLoader = maxIdLoader;
+        this.answered = Counter.builder("cache.missing-ids.answered").tag("table", name)
+                .description("Lookups answered as missing without a query")
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isMissing(Long id) {
+        if (!enabled || id == null || ReadYourWrites.awaitsOwnWrite()) {
+            return false;
+        }
+        boolean known = id <= 0 || isAboveHighWaterMark(id) || isMarked(id);
+        if (known) {
+            answered.increment();
+        }
+        return known;
+    }
+
+    // a lookup found nothing, remembered once no uncommitted insert can be holding the id
+    public void recordMiss(Long id) {
+        if (!enabled || id == null || id <= 0) {
+            return;
+        }
+        if (id > settledMark) {
+            refreshIfDue(System.nanoTime());
+        }
+        if (id <= settledMark) {
+            mark(id);
+        }
+    }
+
+    // a delete committed
+    public void recordDeleted(Long id) {
+        if (enabled && id != null && id > 0) {
+            mark(id);
+        }
+    }
+
+    // an insert committed, here or on another replica
+    void recordCreated(long id) {
+        if (id > highWaterMark) {
+            refreshLock.lock();
+            try {
+                highWaterMark = Math.max(highWaterMark, id);
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    private boolean isAboveHighWaterMark(long id) {
+        if (id <= highWaterMark) {
+            return false;
+        }
+        // lookups arriving during a refresh wait for it rather than each querying on their own
+        refreshIfDue(System.nanoTime(), true);
+        // never loaded, the database is probably down
+        return highWaterMark >= 0 && id > highWaterMark;
+    }
+
+    private void refreshIfDue(long now) {
+        refreshIfDue(now, false);
+    }
+
+    private void refreshIfDue(long now, boolean waitForRunning) {
+        if (highWaterMark >= 0 && now - refreshedAt < refreshIntervalNanos) {
+            return;
+        }
+        if (waitForRunning) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            // a concurrent refresh will do, callers go with the mark they have until it lands
+            return;
+        }
+        try {
+            // a refresh that finished while we waited will do
+            if (highWaterMark >= 0 && now - refreshedAt < refreshIntervalNanos) {
+                return;
+            }
+            refresh(System.nanoTime());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // called holding the refresh lock
+    private void refresh(long now) {
+        long maxId;
+        try {
+            maxId = maxIdLoader.getAsLong();
+        } catch (RuntimeException e) {
+            // not knowing is fine, lookups just go to the database as usual
+            return;
+        }
+        if (pendingMark >= 0 && now - pendingSince >= settleDelayNanos) {
+            settledMark = Math.max(settledMark, pendingMark);
+            pendingMark = -1;
+        }
+        if (pendingMark < 0) {
+            pendingMark = maxId;
+            pendingSince = now;
+        }
+        highWaterMark = Math.max(highWaterMark, maxId);
+        refreshedAt = now;
+    }
+
+    private boolean isMarked(long id) {
+        if (id > maxTracked) {
+            return false;
+        }
+        bitsLock.readLock().lock();
+        try {
+            return missing.get((int) id);
+        } finally {
+            bitsLock.readLock().unlock();
+        }
+    }
+
+    private void mark(long id) {
+        if (id > maxTracked) {
+            return;
+        }
+        bitsLock.writeLock().lock();
+        try {
+            missing.set((int) id);
+        } finally {
+            bitsLock.writeLock().unlock();
+        }
+    }
+
+    // everything forgotten, for when the table is reseeded behind our back
+    void clear() {
+        refreshLock.lock();
+        bitsLock.writeLock().lock();
+        try {
+            missing.clear();
+            highWaterMark = -1;
+            settledMark = -1;
+            pendingMark = -1;
+        } finally {
+            bitsLock.writeLock().unlock();
+            refreshLock.unlock();
+        }
+    }
+}
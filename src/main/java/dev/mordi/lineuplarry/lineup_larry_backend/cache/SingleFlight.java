@@ -0,0 +1,121 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReadYourWrites;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RequestDeadline;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Lets one caller per key run a load while concurrent callers for the same key wait for its
+// result, or its exception, instead of running the same query. Only overlapping calls are
+// merged and nothing is kept afterwards, so a LocalCache in front still does the caching.
+// Created through the CacheRegistry. Clients that just wrote load on their own, see
+// ReadYourWrites.awaitsOwnWrite.
+//
+// A leader that fails because its own request ran out of time does not take the followers
+// down with it, they start over and one of them leads the next load.
+public final class SingleFlight<K, V> {
+
+    private final String name;
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    // coalesced fraction is followers / (leaders + followers)
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter timeouts;
+
+    SingleFlight(String name, CacheProperties properties, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = properties.coalesce();
+        this.maxWaitNanos = properties.coalesceMaxWait().toNanos();
+        this.leaders = Counter.builder("cache.coalesce").tag("flight", name).tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("cache.coalesce").tag("flight", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("cache.coalesce.timeouts").tag("flight", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public V load(K key, Supplier<? extends V> loader) {
+        if (!enabled || ReadYourWrites.awaitsOwnWrite()) {
+            return loader.get();
+        }
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            return await(key, running, loader);
+        }
+        leaders.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(RequestDeadline.isCurrentOutOfTime(e)
+                    ? new LeaderOutOfTimeException(e)
+                    : e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> flight, Supplier<? extends V> loader) {
+        followers.increment();
+        try {
+            return flight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LeaderOutOfTimeException) {
+                inFlight.remove(key, flight);
+                return load(key, loader);
+            }
+            // the leader's exception, so followers fail the same way it did
+            switch (e.getCause()) {
+                case RuntimeException runtime -> throw runtime;
+                case Error error -> throw error;
+                default -> throw new IllegalStateException(e.getCause());
+            }
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new OverloadException.LoadTimeoutException(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OverloadException.LoadTimeoutException(name);
+        }
+    }
+
+    // later callers start a load of their own instead of joining one that may have read the
+    // data from before a write, callers already waiting on it still get its result
+    void forget(Object key) {
+        inFlight.remove(key);
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private static final class LeaderOutOfTimeException extends RuntimeException {
+
+        LeaderOutOfTimeException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Remembers that the current request was answered from a stale cache entry, so that
+// StaleContentAdvice can say so in the response. Only the stalest entry is kept.
+final class StaleContent {
+
+    static final String REVALIDATING = "stale-while-revalidate";
+    static final String ON_ERROR = "stale-if-error";
+
+    private static final String ATTRIBUTE = StaleContent.class.getName();
+
+    record Mark(String cache, long staleNanos, String reason) {
+
+        // RFC 9211 Cache-Status, a negative ttl is how far past fresh the entry is
+        String toHeaderValue() {
+            long staleSeconds = (staleNanos + 999_999_999L) / 1_000_000_000L;
+            return "lineup-larry; hit; ttl=-" + staleSeconds + "; key=" + cache + "; detail="
+                    + reason;
+        }
+    }
+
+    private StaleContent() {
+    }
+
+    static void mark(String cache, long staleNanos, String reason) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object current = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (current instanceof Mark mark && mark.staleNanos() >= staleNanos) {
+            return;
+        }
+        attributes.setAttribute(ATTRIBUTE, new Mark(cache, staleNanos, reason),
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    static Mark current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                ? (Mark) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+    }
+}
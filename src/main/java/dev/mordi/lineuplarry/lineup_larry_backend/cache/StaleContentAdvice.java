@@ -0,0 +1,34 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Adds a Cache-Status header to responses built from stale cache entries, see StaleContent
+@ControllerAdvice
+public class StaleContentAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String HEADER = "Cache-Status";
+
+    @Override
+    public boolean supports(MethodParameter returnType,
+            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        StaleContent.Mark mark = StaleContent.current();
+        if (mark != null) {
+            response.getHeaders().set(HEADER, mark.toHeaderValue());
+        }
+        return body;
+    }
+}
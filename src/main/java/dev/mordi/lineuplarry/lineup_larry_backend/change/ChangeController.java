@@ -0,0 +1,33 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.Duration;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.Bulkhead;
+
+@RestController
+@RequestMapping("/api/changes")
+@Validated
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    ChangeController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    // waitSeconds > 0 turns this into a long poll that returns as soon as something changes
+    @GetMapping
+    @Bulkhead(value = "changes", usesConnectionBudget = false)
+    public ChangeFeedPage getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false, defaultValue = "100") @Min(1) @Max(1000) int limit,
+            @RequestParam(required = false, defaultValue = "0") @Min(0) @Max(30) int waitSeconds) {
+        return changeFeedService.getChanges(since, limit, Duration.ofSeconds(waitSeconds));
+    }
+}
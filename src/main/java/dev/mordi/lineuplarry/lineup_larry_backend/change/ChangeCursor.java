@@ -0,0 +1,30 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.change.exceptions.InvalidChangeException;
+
+// Position in the change feed, rendered as "<txId>-<id>". Clients should treat it as opaque.
+record ChangeCursor(long txId, long id) {
+
+    static final ChangeCursor START = new ChangeCursor(0L, 0L);
+
+    static ChangeCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        int separator = cursor.indexOf('-');
+        try {
+            if (separator > 0) {
+                return new ChangeCursor(Long.parseLong(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new InvalidChangeException.InvalidCursorException(cursor);
+    }
+
+    @Override
+    public String toString() {
+        return txId + "-" + id;
+    }
+}
@@ -0,0 +1,10 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.OffsetDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+// `cursor` can be stored by consumers that checkpoint after every event
+public record ChangeEvent(Long id, String cursor, String entity, String entityId,
+        String operation, @JsonRawValue String payload, OffsetDateTime createdAt) {
+}
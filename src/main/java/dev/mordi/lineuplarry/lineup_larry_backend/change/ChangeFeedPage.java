@@ -0,0 +1,7 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.util.List;
+
+// pass nextCursor as `since` on the next call, it stays put when there were no changes
+public record ChangeFeedPage(List<ChangeEvent> changes, String nextCursor) {
+}
@@ -0,0 +1,62 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+
+@Service
+public class ChangeFeedService {
+
+    // commits on other replicas do not wake us up, so long polls re-check at least this often
+    private static final Duration REPOLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final ChangeRepository changeRepository;
+    // completed and swapped out on every local commit to wake up waiting long polls
+    private final AtomicReference<CompletableFuture<Void>> nextChange = new AtomicReference<>(
+            new CompletableFuture<>());
+
+    public ChangeFeedService(ChangeRepository changeRepository) {
+        this.changeRepository = changeRepository;
+    }
+
+    public ChangeFeedPage getChanges(String since, int limit, Duration wait) {
+        ChangeCursor cursor = ChangeCursor.parse(since);
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            // grab the signal before querying so a commit in between is not missed
+            CompletableFuture<Void> signal = nextChange.get();
+            List<ChangeEvent> changes = changeRepository.getChangesSince(cursor, limit);
+            long remaining = deadline - System.nanoTime();
+            if (!changes.isEmpty() || remaining <= 0) {
+                String nextCursor = changes.isEmpty() ? cursor.toString()
+                        : changes.getLast().cursor();
+                return new ChangeFeedPage(changes, nextCursor);
+            }
+            awaitChange(signal, Math.min(remaining, REPOLL_INTERVAL.toNanos()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        nextChange.getAndSet(new CompletableFuture<>()).complete(null);
+    }
+
+    private static void awaitChange(CompletableFuture<Void> signal, long timeoutNanos) {
+        try {
+            signal.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // re-poll either way
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
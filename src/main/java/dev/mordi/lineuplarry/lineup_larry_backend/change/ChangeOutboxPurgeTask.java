@@ -0,0 +1,43 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+// consumers that fall further behind than the retention have to resync from scratch
+@Component
+public class ChangeOutboxPurgeTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeOutboxPurgeTask.class);
+
+    private final ChangeRepository changeRepository;
+    private final ChangeProperties properties;
+
+    public ChangeOutboxPurgeTask(ChangeRepository changeRepository, ChangeProperties properties) {
+        this.changeRepository = changeRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "changes.purge-outbox";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.fixedRate(Duration.ofHours(1));
+    }
+
+    @Override
+    public void run() {
+        int purged = changeRepository
+                .purgeBefore(OffsetDateTime.now().minus(properties.retention()));
+        log.info("Purged {} change outbox rows", purged);
+    }
+}
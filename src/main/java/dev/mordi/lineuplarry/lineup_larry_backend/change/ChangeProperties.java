@@ -0,0 +1,12 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.changes")
+public record ChangeProperties(
+        // outbox rows older than this are purged by ChangeOutboxPurgeTask
+        @DefaultValue("7d") Duration retention) {
+}
@@ -0,0 +1,56 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.JSONB;
+import org.springframework.stereotype.Repository;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.CHANGE_OUTBOX;
+import static org.jooq.impl.DSL.field;
+
+@Repository
+public class ChangeRepository {
+
+    // transactions below this id have all finished, so no more rows can show up behind it
+    private static final Field<Long> SNAPSHOT_XMIN = field(
+            "pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+
+    private final DSLContext dsl;
+
+    ChangeRepository(DSLContext dsl) {
+        this.dsl = dsl;
+    }
+
+    public void append(String entity, String entityId, String operation, String payload) {
+        dsl.insertInto(CHANGE_OUTBOX)
+                .set(CHANGE_OUTBOX.ENTITY, entity)
+                .set(CHANGE_OUTBOX.ENTITY_ID, entityId)
+                .set(CHANGE_OUTBOX.OPERATION, operation)
+                .set(CHANGE_OUTBOX.PAYLOAD, JSONB.valueOf(payload))
+                .execute();
+    }
+
+    public List<ChangeEvent> getChangesSince(ChangeCursor cursor, int limit) {
+        return dsl.select(CHANGE_OUTBOX.TX_ID, CHANGE_OUTBOX.ID, CHANGE_OUTBOX.ENTITY,
+                CHANGE_OUTBOX.ENTITY_ID, CHANGE_OUTBOX.OPERATION, CHANGE_OUTBOX.PAYLOAD,
+                CHANGE_OUTBOX.CREATED_AT)
+                .from(CHANGE_OUTBOX)
+                .where(CHANGE_OUTBOX.TX_ID.lt(SNAPSHOT_XMIN))
+                .orderBy(CHANGE_OUTBOX.TX_ID.asc(), CHANGE_OUTBOX.ID.asc())
+                .seek(cursor.txId(), cursor.id())
+                .limit(limit)
+                .fetch(r -> new ChangeEvent(r.get(CHANGE_OUTBOX.ID),
+                        new ChangeCursor(r.get(CHANGE_OUTBOX.TX_ID), r.get(CHANGE_OUTBOX.ID))
+                                .toString(),
+                        r.get(CHANGE_OUTBOX.ENTITY), r.get(CHANGE_OUTBOX.ENTITY_ID),
+                        r.get(CHANGE_OUTBOX.OPERATION), r.get(CHANGE_OUTBOX.PAYLOAD).data(),
+                        r.get(CHANGE_OUTBOX.CREATED_AT)));
+    }
+
+    public int purgeBefore(OffsetDateTime cutoff) {
+        return dsl.deleteFrom(CHANGE_OUTBOX).where(CHANGE_OUTBOX.CREATED_AT.lt(cutoff)).execute();
+    }
+}
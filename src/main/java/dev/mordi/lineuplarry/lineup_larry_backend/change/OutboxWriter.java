@@ -0,0 +1,48 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+
+import tools.jackson.databind.ObjectMapper;
+
+// Appends every domain event to the outbox right before the write's transaction commits, on the
+// same connection, so a change is recorded exactly when the write itself becomes visible.
+@Component
+public class OutboxWriter {
+
+    private final ChangeRepository changeRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(ChangeRepository changeRepository, ObjectMapper objectMapper) {
+        this.changeRepository = changeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        String payload = objectMapper.writeValueAsString(event);
+        switch (event) {
+            case DomainEvent.LineupCreated e ->
+                changeRepository.append("lineup", e.lineupId().toString(), "CREATED", payload);
+            case DomainEvent.LineupUpdated e ->
+                changeRepository.append("lineup", e.lineupId().toString(), "UPDATED", payload);
+            case DomainEvent.LineupDeleted e ->
+                changeRepository.append("lineup", e.lineupId().toString(), "DELETED", payload);
+            case DomainEvent.LikeAdded e ->
+                changeRepository.append("like", e.userId() + ":" + e.lineupId(), "CREATED",
+                        payload);
+            case DomainEvent.LikeRemoved e ->
+                changeRepository.append("like", e.userId() + ":" + e.lineupId(), "DELETED",
+                        payload);
+            case DomainEvent.UserCreated e ->
+                changeRepository.append("user", e.userId().toString(), "CREATED", payload);
+            case DomainEvent.UserRenamed e ->
+                changeRepository.append("user", e.userId().toString(), "UPDATED", payload);
+            case DomainEvent.UserDeleted e ->
+                changeRepository.append("user", e.userId().toString(), "DELETED", payload);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.ApiProblemException;
+
+public abstract class InvalidChangeException extends ApiProblemException {
+
+    protected InvalidChangeException(HttpStatus status, String problemSlug, String title,
+            String detail, String code) {
+        super(status, problemSlug, title, detail, code);
+    }
+
+    public static class InvalidCursorException extends InvalidChangeException {
+
+        public InvalidCursorException(String cursor) {
+            super(HttpStatus.BAD_REQUEST,
+                    "changes/invalid-cursor",
+                    "Invalid change cursor",
+                    "The cursor: '" + cursor + "' is not a valid change cursor",
+                    "CHANGE_INVALID_CURSOR");
+        }
+    }
+}
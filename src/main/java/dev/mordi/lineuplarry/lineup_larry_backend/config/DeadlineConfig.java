@@ -0,0 +1,19 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.config;
+
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.DeadlineListener;
+
+@Configuration
+@ConditionalOnProperty(prefix = "lineup-larry.deadlines", name = "enabled", matchIfMissing = true)
+public class DeadlineConfig {
+
+    @Bean
+    public ExecuteListenerProvider deadlineListenerProvider() {
+        return new DefaultExecuteListenerProvider(new DeadlineListener());
+    }
+}
@@ -0,0 +1,55 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.config;
+
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.impl.DefaultExecuteListenerProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.AcquireTimingMetricsTrackerFactory;
+import dev.mordi.lineuplarry.lineup_larry_backend.db.QueryShapeListener;
+import dev.mordi.lineuplarry.lineup_larry_backend.db.QueryShapes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Spring Boot's jOOQ auto-configuration registers every ExecuteListenerProvider bean on the
+// DSLContext
+@Configuration
+@ConditionalOnProperty(prefix = "lineup-larry.query-shapes", name = "enabled",
+        matchIfMissing = true)
+public class JooqConfig {
+
+    // times the wait inside every pool, primary and replica, rather than jOOQ's acquire, which
+    // only hands out the transaction's connection. Set before the pool starts, and in front of
+    // the Micrometer tracker Spring Boot would have installed, so hikaricp.* metrics stay.
+    @Bean
+    public static BeanPostProcessor acquireTimingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Hikari takes either a metric registry or a tracker factory, never both
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricRegistry() == null) {
+                    MetricsTrackerFactory delegate = hikari.getMetricsTrackerFactory();
+                    if (delegate == null) {
+                        delegate = new MicrometerMetricsTrackerFactory(meterRegistry.getObject());
+                    }
+                    hikari.setMetricsTrackerFactory(
+                            new AcquireTimingMetricsTrackerFactory(delegate));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ExecuteListenerProvider queryShapeListenerProvider(QueryShapes queryShapes) {
+        return new DefaultExecuteListenerProvider(new QueryShapeListener(queryShapes));
+    }
+}
@@ -0,0 +1,86 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReplicaMonitor;
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReplicaProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Replaces Spring Boot's DataSource with one that defers fetching a connection until the first
+// statement, by which time the transaction manager has marked it read-only or not. Read-only
+// transactions (@Transactional(readOnly = true) on the repositories) go through
+// ReplicaRoutingDataSource, everything else, Flyway included, to the primary.
+@Configuration
+@ConditionalOnProperty(prefix = "lineup-larry.replica", name = "enabled")
+public class ReplicaConfig {
+
+    // what Spring Boot would have built, Testcontainers' @ServiceConnection overrides the url
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties,
+            ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class);
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        if (details != null) {
+            builder.driverClassName(details.getDriverClassName())
+                    .url(details.getJdbcUrl())
+                    .username(details.getUsername())
+                    .password(details.getPassword());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.url())
+                .username(properties.username())
+                .password(properties.password())
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(properties.maxPoolSize());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(HikariDataSource replicaDataSource,
+            ReplicaProperties properties, MeterRegistry meterRegistry) {
+        return new ReplicaMonitor(replicaDataSource, properties, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource readOnlyDataSource(HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource, ReplicaMonitor replicaMonitor,
+            MeterRegistry meterRegistry) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaMonitor,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+            ReplicaRoutingDataSource readOnlyDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                primaryDataSource);
+        dataSource.setReadOnlyDataSource(readOnlyDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,66 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+// Remembers how long the pool made this thread wait for a connection, so QueryShapeListener can
+// attribute pool waits to the statement that suffered them. Hikari reports the wait on the
+// acquiring thread, whoever asked: the transaction manager when a transaction begins, or the
+// replica's lazy proxy at its first statement. The wait goes to the next statement on the
+// thread, the first one of the transaction. Wraps the tracker that feeds hikaricp.* metrics.
+public class AcquireTimingMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private static final ThreadLocal<long[]> pendingAcquireNanos = ThreadLocal
+            .withInitial(() -> new long[] {-1L});
+
+    private final MetricsTrackerFactory delegate;
+
+    public AcquireTimingMetricsTrackerFactory(MetricsTrackerFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        IMetricsTracker tracker = delegate != null ? delegate.create(poolName, poolStats)
+                : new IMetricsTracker() {
+                };
+        return new IMetricsTracker() {
+
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                long[] slot = pendingAcquireNanos.get();
+                slot[0] = Math.max(slot[0], 0) + elapsedAcquiredNanos;
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                tracker.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                tracker.close();
+            }
+        };
+    }
+
+    // the waits since the last call, -1 when this thread acquired no connection since then
+    static long takeAcquireNanos() {
+        long[] slot = pendingAcquireNanos.get();
+        long nanos = slot[0];
+        slot[0] = -1L;
+        return nanos;
+    }
+}
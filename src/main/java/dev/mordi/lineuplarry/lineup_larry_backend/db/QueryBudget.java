@@ -0,0 +1,14 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Overrides lineup-larry.query-budget.max-queries for a single handler method
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
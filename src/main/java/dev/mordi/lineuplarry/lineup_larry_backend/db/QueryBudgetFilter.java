@@ -0,0 +1,115 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Binds a RequestQueryStats for every request and checks it against the query budget once the
+// request is done. Tagged by route pattern rather than raw URI to keep the metrics bounded.
+@Component
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        // ServerTimingFilter reads the same stats, whichever of the two runs first creates them
+        RequestQueryStats stats = RequestQueryStats.CURRENT.isBound()
+                ? RequestQueryStats.CURRENT.get()
+                : new RequestQueryStats();
+        ContentCachingResponseWrapper buffered = properties.exposeCountHeader()
+                ? new ContentCachingResponseWrapper(response)
+                : null;
+        try {
+            ScopedValue.where(RequestQueryStats.CURRENT, stats).call(() -> {
+                chain.doFilter(request, buffered != null ? buffered : response);
+                return null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        } finally {
+            check(request, stats);
+        }
+        if (buffered != null) {
+            buffered.setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.total()));
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private void check(HttpServletRequest request, RequestQueryStats stats) {
+        String route = route(request);
+        int total = stats.total();
+        DistributionSummary.builder("db.request.queries")
+                .description("Queries run per request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(total);
+
+        int budget = budget(request);
+        if (total > budget) {
+            log.warn("{} ran {} queries, over its budget of {}", route, total, budget);
+            Counter.builder("db.request.budget.exceeded")
+                    .tag("route", route)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        stats.repeatedShapes(properties.repeatThreshold()).forEach((shape, count) -> {
+            log.warn("Possible N+1 in {}: shape {} ran {} times: {}", route,
+                    shape.fingerprint(), count, shape.sql());
+            Counter.builder("db.request.repeated.shape")
+                    .tag("route", route)
+                    .tag("shape", shape.fingerprint())
+                    .register(meterRegistry)
+                    .increment();
+        });
+    }
+
+    private int budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+                instanceof HandlerMethod handler) {
+            QueryBudget override = handler.getMethodAnnotation(QueryBudget.class);
+            if (override != null) {
+                return override.value();
+            }
+        }
+        return properties.maxQueries();
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
@@ -0,0 +1,15 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.query-budget")
+public record QueryBudgetProperties(
+        @DefaultValue("true") boolean enabled,
+        // requests running more queries than this are logged and counted, see @QueryBudget
+        @DefaultValue("4") int maxQueries,
+        // the same shape running this many times in one request is reported as a likely N+1
+        @DefaultValue("5") int repeatThreshold,
+        // adds X-Query-Count to responses, meant for tests since it buffers the response body
+        @DefaultValue("false") boolean exposeCountHeader) {
+}
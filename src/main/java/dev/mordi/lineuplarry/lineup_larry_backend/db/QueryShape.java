@@ -0,0 +1,19 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+// The meters of one normalized statement, see QueryShapes
+public record QueryShape(String fingerprint, String sql, Timer duration,
+        DistributionSummary rows, Timer connectionAcquire) {
+
+    void record(long elapsedNanos, long rowCount, long acquireNanos) {
+        duration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rows.record(rowCount);
+        if (acquireNanos >= 0) {
+            connectionAcquire.record(acquireNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.jfr.QueryEvent;
+
+// Records execution time, rows and connection acquire time of every statement under its shape,
+// and counts it against the current request's RequestQueryStats.
+public class QueryShapeListener implements ExecuteListener {
+
+    private static final String START = "query-shapes.start";
+    private static final String ROWS = "query-shapes.rows";
+    private static final String EVENT = "query-shapes.event";
+
+    private final QueryShapes queryShapes;
+
+    public QueryShapeListener(QueryShapes queryShapes) {
+        this.queryShapes = queryShapes;
+    }
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(START, System.nanoTime());
+        QueryEvent event = new QueryEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            ctx.data(EVENT, event);
+        }
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        Object rows = ctx.data(ROWS);
+        ctx.data(ROWS, rows == null ? 1L : (Long) rows + 1);
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        Object start = ctx.data(START);
+        String sql = ctx.sql();
+        if (start == null || sql == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - (Long) start;
+        Object fetched = ctx.data(ROWS);
+        long rows = fetched != null ? (Long) fetched : Math.max(ctx.rows(), 0);
+        long acquire = AcquireTimingMetricsTrackerFactory.takeAcquireNanos();
+        QueryShape shape = queryShapes.shapeOf(sql);
+        shape.record(elapsed, rows, acquire);
+        if (RequestQueryStats.CURRENT.isBound()) {
+            RequestQueryStats.CURRENT.get().record(shape, elapsed, acquire);
+        }
+        if (ctx.data(EVENT) instanceof QueryEvent event) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.shape = shape.fingerprint();
+                event.sql = shape.sql();
+                event.rows = rows;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.query-shapes")
+public record QueryShapeProperties(
+        @DefaultValue("true") boolean enabled,
+        // shapes beyond this many are all recorded as "other" to keep meter cardinality bounded
+        @DefaultValue("300") int maxShapes,
+        // how many shapes the queryshapes actuator endpoint lists
+        @DefaultValue("20") int topN,
+        @DefaultValue({"0.5", "0.95", "0.99"}) List<Double> percentiles) {
+}
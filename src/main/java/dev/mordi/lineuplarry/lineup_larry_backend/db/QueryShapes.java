@@ -0,0 +1,104 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Normalizes rendered SQL into shapes, so "where id in (?, ?)" and "where id in (?, ?, ?)" or
+// different inlined literals count as the same statement, and owns the meters of each shape.
+@Component
+public class QueryShapes {
+
+    static final String OTHER = "other";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile(
+            "(?<![\\w$.])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile(
+            "\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern REPEATED_ROWS = Pattern.compile("(\\([^()]*\\))(?:, \\1)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final MeterRegistry meterRegistry;
+    private final QueryShapeProperties properties;
+    private final double[] percentiles;
+    private final ConcurrentHashMap<String, QueryShape> byFingerprint = new ConcurrentHashMap<>();
+    // rendered SQL is mostly stable between calls, so skip the regexes for statements seen before
+    private final ConcurrentHashMap<String, QueryShape> bySql = new ConcurrentHashMap<>();
+
+    public QueryShapes(MeterRegistry meterRegistry, QueryShapeProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.percentiles = properties.percentiles().stream().mapToDouble(Double::doubleValue)
+                .toArray();
+    }
+
+    public QueryShape shapeOf(String sql) {
+        QueryShape shape = bySql.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        String normalized = normalize(sql);
+        String fingerprint = fingerprint(normalized);
+        shape = byFingerprint.get(fingerprint);
+        if (shape == null) {
+            shape = byFingerprint.size() < properties.maxShapes()
+                    ? byFingerprint.computeIfAbsent(fingerprint, f -> register(f, normalized))
+                    : byFingerprint.computeIfAbsent(OTHER, f -> register(f, OTHER));
+        }
+        // bounded as well, varying IN lists would otherwise grow this forever
+        if (bySql.size() < properties.maxShapes() * 4) {
+            bySql.putIfAbsent(sql, shape);
+        }
+        return shape;
+    }
+
+    public QueryShape get(String fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+
+    public Collection<QueryShape> all() {
+        return byFingerprint.values();
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?, ...)");
+        return REPEATED_ROWS.matcher(shape).replaceAll("$1, ...");
+    }
+
+    // 64 bit FNV-1a, short enough for a tag and stable across restarts and nodes
+    static String fingerprint(String normalized) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return String.format("%016x", hash);
+    }
+
+    private QueryShape register(String fingerprint, String sql) {
+        return new QueryShape(fingerprint, sql,
+                Timer.builder("db.query")
+                        .description("Execution time per query shape")
+                        .tag("shape", fingerprint)
+                        .publishPercentiles(percentiles)
+                        .register(meterRegistry),
+                DistributionSummary.builder("db.query.rows")
+                        .description("Rows fetched or affected per query shape")
+                        .tag("shape", fingerprint)
+                        .register(meterRegistry),
+                Timer.builder("db.query.connection.acquire")
+                        .description("Time spent getting a connection per query shape")
+                        .tag("shape", fingerprint)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,66 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+// /actuator/queryshapes lists the statements with the most total execution time since startup,
+// /actuator/queryshapes/{fingerprint} shows a single one
+@Component
+@Endpoint(id = "queryshapes")
+public class QueryShapesEndpoint {
+
+    private final QueryShapes queryShapes;
+    private final QueryShapeProperties properties;
+
+    public QueryShapesEndpoint(QueryShapes queryShapes, QueryShapeProperties properties) {
+        this.queryShapes = queryShapes;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public List<QueryShapeStats> heaviest() {
+        return queryShapes.all().stream()
+                .map(QueryShapesEndpoint::stats)
+                .sorted(Comparator.comparingDouble(QueryShapeStats::totalMs).reversed())
+                .limit(properties.topN())
+                .toList();
+    }
+
+    @ReadOperation
+    public QueryShapeStats shape(@Selector String fingerprint) {
+        QueryShape shape = queryShapes.get(fingerprint);
+        return shape == null ? null : stats(shape);
+    }
+
+    private static QueryShapeStats stats(QueryShape shape) {
+        HistogramSnapshot snapshot = shape.duration().takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            String name = BigDecimal.valueOf(value.percentile()).movePointRight(2)
+                    .stripTrailingZeros().toPlainString();
+            percentiles.put("p" + name, value.value(TimeUnit.MILLISECONDS));
+        }
+        return new QueryShapeStats(shape.fingerprint(), shape.sql(), snapshot.count(),
+                snapshot.total(TimeUnit.MILLISECONDS), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), percentiles,
+                (long) shape.rows().totalAmount(),
+                shape.connectionAcquire().mean(TimeUnit.MILLISECONDS));
+    }
+
+    public record QueryShapeStats(String fingerprint, String sql, long count, double totalMs,
+            double meanMs, double maxMs, Map<String, Double> percentilesMs, long rows,
+            double meanConnectionAcquireMs) {
+    }
+}
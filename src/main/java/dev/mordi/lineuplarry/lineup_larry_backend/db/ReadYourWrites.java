@@ -0,0 +1,56 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// The WAL position a client's last write committed at, carried in a cookie. A request bound to
+// one only reads from the replica once it has replayed past that position.
+public final class ReadYourWrites {
+
+    static final ScopedValue<Long> REQUIRED_LSN = ScopedValue.newInstance();
+    private static final ScopedValue<Boolean> ON_PRIMARY = ScopedValue.newInstance();
+
+    private ReadYourWrites() {
+    }
+
+    // 0 outside a request or without a recent write, any replica position satisfies that
+    public static long requiredLsn() {
+        return REQUIRED_LSN.orElse(0L);
+    }
+
+    // the caches and the coalescing of concurrent loads may still hold what was there before
+    // the client's write, so its reads skip both until the cookie expires
+    public static boolean awaitsOwnWrite() {
+        return requiredLsn() != 0;
+    }
+
+    // for loads that fill a cache. Every client is served what they read until it expires, so
+    // it has to come from the primary and not from a replica still behind the write that
+    // invalidated the entry.
+    public static <T> T onPrimary(Supplier<T> read) {
+        return ScopedValue.where(ON_PRIMARY, true).call(read::get);
+    }
+
+    // for RequestScope, which binds them again in tasks a request fans out to
+    public static List<ScopedValue<?>> scopedValues() {
+        return List.of(REQUIRED_LSN, ON_PRIMARY);
+    }
+
+    static boolean primaryRequired() {
+        return ON_PRIMARY.orElse(false);
+    }
+
+    // pg_lsn's text form, two hex halves like "16/B374D848"
+    static long parse(String lsn) {
+        int separator = lsn.indexOf('/');
+        if (separator <= 0 || separator == lsn.length() - 1) {
+            throw new IllegalArgumentException("not an LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn, 0, separator, 16);
+        long low = Long.parseLong(lsn, separator + 1, lsn.length(), 16);
+        if (high < 0 || low < 0 || high > 0xFFFF_FFFFL || low > 0xFFFF_FFFFL) {
+            throw new IllegalArgumentException("not an LSN: " + lsn);
+        }
+        return high << 32 | low;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.jooq.DSLContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.jooq.impl.DSL.field;
+
+// After a handler that may have written returns, hands the client the primary's current WAL
+// position. Its transactions have committed by then, so once the replica replays past that
+// position it has everything the client wrote.
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "lineup-larry.replica", name = "enabled")
+public class ReadYourWritesAspect {
+
+    private final DSLContext dsl;
+    private final ReplicaProperties properties;
+
+    public ReadYourWritesAspect(DSLContext dsl, ReplicaProperties properties) {
+        this.dsl = dsl;
+        this.properties = properties;
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object rememberWrite(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (!(RequestContextHolder
+                .getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || isSafe(attributes.getRequest().getMethod())) {
+            return result;
+        }
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            // outside a read-only transaction, so this runs on the primary
+            String lsn = dsl.select(field("pg_current_wal_lsn()::text", String.class))
+                    .fetchSingle().value1();
+            ResponseCookie cookie = ResponseCookie.from(properties.cookie(), lsn)
+                    .path("/api")
+                    .maxAge(properties.stickiness())
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return result;
+    }
+
+    private static boolean isSafe(String method) {
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.OPTIONS.matches(method);
+    }
+}
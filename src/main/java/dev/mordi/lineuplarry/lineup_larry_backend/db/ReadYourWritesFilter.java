@@ -0,0 +1,68 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Binds the WAL position from the client's cookie for /api requests, which keeps their reads off
+// the replica until it has caught up with their last write. ReadYourWritesAspect sets the cookie.
+@Component
+@ConditionalOnProperty(prefix = "lineup-larry.replica", name = "enabled")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReplicaProperties properties;
+
+    public ReadYourWritesFilter(ReplicaProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        long requiredLsn = requiredLsn(request.getCookies());
+        if (requiredLsn == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            ScopedValue.where(ReadYourWrites.REQUIRED_LSN, requiredLsn).call(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    // a malformed cookie is ignored, at worst the client reads slightly stale data
+    private long requiredLsn(Cookie[] cookies) {
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookie.getName().equals(properties.cookie())) {
+                try {
+                    return ReadYourWrites.parse(cookie.getValue());
+                } catch (IllegalArgumentException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,113 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Samples how far the replica has replayed and how far behind it is. Until the first sample, and
+// whenever sampling fails or the replica stops streaming, it counts as unusable and every read
+// goes to the primary.
+public class ReplicaMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    // replay timestamps stand still on an idle primary, so a replica that has replayed everything
+    // it received is not behind no matter how old its last transaction is
+    private static final String SAMPLE_SQL = """
+            select pg_last_wal_replay_lsn()::text,
+                   case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) end,
+                   exists(select 1 from pg_stat_wal_receiver where status = 'streaming')
+            """;
+
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private volatile Sample sample;
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReplicaMonitor(DataSource replica, ReplicaProperties properties,
+            MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.properties = properties;
+        Gauge.builder("db.replica.lag", this,
+                m -> m.sample != null ? m.sample.lag().toMillis() / 1000.0 : Double.NaN)
+                .description("Seconds the replica is behind the primary")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    record Sample(long replayLsn, Duration lag, boolean streaming) {
+    }
+
+    // whether the replica may serve a read that has to see everything up to requiredLsn
+    public boolean canServe(long requiredLsn) {
+        Sample current = sample;
+        return current != null && current.streaming()
+                && current.lag().compareTo(properties.maxLag()) <= 0
+                && current.replayLsn() >= requiredLsn;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofVirtual().name("replica-monitor").start(this::pollLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                sample = sample();
+            } catch (SQLException | RuntimeException e) {
+                if (sample != null) {
+                    log.warn("Failed to sample the replica, reads go to the primary", e);
+                }
+                sample = null;
+            }
+            try {
+                Thread.sleep(properties.pollInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Sample sample() throws SQLException {
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(SAMPLE_SQL)) {
+            rs.next();
+            String replayLsn = rs.getString(1);
+            if (replayLsn == null) {
+                throw new SQLException(properties.url() + " is not replaying WAL");
+            }
+            long lagMillis = Math.round(rs.getDouble(2) * 1000);
+            return new Sample(ReadYourWrites.parse(replayLsn), Duration.ofMillis(lagMillis),
+                    rs.getBoolean(3));
+        }
+    }
+}
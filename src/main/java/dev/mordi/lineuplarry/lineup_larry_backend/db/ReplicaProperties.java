@@ -0,0 +1,24 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.replica")
+public record ReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        // a streaming replica of spring.datasource, only read-only transactions use it
+        String url,
+        String username,
+        String password,
+        @DefaultValue("10") int maxPoolSize,
+        // reads stay on the primary while the replica is further behind than this
+        @DefaultValue("2s") Duration maxLag,
+        // how often the replica's replay position and lag are sampled
+        @DefaultValue("500ms") Duration pollInterval,
+        // holds the WAL position of the client's last write, see ReadYourWrites
+        @DefaultValue("lineup-larry-lsn") String cookie,
+        // how long after a write the client's reads wait for the replica to catch up to it
+        @DefaultValue("30s") Duration stickiness) {
+}
@@ -0,0 +1,51 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The read-only side of the LazyConnectionDataSourceProxy, so only read-only transactions get
+// here. They go to the replica unless it is too far behind, has not yet replayed the calling
+// client's last write, or the read fills a cache, see ReadYourWrites.onPrimary.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaMonitor monitor;
+    private final Counter toPrimary;
+    private final Counter toReplica;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor monitor,
+            MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        this.toPrimary = routed(meterRegistry, Target.PRIMARY);
+        this.toReplica = routed(meterRegistry, Target.REPLICA);
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReadYourWrites.primaryRequired() && monitor.canServe(ReadYourWrites.requiredLsn())) {
+            toReplica.increment();
+            return Target.REPLICA;
+        }
+        toPrimary.increment();
+        return Target.PRIMARY;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, Target target) {
+        return Counter.builder("db.replica.routed")
+                .description("Read-only transactions by the database they ran on")
+                .tag("target", target.name().toLowerCase())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Queries run on behalf of the current request, counted by QueryShapeListener. Bound by
+// QueryBudgetFilter for the duration of a request, and inherited by structured subtasks.
+public final class RequestQueryStats {
+
+    public static final ScopedValue<RequestQueryStats> CURRENT = ScopedValue.newInstance();
+
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong dbNanos = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final ConcurrentHashMap<QueryShape, AtomicInteger> byShape = new ConcurrentHashMap<>();
+
+    void record(QueryShape shape, long elapsedNanos, long connectionAcquireNanos) {
+        total.incrementAndGet();
+        dbNanos.addAndGet(elapsedNanos);
+        if (connectionAcquireNanos > 0) {
+            acquireNanos.addAndGet(connectionAcquireNanos);
+        }
+        byShape.computeIfAbsent(shape, s -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public int total() {
+        return total.get();
+    }
+
+    public long dbNanos() {
+        return dbNanos.get();
+    }
+
+    public long connectionAcquireNanos() {
+        return acquireNanos.get();
+    }
+
+    // shapes that ran at least `threshold` times, the usual sign of a query issued per item
+    public Map<QueryShape, Integer> repeatedShapes(int threshold) {
+        Map<QueryShape, Integer> repeated = new HashMap<>();
+        byShape.forEach((shape, count) -> {
+            if (count.get() >= threshold) {
+                repeated.put(shape, count.get());
+            }
+        });
+        return repeated;
+    }
+}
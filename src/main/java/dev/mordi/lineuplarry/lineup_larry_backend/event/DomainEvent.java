@@ -0,0 +1,34 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.event;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+
+// Published by the repositories through Spring's ApplicationEventPublisher and handed to
+// subscribers by the DomainEventBus once the surrounding transaction has committed.
+public sealed interface DomainEvent {
+
+    record LineupCreated(Long lineupId, Long userId, Map map) implements DomainEvent {
+    }
+
+    record LineupUpdated(Long lineupId, Long userId, Map map) implements DomainEvent {
+    }
+
+    record LineupDeleted(Long lineupId, Long userId) implements DomainEvent {
+    }
+
+    record LikeAdded(Long userId, Long lineupId) implements DomainEvent {
+    }
+
+    record LikeRemoved(Long userId, Long lineupId) implements DomainEvent {
+    }
+
+    record UserCreated(Long userId, String username) implements DomainEvent {
+    }
+
+    record UserRenamed(Long userId, String username) implements DomainEvent {
+    }
+
+    // not a rename, but caches keyed by user need to hear about it all the same. Published after
+    // a LineupDeleted and LikeRemoved for each row the database cascades the delete to.
+    record UserDeleted(Long userId) implements DomainEvent {
+    }
+}
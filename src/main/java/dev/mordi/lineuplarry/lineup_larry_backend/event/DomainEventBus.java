@@ -0,0 +1,156 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+// Hands committed events to each DomainEventSubscriber through a bounded queue of its own. The
+// hand-over is best effort, see DomainEventSubscriber for what that means for subscribers.
+@Component
+public class DomainEventBus implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventBus.class);
+
+    private final List<Subscription<?>> subscriptions = new ArrayList<>();
+    private final Duration publishTimeout;
+
+    private volatile boolean running;
+
+    public DomainEventBus(List<DomainEventSubscriber<?>> subscribers,
+            MeterRegistry meterRegistry, EventProperties properties) {
+        this.publishTimeout = properties.publishTimeout();
+        for (DomainEventSubscriber<?> subscriber : subscribers) {
+            subscriptions.add(new Subscription<>(subscriber, meterRegistry));
+        }
+    }
+
+    // Runs after commit, or straight away when the write was not part of a transaction.
+    // Rolled back writes never reach subscribers.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDomainEvent(DomainEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        subscriptions.forEach(Subscription::start);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        subscriptions.forEach(Subscription::stop);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Envelope(DomainEvent event, long enqueuedAt) {
+    }
+
+    private final class Subscription<E extends DomainEvent> {
+
+        private final DomainEventSubscriber<E> subscriber;
+        private final BlockingQueue<Envelope> queue;
+        private final Timer lag;
+        private final Counter dropped;
+        private final Counter failures;
+        private Thread thread;
+
+        Subscription(DomainEventSubscriber<E> subscriber, MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(subscriber.queueCapacity());
+            this.lag = Timer.builder("events.subscriber.lag").tag("subscriber", subscriber.name())
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("events.subscriber.dropped")
+                    .description("Events a subscriber never saw because its queue stayed full")
+                    .tag("subscriber", subscriber.name()).register(meterRegistry);
+            this.failures = Counter.builder("events.subscriber.failures")
+                    .tag("subscriber", subscriber.name()).register(meterRegistry);
+            meterRegistry.gauge("events.subscriber.queued",
+                    Tags.of("subscriber", subscriber.name()), queue, BlockingQueue::size);
+        }
+
+        void offer(DomainEvent event) {
+            if (!subscriber.eventType().isInstance(event)) {
+                return;
+            }
+            try {
+                // a full queue pushes back on the writer for a bit before giving up on the event
+                if (!queue.offer(new Envelope(event, System.nanoTime()), publishTimeout.toNanos(),
+                        TimeUnit.NANOSECONDS)) {
+                    dropped.increment();
+                    log.warn("Subscriber '{}' is falling behind, dropped {}", subscriber.name(),
+                            event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+        }
+
+        void start() {
+            thread = Thread.ofVirtual().name("events-" + subscriber.name()).start(this::drain);
+        }
+
+        void stop() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void drain() {
+            List<Envelope> batch = new ArrayList<>(subscriber.maxBatchSize());
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, subscriber.maxBatchSize() - 1);
+                deliver(batch);
+                batch.clear();
+            }
+            // hand over whatever is left before shutting down
+            queue.drainTo(batch);
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        }
+
+        private void deliver(List<Envelope> batch) {
+            long now = System.nanoTime();
+            List<E> events = new ArrayList<>(batch.size());
+            for (Envelope envelope : batch) {
+                events.add(subscriber.eventType().cast(envelope.event()));
+                lag.record(now - envelope.enqueuedAt(), TimeUnit.NANOSECONDS);
+            }
+            try {
+                subscriber.onEvents(events);
+            } catch (Exception e) {
+                failures.increment();
+                log.error("Subscriber '{}' failed to handle {} events", subscriber.name(),
+                        events.size(), e);
+            }
+        }
+    }
+}
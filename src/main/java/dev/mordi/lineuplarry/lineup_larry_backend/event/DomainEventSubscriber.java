@@ -0,0 +1,30 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.event;
+
+import java.util.List;
+
+// Register an implementation as a bean to receive events in batches on a dedicated virtual
+// thread. Subscribers never run on the request thread, so they are free to be slow, but a
+// subscriber that falls behind by more than queueCapacity() events slows down writers.
+//
+// Delivery is at most once: events queued at a crash are gone, and a subscriber whose queue stays
+// full for publishTimeout loses the event (events.subscriber.dropped). Only work that something
+// else catches up on belongs here. LikeShardCleanup qualifies, since LikeShardSweepTask deletes
+// whatever it misses. Work that must not be lost goes into the write's transaction, like
+// OutboxWriter and CacheInvalidationPublisher, or onto the job queue, like LineupAuthorRenames.
+public interface DomainEventSubscriber<E extends DomainEvent> {
+
+    String name();
+
+    // DomainEvent.class to receive everything
+    Class<E> eventType();
+
+    void onEvents(List<E> events) throws Exception;
+
+    default int queueCapacity() {
+        return 4096;
+    }
+
+    default int maxBatchSize() {
+        return 256;
+    }
+}
@@ -0,0 +1,13 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.event;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.events")
+public record EventProperties(
+        // how long a write waits on a full subscriber queue before the event is dropped for that
+        // subscriber, counted in events.subscriber.dropped
+        @DefaultValue("100ms") Duration publishTimeout) {
+}
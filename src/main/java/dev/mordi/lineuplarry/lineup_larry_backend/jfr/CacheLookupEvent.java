@@ -0,0 +1,25 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lineuplarry.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Lineup Larry", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Hit")
+    public boolean hit;
+}
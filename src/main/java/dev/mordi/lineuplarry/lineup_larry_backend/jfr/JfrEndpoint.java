@@ -0,0 +1,194 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingStream;
+
+// Profiling a running pod without a shell:
+// GET /actuator/jfr/{settings}/{seconds} records for that long and returns the .jfr file, with
+// settings being "default", "profile" or "lineup-larry" (profile plus our own events).
+// GET /actuator/jfr/{seconds} streams events for that long and returns the hottest methods,
+// allocation sites and virtual thread pinning sites.
+// Only one of either runs at a time in the JVM, a second caller gets a 429. Recordings leave out
+// the environment variables and system properties, which hold credentials. The actuator is only
+// served on management.server.port, which must not be reachable from outside the cluster.
+@Component
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    static final String LINEUP_LARRY_SETTINGS = "lineup-larry";
+    private static final List<String> CUSTOM_EVENTS = List.of("lineuplarry.Request",
+            "lineuplarry.Repository", "lineuplarry.Query", "lineuplarry.CacheLookup");
+    private static final List<String> SECRET_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty");
+    // the flight recorder is per JVM, and so is the guard
+    private static final AtomicBoolean BUSY = new AtomicBoolean();
+
+    private final JfrProperties properties;
+
+    public JfrEndpoint(JfrProperties properties) {
+        this.properties = properties;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@Selector String settings,
+            @Selector int seconds) {
+        Map<String, String> configuration = configuration(settings);
+        if (configuration == null || !isValidDuration(seconds)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!BUSY.compareAndSet(false, true)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try (Recording recording = new Recording(configuration)) {
+            recording.setName("actuator-" + settings);
+            recording.start();
+            sleep(seconds);
+            recording.stop();
+            Path file = Files.createTempFile("lineup-larry-", ".jfr");
+            recording.dump(file);
+            return new WebEndpointResponse<>(new TemporaryFileResource(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            BUSY.set(false);
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<JfrSummary> summary(@Selector int seconds) {
+        if (!isValidDuration(seconds)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!BUSY.compareAndSet(false, true)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Map<String, LongAdder> hotMethods = new ConcurrentHashMap<>();
+        Map<String, LongAdder> allocationSites = new ConcurrentHashMap<>();
+        Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+            stream.enable("jdk.ObjectAllocationSample").with("throttle", "300/s");
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            stream.onEvent("jdk.ExecutionSample",
+                    event -> add(hotMethods, StackFrames.topFrame(event), 1));
+            stream.onEvent("jdk.ObjectAllocationSample", event -> add(allocationSites,
+                    StackFrames.topFrame(event), event.getLong("weight")));
+            stream.onEvent("jdk.VirtualThreadPinned",
+                    event -> add(pinnedSites, StackFrames.firstApplicationFrame(event), 1));
+            stream.startAsync();
+            sleep(seconds);
+            // flushes the recording and waits for the handlers, close() would drop what is left
+            stream.stop();
+        } finally {
+            BUSY.set(false);
+        }
+        return new WebEndpointResponse<>(new JfrSummary(seconds, top(hotMethods),
+                top(allocationSites), top(pinnedSites)));
+    }
+
+    static Map<String, String> configuration(String settings) {
+        try {
+            Map<String, String> configuration;
+            if (LINEUP_LARRY_SETTINGS.equals(settings)) {
+                configuration = new HashMap<>(
+                        Configuration.getConfiguration("profile").getSettings());
+                CUSTOM_EVENTS.forEach(name -> configuration.put(name + "#enabled", "true"));
+            } else if ("default".equals(settings) || "profile".equals(settings)) {
+                configuration = new HashMap<>(
+                        Configuration.getConfiguration(settings).getSettings());
+            } else {
+                return null;
+            }
+            SECRET_EVENTS.forEach(name -> configuration.put(name + "#enabled", "false"));
+            return configuration;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Could not load JFR settings " + settings, e);
+        }
+    }
+
+    static boolean isRecording() {
+        return BUSY.get();
+    }
+
+    private boolean isValidDuration(int seconds) {
+        return seconds > 0 && seconds <= properties.maxDuration().toSeconds();
+    }
+
+    private List<JfrSummary.Entry> top(Map<String, LongAdder> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new JfrSummary.Entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Comparator.comparingLong(JfrSummary.Entry::weight).reversed())
+                .limit(properties.summaryTopN())
+                .toList();
+    }
+
+    private static void add(Map<String, LongAdder> counts, String frame, long weight) {
+        if (frame != null) {
+            counts.computeIfAbsent(frame, f -> new LongAdder()).add(weight);
+        }
+    }
+
+    private static void sleep(int seconds) {
+        try {
+            Thread.sleep(Duration.ofSeconds(seconds));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // deleted once the response has been streamed
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path file;
+
+        TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        // keeps Spring from using zero-copy file transfer, which would skip the delete
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.jfr")
+public record JfrProperties(
+        // upper bound for recordings and summaries requested through /actuator/jfr, the
+        // request holds a thread and the recording a temp file for that long
+        @DefaultValue("60s") Duration maxDuration,
+        // how many entries each list of a summary holds
+        @DefaultValue("15") int summaryTopN) {
+}
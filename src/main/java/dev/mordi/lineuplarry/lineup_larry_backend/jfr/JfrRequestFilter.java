@@ -0,0 +1,48 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.io.IOException;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Emits a RequestEvent per request. All lineuplarry.* events are disabled by default and cost
+// nothing until a recording turns them on, e.g.
+// -XX:StartFlightRecording:settings=profile,+lineuplarry.Request#enabled=true
+// or the lineup-larry settings profile of the jfr actuator endpoint.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrRequestFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled() || !(request instanceof HttpServletRequest http)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object route = http.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = http.getMethod();
+                event.route = route != null ? route.toString() : "UNMAPPED";
+                event.status = ((HttpServletResponse) response).getStatus();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.util.List;
+
+public record JfrSummary(long seconds, List<Entry> hotMethods, List<Entry> allocationSites,
+        List<Entry> pinnedSites) {
+
+    // samples for hot methods, sampled bytes for allocations, pinned events for pinning
+    public record Entry(String frame, long weight) {
+    }
+}
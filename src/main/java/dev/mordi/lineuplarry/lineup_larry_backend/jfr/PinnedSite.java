@@ -0,0 +1,36 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// All pinning events that share the same top of the stack
+public final class PinnedSite {
+
+    private final String frame;
+    private final List<String> stack;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    PinnedSite(String frame, List<String> stack) {
+        this.frame = frame;
+        this.stack = stack;
+    }
+
+    void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    View view() {
+        return new View(frame, stack, count.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()),
+                TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+    }
+
+    public record View(String frame, List<String> stack, long count, long totalMs, long maxMs) {
+    }
+}
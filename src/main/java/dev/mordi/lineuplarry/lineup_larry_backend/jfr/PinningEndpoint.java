@@ -0,0 +1,26 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// /actuator/pinning lists where virtual threads got pinned the longest since startup
+@Component
+@Endpoint(id = "pinning")
+public class PinningEndpoint {
+
+    private static final int TOP_SITES = 25;
+
+    private final VirtualThreadMonitor monitor;
+
+    public PinningEndpoint(VirtualThreadMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public List<PinnedSite.View> topSites() {
+        return monitor.topSites(TOP_SITES);
+    }
+}
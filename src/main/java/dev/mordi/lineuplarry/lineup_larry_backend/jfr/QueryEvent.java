@@ -0,0 +1,28 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lineuplarry.Query")
+@Label("SQL Query")
+@Description("A single statement executed through jOOQ")
+@Category({"Lineup Larry", "Database"})
+@Enabled(false)
+@StackTrace(false)
+public class QueryEvent extends Event {
+
+    @Label("Shape")
+    @Description("Fingerprint of the normalized statement, see /actuator/queryshapes")
+    public String shape;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    public long rows;
+}
@@ -0,0 +1,31 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lineuplarry.Repository")
+@Label("Repository Call")
+@Description("A call into one of the lineup, like or user repositories")
+@Category({"Lineup Larry", "Database"})
+@Enabled(false)
+@StackTrace(false)
+public class RepositoryEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Rows")
+    @Description("Size of the returned collection or optional, -1 for other results")
+    public int rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,53 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Emits a RepositoryEvent around every public method of the lineup, like and user repositories
+@Aspect
+@Component
+public class RepositoryEventAspect {
+
+    @Around("@within(org.springframework.stereotype.Repository) && execution(public * *(..)) && ("
+            + "within(dev.mordi.lineuplarry.lineup_larry_backend.lineup..*) ||"
+            + " within(dev.mordi.lineuplarry.lineup_larry_backend.like..*) ||"
+            + " within(dev.mordi.lineuplarry.lineup_larry_backend.user..*))")
+    public Object recordRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryEvent event = new RepositoryEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable throwable) {
+            event.failed = true;
+            throw throwable;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+                event.method = joinPoint.getSignature().getName();
+                event.rows = rows(result);
+                event.commit();
+            }
+        }
+    }
+
+    private static int rows(Object result) {
+        return switch (result) {
+            case Collection<?> collection -> collection.size();
+            case Optional<?> optional -> optional.map(value -> value instanceof Collection<?> c
+                    ? c.size()
+                    : 1).orElse(0);
+            case null, default -> -1;
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("lineuplarry.Request")
+@Label("HTTP Request")
+@Description("Handling of a single HTTP request")
+@Category({"Lineup Larry", "HTTP"})
+@Enabled(false)
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    @Description("Matched route pattern, UNMAPPED when no handler matched")
+    public String route;
+
+    @Label("Status")
+    public int status;
+}
@@ -0,0 +1,53 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+
+// Turns the stack of a JFR event into "class.method:line" for grouping
+final class StackFrames {
+
+    private StackFrames() {
+    }
+
+    static String topFrame(RecordedEvent event) {
+        List<RecordedFrame> frames = javaFrames(event);
+        return frames.isEmpty() ? null : describe(frames.getFirst());
+    }
+
+    // the top of a blocking call is JDK code, which of our calls got there is what tells sites
+    // apart. The top frame when none of ours is on the stack, null without a stack.
+    static String firstApplicationFrame(RecordedEvent event) {
+        List<RecordedFrame> frames = javaFrames(event);
+        return frames.stream()
+                .filter(frame -> !isJdk(frame))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(StackFrames::describe)
+                .orElse(null);
+    }
+
+    static List<String> describe(RecordedEvent event, int depth) {
+        return javaFrames(event).stream().limit(depth).map(StackFrames::describe).toList();
+    }
+
+    static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+                + frame.getLineNumber();
+    }
+
+    private static List<RecordedFrame> javaFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return List.of();
+        }
+        return event.getStackTrace().getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .toList();
+    }
+
+    private static boolean isJdk(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+}
@@ -0,0 +1,118 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import jdk.management.VirtualThreadSchedulerMXBean;
+
+// Streams virtual thread pinning and submit failures out of JFR into metrics, grouped by stack
+// for /actuator/pinning, and exports how busy the carrier pool is.
+@Component
+public class VirtualThreadMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private static final String OTHER = "other";
+
+    private final VirtualThreadMonitorProperties properties;
+    private final ConcurrentHashMap<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private final Timer pinned;
+    private final Counter submitFailed;
+    private volatile RecordingStream stream;
+
+    public VirtualThreadMonitor(VirtualThreadMonitorProperties properties,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier")
+                .register(meterRegistry);
+        this.submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Virtual threads that could not be scheduled on a carrier")
+                .register(meterRegistry);
+
+        VirtualThreadSchedulerMXBean scheduler = ManagementFactory
+                .getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+        Gauge.builder("jvm.threads.virtual.scheduler.parallelism", scheduler,
+                VirtualThreadSchedulerMXBean::getParallelism).register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.scheduler.pool.size", scheduler,
+                VirtualThreadSchedulerMXBean::getPoolSize).register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.mounted", scheduler,
+                VirtualThreadSchedulerMXBean::getMountedVirtualThreadCount)
+                .description("Virtual threads currently running on a carrier")
+                .register(meterRegistry);
+        Gauge.builder("jvm.threads.virtual.queued", scheduler,
+                VirtualThreadSchedulerMXBean::getQueuedVirtualThreadCount)
+                .description("Virtual threads waiting for a free carrier")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.monitorEnabled()) {
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.setMaxAge(Duration.ofMinutes(1));
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(properties.pinnedThreshold())
+                .withStackTrace();
+        recording.enable("jdk.VirtualThreadSubmitFailed").withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        recording.onEvent("jdk.VirtualThreadSubmitFailed", event -> {
+            submitFailed.increment();
+            log.warn("Failed to submit a virtual thread: {}", event.getString("exceptionMessage"));
+        });
+        recording.startAsync();
+        stream = recording;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public List<PinnedSite.View> topSites(int limit) {
+        return sites.values().stream()
+                .map(PinnedSite::view)
+                .sorted(Comparator.comparingLong(PinnedSite.View::totalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        String frame = Objects.requireNonNullElse(StackFrames.firstApplicationFrame(event),
+                "unknown");
+        PinnedSite site = sites.get(frame);
+        if (site == null) {
+            site = sites.size() < properties.maxSites()
+                    ? sites.computeIfAbsent(frame,
+                            f -> new PinnedSite(f,
+                                    StackFrames.describe(event, properties.stackDepth())))
+                    : sites.computeIfAbsent(OTHER, f -> new PinnedSite(f, List.of()));
+        }
+        site.record(event.getDuration().toNanos());
+    }
+}
@@ -0,0 +1,16 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.virtual-threads")
+public record VirtualThreadMonitorProperties(
+        @DefaultValue("true") boolean monitorEnabled,
+        // pinning shorter than this is not reported by the JVM at all
+        @DefaultValue("20ms") Duration pinnedThreshold,
+        // distinct stacks kept for /actuator/pinning, the rest are counted under "other"
+        @DefaultValue("200") int maxSites,
+        @DefaultValue("8") int stackDepth) {
+}
@@ -0,0 +1,41 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.OffsetDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+@Component
+public class FailedJobPurgeTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(FailedJobPurgeTask.class);
+
+    private final JobRepository jobRepository;
+    private final JobProperties properties;
+
+    public FailedJobPurgeTask(JobRepository jobRepository, JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "jobs.purge-failed";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.cron("0 30 3 * * *");
+    }
+
+    @Override
+    public void run() {
+        int purged = jobRepository
+                .purgeFailedBefore(OffsetDateTime.now().minus(properties.failedRetention()));
+        log.info("Purged {} failed jobs", purged);
+    }
+}
@@ -0,0 +1,7 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.OffsetDateTime;
+
+public record Job(Long id, String type, String payload, int attempts, int maxAttempts,
+        OffsetDateTime runAt, OffsetDateTime createdAt) {
+}
@@ -0,0 +1,15 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+// Implement this as a bean to have the JobWorker pick up jobs of the given type.
+// Jobs are delivered at least once, so handlers have to be idempotent.
+public interface JobHandler {
+
+    String type();
+
+    void handle(Job job) throws Exception;
+
+    // upper bound of jobs of this type running at the same time on a single node
+    default int maxConcurrency() {
+        return 4;
+    }
+}
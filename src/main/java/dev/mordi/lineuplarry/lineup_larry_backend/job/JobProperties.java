@@ -0,0 +1,28 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.jobs")
+public record JobProperties(
+        @DefaultValue("true") boolean enabled,
+        // how long an idle poller sleeps between empty polls, doubles up to maxPollInterval
+        @DefaultValue("200ms") Duration pollInterval,
+        @DefaultValue("5s") Duration maxPollInterval,
+        @DefaultValue("100") int batchSize,
+        // a RUNNING job older than this is assumed to belong to a dead node
+        @DefaultValue("5m") Duration visibilityTimeout,
+        @DefaultValue("1s") Duration backoffBase,
+        @DefaultValue("10m") Duration backoffMax,
+        // FAILED jobs older than this are removed by FailedJobPurgeTask
+        @DefaultValue("7d") Duration failedRetention,
+        // per-type overrides of JobHandler.maxConcurrency()
+        @DefaultValue Map<String, Integer> concurrency) {
+
+    int concurrencyFor(JobHandler handler) {
+        return concurrency.getOrDefault(handler.type(), handler.maxConcurrency());
+    }
+}
@@ -0,0 +1,138 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.springframework.stereotype.Repository;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.JOBS;
+import static org.jooq.impl.DSL.currentOffsetDateTime;
+import static org.jooq.impl.DSL.select;
+
+@Repository
+public class JobRepository {
+
+    static final String PENDING = "PENDING";
+    static final String RUNNING = "RUNNING";
+    static final String FAILED = "FAILED";
+
+    private final DSLContext dsl;
+
+    JobRepository(DSLContext dsl) {
+        this.dsl = dsl;
+    }
+
+    // runs in the caller's transaction (if any), so a job is only visible once the write that
+    // scheduled it has committed
+    public Job enqueue(String type, String payload, Duration delay, int maxAttempts) {
+        return dsl.insertInto(JOBS)
+                .set(JOBS.TYPE, type)
+                .set(JOBS.PAYLOAD, payload)
+                .set(JOBS.MAX_ATTEMPTS, maxAttempts)
+                .set(JOBS.RUN_AT, OffsetDateTime.now().plus(delay))
+                .returning()
+                .fetchOne(JobRepository::toJob);
+    }
+
+    public int enqueueAll(String type, Collection<String> payloads, int maxAttempts) {
+        if (payloads.isEmpty()) {
+            return 0;
+        }
+        var insert = dsl.insertInto(JOBS, JOBS.TYPE, JOBS.PAYLOAD, JOBS.MAX_ATTEMPTS);
+        for (String payload : payloads) {
+            insert = insert.values(type, payload, maxAttempts);
+        }
+        return insert.execute();
+    }
+
+    // Claims up to `limit` due jobs of a type in a single statement. SKIP LOCKED lets every node
+    // poll the same rows without blocking on each other.
+    public List<Job> claim(String type, int limit, String workerId) {
+        var claimable = select(JOBS.ID)
+                .from(JOBS)
+                .where(JOBS.STATUS.eq(PENDING))
+                .and(JOBS.TYPE.eq(type))
+                .and(JOBS.RUN_AT.le(currentOffsetDateTime()))
+                .orderBy(JOBS.RUN_AT)
+                .limit(limit)
+                .forUpdate()
+                .skipLocked();
+
+        return dsl.update(JOBS)
+                .set(JOBS.STATUS, RUNNING)
+                .set(JOBS.LOCKED_AT, currentOffsetDateTime())
+                .set(JOBS.LOCKED_BY, workerId)
+                .set(JOBS.ATTEMPTS, JOBS.ATTEMPTS.plus(1))
+                .where(JOBS.ID.in(claimable))
+                .returning()
+                .fetch(JobRepository::toJob);
+    }
+
+    public int complete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return dsl.deleteFrom(JOBS).where(JOBS.ID.in(ids)).execute();
+    }
+
+    public void retryLater(Long id, Duration backoff, String error) {
+        dsl.update(JOBS)
+                .set(JOBS.STATUS, PENDING)
+                .set(JOBS.RUN_AT, OffsetDateTime.now().plus(backoff))
+                .setNull(JOBS.LOCKED_AT)
+                .setNull(JOBS.LOCKED_BY)
+                .set(JOBS.LAST_ERROR, error)
+                .where(JOBS.ID.eq(id))
+                .execute();
+    }
+
+    // failed jobs are kept around for inspection instead of being deleted
+    public void fail(Long id, String error) {
+        dsl.update(JOBS)
+                .set(JOBS.STATUS, FAILED)
+                .setNull(JOBS.LOCKED_AT)
+                .setNull(JOBS.LOCKED_BY)
+                .set(JOBS.LAST_ERROR, error)
+                .where(JOBS.ID.eq(id))
+                .execute();
+    }
+
+    public int reclaimStale(Duration visibilityTimeout) {
+        return dsl.update(JOBS)
+                .set(JOBS.STATUS, PENDING)
+                .setNull(JOBS.LOCKED_AT)
+                .setNull(JOBS.LOCKED_BY)
+                .where(JOBS.STATUS.eq(RUNNING))
+                .and(JOBS.LOCKED_AT.lt(OffsetDateTime.now().minus(visibilityTimeout)))
+                .execute();
+    }
+
+    public int purgeFailedBefore(OffsetDateTime cutoff) {
+        return dsl.deleteFrom(JOBS)
+                .where(JOBS.STATUS.eq(FAILED))
+                .and(JOBS.CREATED_AT.lt(cutoff))
+                .execute();
+    }
+
+    public int countPending(String type) {
+        return dsl.fetchCount(JOBS, JOBS.STATUS.eq(PENDING).and(JOBS.TYPE.eq(type)));
+    }
+
+    public List<Job> getFailed(String type) {
+        return dsl.selectFrom(JOBS)
+                .where(JOBS.STATUS.eq(FAILED))
+                .and(JOBS.TYPE.eq(type))
+                .orderBy(JOBS.ID.asc())
+                .fetch(JobRepository::toJob);
+    }
+
+    private static Job toJob(Record r) {
+        return new Job(r.get(JOBS.ID), r.get(JOBS.TYPE), r.get(JOBS.PAYLOAD),
+                r.get(JOBS.ATTEMPTS), r.get(JOBS.MAX_ATTEMPTS), r.get(JOBS.RUN_AT),
+                r.get(JOBS.CREATED_AT));
+    }
+}
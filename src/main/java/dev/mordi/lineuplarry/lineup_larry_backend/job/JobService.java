@@ -0,0 +1,30 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class JobService {
+
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final JobRepository jobRepository;
+
+    public JobService(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+
+    public Job enqueue(String type, String payload) {
+        return enqueue(type, payload, Duration.ZERO);
+    }
+
+    public Job enqueue(String type, String payload, Duration delay) {
+        return jobRepository.enqueue(type, payload, delay, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public int enqueueAll(String type, Collection<String> payloads) {
+        return jobRepository.enqueueAll(type, payloads, DEFAULT_MAX_ATTEMPTS);
+    }
+}
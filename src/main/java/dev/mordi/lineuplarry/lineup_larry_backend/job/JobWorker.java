@@ -0,0 +1,252 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Runs one polling virtual thread per job type. Each poller claims as many jobs as it has free
+// permits, hands every job to its own virtual thread and deletes finished jobs in batches before
+// its next claim, or as soon as they finish while it is idle.
+@Component
+public class JobWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JobWorker.class);
+
+    private final JobRepository jobRepository;
+    private final List<JobHandler> handlers;
+    private final JobProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+    private final List<Thread> pollers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public JobWorker(JobRepository jobRepository, List<JobHandler> handlers,
+            JobProperties properties, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.handlers = handlers;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || handlers.isEmpty()) {
+            return;
+        }
+        running = true;
+        for (JobHandler handler : handlers) {
+            pollers.add(Thread.ofVirtual()
+                    .name("job-poller-" + handler.type())
+                    .start(new Poller(handler)::run));
+        }
+        pollers.add(Thread.ofVirtual().name("job-reclaimer").start(this::reclaimLoop));
+        log.info("Started job worker {} for types {}", workerId,
+                handlers.stream().map(JobHandler::type).toList());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        pollers.forEach(Thread::interrupt);
+        for (Thread poller : pollers) {
+            try {
+                poller.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        pollers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void reclaimLoop() {
+        Duration interval = properties.visibilityTimeout().dividedBy(2);
+        while (running) {
+            try {
+                Thread.sleep(interval);
+                int reclaimed = jobRepository.reclaimStale(properties.visibilityTimeout());
+                if (reclaimed > 0) {
+                    log.warn("Reclaimed {} jobs that were stuck in RUNNING", reclaimed);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to reclaim stale jobs", e);
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long base = properties.backoffBase().toMillis();
+        long exponential = base << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, properties.backoffMax().toMillis());
+        // equal jitter: at least half the delay so retries keep backing off, the other half random
+        // so retries of a failed batch do not come back in lockstep
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capped / 2, capped + 1));
+    }
+
+    private final class Poller {
+
+        private final JobHandler handler;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final LinkedBlockingQueue<Long> completed = new LinkedBlockingQueue<>();
+        private final Timer duration;
+        private final Counter succeeded;
+        private final Counter retried;
+        private final Counter failed;
+
+        Poller(JobHandler handler) {
+            this.handler = handler;
+            this.concurrency = properties.concurrencyFor(handler);
+            this.permits = new Semaphore(concurrency);
+            this.duration = Timer.builder("jobs.duration").tag("type", handler.type())
+                    .register(meterRegistry);
+            this.succeeded = Counter.builder("jobs.completed").tag("type", handler.type())
+                    .tag("outcome", "success").register(meterRegistry);
+            this.retried = Counter.builder("jobs.completed").tag("type", handler.type())
+                    .tag("outcome", "retry").register(meterRegistry);
+            this.failed = Counter.builder("jobs.completed").tag("type", handler.type())
+                    .tag("outcome", "failed").register(meterRegistry);
+        }
+
+        void run() {
+            Duration idle = properties.pollInterval();
+            while (running) {
+                try {
+                    flushCompleted();
+
+                    // wait for at least one free slot before asking the database for work
+                    permits.acquire();
+                    int free = 1 + permits.drainPermits();
+                    List<Job> jobs = jobRepository.claim(handler.type(),
+                            Math.min(free, properties.batchSize()), workerId);
+                    permits.release(free - jobs.size());
+
+                    if (jobs.isEmpty()) {
+                        idle(idle);
+                        idle = min(idle.multipliedBy(2), properties.maxPollInterval());
+                        continue;
+                    }
+                    idle = properties.pollInterval();
+                    jobs.forEach(job -> Thread.ofVirtual().start(() -> execute(job)));
+                } catch (InterruptedException e) {
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Job poller for type '{}' failed, backing off", handler.type(), e);
+                    sleepQuietly(properties.maxPollInterval());
+                }
+            }
+            drain();
+        }
+
+        private void execute(Job job) {
+            long start = System.nanoTime();
+            try {
+                handler.handle(job);
+                completed.add(job.id());
+                succeeded.increment();
+            } catch (Exception e) {
+                onFailure(job, e);
+            } finally {
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                permits.release();
+            }
+        }
+
+        private void onFailure(Job job, Exception e) {
+            String error = String.valueOf(e);
+            try {
+                if (job.attempts() >= job.maxAttempts()) {
+                    log.error("Job {} of type '{}' failed permanently after {} attempts", job.id(),
+                            job.type(), job.attempts(), e);
+                    jobRepository.fail(job.id(), error);
+                    failed.increment();
+                } else {
+                    log.warn("Job {} of type '{}' failed on attempt {}, retrying: {}", job.id(),
+                            job.type(), job.attempts(), error);
+                    jobRepository.retryLater(job.id(), backoff(job.attempts()), error);
+                    retried.increment();
+                }
+            } catch (RuntimeException updateFailure) {
+                // the reclaimer will pick the job up again once the visibility timeout passes
+                log.error("Could not record failure of job {}", job.id(), updateFailure);
+            }
+        }
+
+        // waits out the poll interval, flushing jobs that finish in the meantime instead of
+        // leaving them RUNNING until the next claim
+        private void idle(Duration idle) throws InterruptedException {
+            long until = System.nanoTime() + idle.toNanos();
+            long remaining;
+            while ((remaining = until - System.nanoTime()) > 0) {
+                Long id = completed.poll(remaining, TimeUnit.NANOSECONDS);
+                if (id == null) {
+                    return;
+                }
+                List<Long> ids = new ArrayList<>();
+                ids.add(id);
+                flush(ids);
+            }
+        }
+
+        private void flushCompleted() {
+            flush(new ArrayList<>());
+        }
+
+        private void flush(List<Long> ids) {
+            completed.drainTo(ids);
+            if (!ids.isEmpty()) {
+                jobRepository.complete(ids);
+            }
+        }
+
+        // let in-flight jobs finish so their rows are deleted instead of reclaimed later
+        private void drain() {
+            try {
+                if (permits.tryAcquire(concurrency, 10, TimeUnit.SECONDS)) {
+                    permits.release(concurrency);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                flushCompleted();
+            } catch (RuntimeException e) {
+                log.warn("Could not flush completed jobs on shutdown", e);
+            }
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
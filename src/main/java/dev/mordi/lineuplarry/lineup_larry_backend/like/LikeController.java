@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import dev.mordi.lineuplarry.lineup_larry_backend.like.exceptions.InvalidLikeException;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.Bulkhead;
 
 @RestController
 @RequestMapping("/api/likes")
@@ -19,6 +20,7 @@ public class LikeController {
     }
 
     @GetMapping
+    @Bulkhead("likes-all")
     public List<Like> getAllLikes() {
         return likeService.getAllLikes();
     }
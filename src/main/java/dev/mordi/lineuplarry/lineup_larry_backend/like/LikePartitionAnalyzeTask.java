@@ -0,0 +1,38 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+@Component
+public class LikePartitionAnalyzeTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(LikePartitionAnalyzeTask.class);
+
+    private final LikeRepository likeRepository;
+
+    public LikePartitionAnalyzeTask(LikeRepository likeRepository) {
+        this.likeRepository = likeRepository;
+    }
+
+    @Override
+    public String name() {
+        return "likes.analyze-partitioned";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.cron("0 15 4 * * *");
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        likeRepository.analyzeLikes();
+        log.info("Analyzed the partitioned likes table in {}ms",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
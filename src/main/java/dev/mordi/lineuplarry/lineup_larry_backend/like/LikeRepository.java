@@ -1,11 +1,19 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.like;
 
+import java.time.OffsetDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Table;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
 import dev.mordi.lineuplarry.lineup_larry_backend.like.exceptions.InvalidLikeException;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
@@ -17,29 +25,52 @@ import static org.jooq.impl.DSL.selectFrom;
 @Repository
 public class LikeRepository {
 
+    // merges what the shards return, the same order as their ORDER BY created_at
+    private static final Comparator<Like> OLDEST_FIRST = Comparator
+            .comparing(Like::createdAt,
+                    Comparator.nullsLast(Comparator.<OffsetDateTime>naturalOrder()))
+            .thenComparing(Like::lineupId)
+            .thenComparing(Like::userId);
+
     private final DSLContext dsl;
+    private final LikeShards shards;
+    private final ApplicationEventPublisher events;
 
-    LikeRepository(DSLContext dsl) {
+    LikeRepository(DSLContext dsl, LikeShards shards, ApplicationEventPublisher events) {
         this.dsl = dsl;
+        this.shards = shards;
+        this.events = events;
     }
 
+    // lineups and users are always checked in dsl, the likes themselves live in their lineup's
+    // shard, which is dsl as well unless lineup-larry.like-shards lists some
+    @Transactional(readOnly = true)
     public List<Like> getAllLikes() {
-        return dsl.selectFrom(LIKES).fetch(r -> r.into(Like.class));
+        // hash partitions scan one after another, so without an order the rows come out grouped
+        // by partition
+        List<Like> likes = shards.gather(shard -> shard.selectFrom(LIKES)
+                .orderBy(LIKES.CREATED_AT, LIKES.LINEUP_ID, LIKES.USER_ID)
+                .fetch(r -> r.into(Like.class)), OLDEST_FIRST, Integer.MAX_VALUE);
+        return shards.isSharded() ? withoutDeleted(likes) : likes;
     }
 
     public Optional<Like> getLikeById(Long lineupId, Long userId) {
-        return dsl.select(LIKES.LINEUP_ID, LIKES.USER_ID, LIKES.CREATED_AT)
-
+        return shards.forLineup(lineupId)
+                .select(LIKES.USER_ID, LIKES.LINEUP_ID, LIKES.CREATED_AT)
                 .from(LIKES)
                 .where(LIKES.USER_ID.eq(userId)).and(LIKES.LINEUP_ID.eq(lineupId))
                 .fetchOptional()
                 .map(mapping(Like::new));
     }
 
+    @Transactional
     public Like likeLineup(Like like) {
-        // see if lineup exists
+        // see if lineup exists. The key share lock holds off deleting it until this transaction
+        // is done, so a sharded like is never inserted after LikeShardCleanup has run for its
+        // lineup
         boolean lineupExistence = dsl
-                .fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(like.lineupId())));
+                .fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(like.lineupId()))
+                        .forKeyShare());
 
         // throw if it does not exist
         if (!lineupExistence) {
@@ -50,7 +81,8 @@ public class LikeRepository {
         // auth has been
         // added
         // Check if like already exists
-        Like existingLike = dsl.selectFrom(LIKES)
+        DSLContext shard = shards.forLineup(like.lineupId());
+        Like existingLike = shard.selectFrom(LIKES)
                 .where(LIKES.LINEUP_ID.eq(like.lineupId()).and(LIKES.USER_ID.eq(like.userId())))
                 .fetchOneInto(Like.class);
 
@@ -60,23 +92,29 @@ public class LikeRepository {
         }
 
         // Insert the like if it does not already exist
-        return dsl.insertInto(LIKES).set(LIKES.LINEUP_ID, like.lineupId())
+        Like created = shard.insertInto(LIKES).set(LIKES.LINEUP_ID, like.lineupId())
                 .set(LIKES.USER_ID, like.userId()).returning()
                 .fetchOne(r -> new Like(r.getUserId(), r.getLineupId(), r.getCreatedAt()));
+        events.publishEvent(new DomainEvent.LikeAdded(created.userId(), created.lineupId()));
+        return created;
     }
 
+    @Transactional
     public void removeLike(Like like) {
-        boolean exists = dsl.fetchExists(selectFrom(LIKES).where(LIKES.USER_ID.eq(like.userId()))
-                .and(LIKES.LINEUP_ID.eq(like.lineupId())));
+        DSLContext shard = shards.forLineup(like.lineupId());
+        boolean exists = shard.fetchExists(selectFrom(LIKES)
+                .where(LIKES.USER_ID.eq(like.userId())).and(LIKES.LINEUP_ID.eq(like.lineupId())));
 
         if (!exists) {
             throw new InvalidLikeException.LikeNotFound(like.userId(), like.lineupId());
         }
 
-        dsl.deleteFrom(LIKES).where(LIKES.LINEUP_ID.eq(like.lineupId()))
+        shard.deleteFrom(LIKES).where(LIKES.LINEUP_ID.eq(like.lineupId()))
                 .and(LIKES.USER_ID.eq(like.userId())).execute();
+        events.publishEvent(new DomainEvent.LikeRemoved(like.userId(), like.lineupId()));
     }
 
+    @Transactional(readOnly = true)
     public List<Like> getLikesByUser(Long userId) {
         // confirm that user exist(?)
         boolean exists = dsl.fetchExists(selectFrom(USERS).where(USERS.ID.eq(userId)));
@@ -85,11 +123,15 @@ public class LikeRepository {
             throw new InvalidUserException.UserNotFoundException(userId);
         }
 
-        return dsl.selectFrom(LIKES).where(LIKES.USER_ID.eq(userId))
+        List<Like> likes = shards.gather(shard -> shard.selectFrom(LIKES)
+                .where(LIKES.USER_ID.eq(userId))
                 .orderBy(LIKES.CREATED_AT.asc())
-                .fetch(r -> new Like(r.getUserId(), r.getLineupId(), r.getCreatedAt()));
+                .fetch(r -> new Like(r.getUserId(), r.getLineupId(), r.getCreatedAt())),
+                OLDEST_FIRST, Integer.MAX_VALUE);
+        return shards.isSharded() ? withoutDeleted(likes) : likes;
     }
 
+    @Transactional(readOnly = true)
     public List<Like> getLikesByLineup(Long lineupId) {
         boolean exists = dsl.fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(lineupId)));
 
@@ -97,10 +139,13 @@ public class LikeRepository {
             throw new InvalidLineupException.NoSuchLineupException(lineupId);
         }
 
-        return dsl.selectFrom(LIKES).where(LIKES.LINEUP_ID.eq(lineupId))
+        List<Like> likes = shards.forLineup(lineupId).selectFrom(LIKES)
+                .where(LIKES.LINEUP_ID.eq(lineupId))
                 .fetch(r -> new Like(r.getUserId(), r.getLineupId(), r.getCreatedAt()));
+        return shards.isSharded() ? withoutDeleted(likes) : likes;
     }
 
+    @Transactional(readOnly = true)
     public long getLikeCountByLineup(Long lineupId) {
         // confirm that lineup exist(?)
         boolean exists = dsl.fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(lineupId)));
@@ -109,7 +154,7 @@ public class LikeRepository {
             throw new InvalidLineupException.NoSuchLineupException(lineupId);
         }
 
-        Long count = dsl.selectCount()
+        Long count = shards.forLineup(lineupId).selectCount()
                 .from(LIKES)
                 .where(LIKES.LINEUP_ID.eq(lineupId))
                 .fetchOne(0, long.class);
@@ -117,6 +162,69 @@ public class LikeRepository {
         return (count != null) ? count : 0L;
     }
 
+    // sharded likes of deleted lineups and users stay behind until LikeShardCleanup or
+    // deleteOrphanedShardLikes gets to them, reads leave them out in the meantime. The count
+    // includes them until then.
+    private List<Like> withoutDeleted(List<Like> likes) {
+        if (likes.isEmpty()) {
+            return likes;
+        }
+        Set<Long> lineups = dsl.select(LINEUP.ID).from(LINEUP)
+                .where(LINEUP.ID.in(likes.stream().map(Like::lineupId).distinct().toList()))
+                .fetchSet(LINEUP.ID);
+        Set<Long> users = dsl.select(USERS.ID).from(USERS)
+                .where(USERS.ID.in(likes.stream().map(Like::userId).distinct().toList()))
+                .fetchSet(USERS.ID);
+        return likes.stream()
+                .filter(like -> lineups.contains(like.lineupId()) && users.contains(like.userId()))
+                .toList();
+    }
+
+    // deletes sharded likes whose lineup or user is gone from the main database, batchSize ids
+    // at a time. LikeShardCleanup only hears about deletes the event bus delivered, this is what
+    // catches the rest. Lineups and users are committed before anyone can like them or with
+    // them, so an id missing from the main database stays missing.
+    public int deleteOrphanedShardLikes(int batchSize) {
+        if (!shards.isSharded()) {
+            return 0;
+        }
+        return shards.gather(shard -> List.of(
+                deleteOrphans(shard, LIKES.LINEUP_ID, LINEUP, LINEUP.ID, batchSize)
+                        + deleteOrphans(shard, LIKES.USER_ID, USERS, USERS.ID, batchSize)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int deleteOrphans(DSLContext shard, Field<Long> column, Table<?> parent,
+            Field<Long> parentId, int batchSize) {
+        int deleted = 0;
+        long after = 0;
+        while (true) {
+            List<Long> ids = shard.selectDistinct(column).from(LIKES)
+                    .where(column.gt(after))
+                    .orderBy(column)
+                    .limit(batchSize)
+                    .fetch(column);
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            Set<Long> existing = dsl.select(parentId).from(parent).where(parentId.in(ids))
+                    .fetchSet(parentId);
+            List<Long> missing = ids.stream().filter(id -> !existing.contains(id)).toList();
+            if (!missing.isEmpty()) {
+                deleted += shard.deleteFrom(LIKES).where(column.in(missing)).execute();
+            }
+            after = ids.getLast();
+        }
+    }
+
+    // autovacuum analyzes each partition but never the partitioned parent, whose statistics
+    // plan every query that is not pruned to one partition. ONLY leaves the partitions alone.
+    public void analyzeLikes() {
+        dsl.execute("ANALYZE ONLY " + LIKES.getName());
+    }
+
     // TODO: get the total amount of likes a user's lineups have accumulated
 
 }
@@ -5,13 +5,20 @@ import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.SingleFlight;
+
 @Service
 public class LikeService {
 
     private final LikeRepository likeRepository;
+    private final SingleFlight<Long, List<Like>> lineupLikesFlight;
+    private final SingleFlight<Long, Long> likeCountFlight;
 
-    public LikeService(LikeRepository likeRepository) {
+    public LikeService(LikeRepository likeRepository, CacheRegistry cacheRegistry) {
         this.likeRepository = likeRepository;
+        this.lineupLikesFlight = cacheRegistry.singleFlight("lineup-likes");
+        this.likeCountFlight = cacheRegistry.singleFlight("lineup-like-count");
     }
 
     public List<Like> getAllLikes() {
@@ -21,7 +28,7 @@ public class LikeService {
     // TODO: consider any form of validations after applying some @BeanValidation
     public Optional<Like> getById(Long userId, Long lineupId) {
         Like like = new Like(userId, lineupId, null);
-        return likeRepository.getLikeById(like.userId(), like.lineupId());
+        return likeRepository.getLikeById(like.lineupId(), like.userId());
     }
 
     public Like likeLineup(Like like) {
@@ -37,10 +44,11 @@ public class LikeService {
     }
 
     public List<Like> getLikesByLineup(Long lineupId) {
-        return likeRepository.getLikesByLineup(lineupId);
+        return lineupLikesFlight.load(lineupId, () -> likeRepository.getLikesByLineup(lineupId));
     }
 
     public long getLikeCountByLineup(Long lineupId) {
-        return likeRepository.getLikeCountByLineup(lineupId);
+        return likeCountFlight.load(lineupId,
+                () -> likeRepository.getLikeCountByLineup(lineupId));
     }
 }
@@ -0,0 +1,58 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEventSubscriber;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LIKES;
+
+// Stands in for the foreign key cascades sharded likes do not have, as soon as a delete
+// commits. The event bus may drop events, so this is only the fast path: LikeShardSweepTask
+// deletes whatever it missed, and LikeRepository leaves those likes out on read until then.
+@Component
+public class LikeShardCleanup implements DomainEventSubscriber<DomainEvent> {
+
+    private final LikeShards shards;
+
+    public LikeShardCleanup(LikeShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public String name() {
+        return "like-shard-cleanup";
+    }
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        if (!shards.isSharded()) {
+            return;
+        }
+        List<Long> lineupIds = new ArrayList<>();
+        List<Long> userIds = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.LineupDeleted e) {
+                lineupIds.add(e.lineupId());
+            } else if (event instanceof DomainEvent.UserDeleted e) {
+                userIds.add(e.userId());
+            }
+        }
+        if (!lineupIds.isEmpty()) {
+            shards.gatherForLineups(lineupIds, (shard, ids) -> List.of(
+                    shard.deleteFrom(LIKES).where(LIKES.LINEUP_ID.in(ids)).execute()));
+        }
+        if (!userIds.isEmpty()) {
+            shards.gather(shard -> List.of(
+                    shard.deleteFrom(LIKES).where(LIKES.USER_ID.in(userIds)).execute()));
+        }
+    }
+}
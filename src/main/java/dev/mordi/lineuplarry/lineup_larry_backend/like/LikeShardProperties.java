@@ -0,0 +1,19 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.like-shards")
+public record LikeShardProperties(
+        // likes stay in the main database while this is empty. Likes are placed by a hash of
+        // their lineup id modulo the number of shards, so the list can only change together with
+        // a migration that moves them.
+        @DefaultValue List<Shard> shards,
+        // connections per shard
+        @DefaultValue("5") int maxPoolSize) {
+
+    public record Shard(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,48 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+// The durable half of the cleanup sharded likes need in place of foreign keys, see
+// LikeRepository.deleteOrphanedShardLikes. Does nothing while likes share the main database.
+@Component
+public class LikeShardSweepTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeShardSweepTask.class);
+
+    // lineup or user ids checked against the main database per query
+    private static final int BATCH_SIZE = 1000;
+
+    private final LikeRepository likeRepository;
+    private final LikeShards shards;
+
+    public LikeShardSweepTask(LikeRepository likeRepository, LikeShards shards) {
+        this.likeRepository = likeRepository;
+        this.shards = shards;
+    }
+
+    @Override
+    public String name() {
+        return "likes.sweep-shards";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.cron("0 45 * * * *");
+    }
+
+    @Override
+    public void run() {
+        if (!shards.isSharded()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int deleted = likeRepository.deleteOrphanedShardLikes(BATCH_SIZE);
+        log.info("Deleted {} orphaned likes from the like shards in {}ms", deleted,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
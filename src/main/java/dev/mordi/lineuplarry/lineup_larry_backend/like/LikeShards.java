@@ -0,0 +1,168 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.flywaydb.core.Flyway;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteListenerProvider;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
+import org.jooq.impl.DefaultConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RequestScope;
+
+// Spreads likes over the configured shards by a hash of their lineup id, so one lineup's likes
+// are always answered by one shard while per-user reads fan out to all of them on virtual
+// threads. Without shards the main database is the only one and likes keep their foreign keys.
+@Component
+public class LikeShards implements AutoCloseable {
+
+    private final List<DSLContext> shards;
+    private final List<HikariDataSource> dataSources;
+
+    public LikeShards(DSLContext dsl, LikeShardProperties properties,
+            ObjectProvider<ExecuteListenerProvider> listeners) {
+        if (properties.shards().isEmpty()) {
+            this.shards = List.of(dsl);
+            this.dataSources = List.of();
+            return;
+        }
+        this.shards = new ArrayList<>();
+        this.dataSources = new ArrayList<>();
+        ExecuteListenerProvider[] listenerProviders = listeners.orderedStream()
+                .toArray(ExecuteListenerProvider[]::new);
+        for (int i = 0; i < properties.shards().size(); i++) {
+            HikariDataSource dataSource = dataSource(properties, i);
+            dataSources.add(dataSource);
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/like-shards").load()
+                    .migrate();
+            shards.add(DSL.using(new DefaultConfiguration()
+                    .set(new DataSourceConnectionProvider(dataSource))
+                    .set(SQLDialect.POSTGRES)
+                    .set(listenerProviders)));
+        }
+    }
+
+    // false while likes share the main database, where they can be joined with lineups and users
+    public boolean isSharded() {
+        return !dataSources.isEmpty();
+    }
+
+    public DSLContext forLineup(long lineupId) {
+        return shards.get(shardOf(lineupId, shards.size()));
+    }
+
+    // the query on every shard at once, results in shard order
+    public <T> List<T> gather(Function<DSLContext, List<T>> query) {
+        return scatter(shards.stream()
+                .<Callable<List<T>>>map(shard -> () -> query.apply(shard))
+                .toList());
+    }
+
+    // for per-shard top-n queries, each shard already returns its best rows in this order
+    public <T> List<T> gather(Function<DSLContext, List<T>> query, Comparator<? super T> order,
+            int limit) {
+        return gather(query).stream().sorted(order).limit(limit).toList();
+    }
+
+    // the query once per shard that holds any of the lineups, with just that shard's ids
+    public <T> List<T> gatherForLineups(Collection<Long> lineupIds,
+            BiFunction<DSLContext, List<Long>, List<T>> query) {
+        LinkedHashMap<DSLContext, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Long lineupId : lineupIds) {
+            idsByShard.computeIfAbsent(forLineup(lineupId), shard -> new ArrayList<>())
+                    .add(lineupId);
+        }
+        return scatter(idsByShard.entrySet().stream()
+                .<Callable<List<T>>>map(e -> () -> query.apply(e.getKey(), e.getValue()))
+                .toList());
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    // murmur3's finalizer, so consecutive lineup ids spread evenly. Changing it moves likes
+    // between shards just like changing the shard count does.
+    static int shardOf(long lineupId, int shardCount) {
+        long h = lineupId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) shardCount);
+    }
+
+    private <T> List<T> scatter(List<Callable<List<T>>> queries) {
+        if (queries.size() == 1) {
+            return call(queries.getFirst());
+        }
+        RequestScope scope = RequestScope.capture();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<T>>> futures = queries.stream()
+                    .map(query -> executor.submit(scope.wrap(query)))
+                    .toList();
+            List<T> results = new ArrayList<>();
+            for (Future<List<T>> future : futures) {
+                results.addAll(join(future, futures));
+            }
+            return results;
+        }
+    }
+
+    private static <T> List<T> join(Future<List<T>> future, List<Future<List<T>>> all) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            all.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while querying like shards", e);
+        } catch (ExecutionException e) {
+            // no point in waiting for the other shards
+            all.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> List<T> call(Callable<List<T>> query) {
+        try {
+            return query.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HikariDataSource dataSource(LikeShardProperties properties, int index) {
+        LikeShardProperties.Shard shard = properties.shards().get(index);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("like-shard-" + index);
+        dataSource.setJdbcUrl(shard.url());
+        dataSource.setUsername(shard.username());
+        dataSource.setPassword(shard.password());
+        dataSource.setMaximumPoolSize(properties.maxPoolSize());
+        return dataSource;
+    }
+}
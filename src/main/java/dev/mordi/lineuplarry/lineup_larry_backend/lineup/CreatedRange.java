@@ -0,0 +1,10 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.OffsetDateTime;
+
+// a created_at range for the lineup listings, from `after` (inclusive) up to `before`
+// (exclusive). A null end leaves that side open.
+public record CreatedRange(OffsetDateTime after, OffsetDateTime before) {
+
+    public static final CreatedRange ANY = new CreatedRange(null, null);
+}
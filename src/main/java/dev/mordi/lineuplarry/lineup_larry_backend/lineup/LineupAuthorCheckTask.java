@@ -0,0 +1,65 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.job.JobService;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Compares lineup.author_username with the users it was copied from and queues the same job a
+// rename does for every user that drifted, whether through a lost job or a write outside the app.
+// Renames still being copied over show up too, queueing them again is harmless.
+@Component
+public class LineupAuthorCheckTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(LineupAuthorCheckTask.class);
+
+    private final LineupRepository lineupRepository;
+    private final JobService jobService;
+    private final LineupAuthorProperties properties;
+    private final AtomicInteger staleUsers = new AtomicInteger();
+
+    public LineupAuthorCheckTask(LineupRepository lineupRepository, JobService jobService,
+            LineupAuthorProperties properties, MeterRegistry meterRegistry) {
+        this.lineupRepository = lineupRepository;
+        this.jobService = jobService;
+        this.properties = properties;
+        Gauge.builder("lineups.author.stale-users", staleUsers, AtomicInteger::get)
+                .description("Users with an outdated author_username on a lineup at the last check")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "lineups.check-author-username";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.cron("0 30 4 * * *");
+    }
+
+    @Override
+    public void run() {
+        List<Long> userIds = lineupRepository
+                .getUsersWithStaleAuthorUsername(properties.repairLimit());
+        staleUsers.set(userIds.size());
+        if (userIds.isEmpty()) {
+            log.info("Every lineup's author_username matches its user");
+            return;
+        }
+        jobService.enqueueAll(LineupAuthorRenames.TYPE,
+                userIds.stream().map(String::valueOf).toList());
+        log.warn("Queued author_username repairs for {} users{}", userIds.size(),
+                userIds.size() == properties.repairLimit() ? ", more are left for the next run"
+                        : "");
+    }
+}
@@ -0,0 +1,15 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.lineup-author")
+public record LineupAuthorProperties(
+        // lineup reads take the username from lineup.author_username instead of joining users,
+        // a renamed user's lineups show the old name until LineupAuthorRenames has caught up
+        @DefaultValue("false") boolean denormalized,
+        // lineups updated per statement when copying a rename over
+        @DefaultValue("500") int renameChunkSize,
+        // users LineupAuthorCheckTask queues a repair for in a single run
+        @DefaultValue("1000") int repairLimit) {
+}
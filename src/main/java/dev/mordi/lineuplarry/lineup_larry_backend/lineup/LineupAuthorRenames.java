@@ -0,0 +1,58 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+import dev.mordi.lineuplarry.lineup_larry_backend.job.Job;
+import dev.mordi.lineuplarry.lineup_larry_backend.job.JobHandler;
+import dev.mordi.lineuplarry.lineup_larry_backend.job.JobService;
+
+// Copies a renamed user's username onto their lineups. The job is queued in the rename's own
+// transaction and works through the lineups in chunks, each its own short statement, so a user
+// with many lineups never holds their rows locked for long.
+@Component
+public class LineupAuthorRenames implements JobHandler {
+
+    static final String TYPE = "lineup.author-rename";
+
+    private static final Logger log = LoggerFactory.getLogger(LineupAuthorRenames.class);
+
+    private final LineupRepository lineupRepository;
+    private final JobService jobService;
+    private final LineupAuthorProperties properties;
+
+    public LineupAuthorRenames(LineupRepository lineupRepository, JobService jobService,
+            LineupAuthorProperties properties) {
+        this.lineupRepository = lineupRepository;
+        this.jobService = jobService;
+        this.properties = properties;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserRenamed(DomainEvent.UserRenamed event) {
+        jobService.enqueue(TYPE, event.userId().toString());
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    // copies whatever the username is by the time the job runs, so a job for an earlier rename
+    // that runs late cannot bring back an old name
+    @Override
+    public void handle(Job job) {
+        Long userId = Long.valueOf(job.payload());
+        int copied = 0;
+        int chunk;
+        do {
+            chunk = lineupRepository.copyAuthorUsername(userId, properties.renameChunkSize());
+            copied += chunk;
+        } while (chunk == properties.renameChunkSize());
+        log.debug("Copied the username of user {} onto {} lineups", userId, copied);
+    }
+}
@@ -1,17 +1,22 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Size;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.Deadline;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RateLimit;
 
 @RestController
 @RequestMapping("/api/lineups")
@@ -30,19 +35,26 @@ public class LineupController {
     }
 
     @GetMapping
+    @Deadline("3s")
     public ResponseEntity<List<LineupWithAuthorDTO>> getLineups(
             @RequestParam(required = false) @Size(min = 3, max = 40, message = "Title must be between {min} and {max} characters") String title,
             // maybe consider custom validations
             @RequestParam(required = false) String agent,
             @RequestParam(required = false) String map,
+            // created_at range, from createdAfter (inclusive) up to createdBefore (exclusive)
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+            OffsetDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+            OffsetDateTime createdBefore,
             @RequestParam(required = false, defaultValue = "20") Long pageSize,
             @RequestParam(required = false) Optional<Long> lastValue) {
-        List<LineupWithAuthorDTO> lineups = lineupService.getLineup(title, agent, map, pageSize,
-                lastValue.orElse(null));
+        List<LineupWithAuthorDTO> lineups = lineupService.getLineup(title, agent, map,
+                new CreatedRange(createdAfter, createdBefore), pageSize, lastValue.orElse(null));
         return new ResponseEntity<>(lineups, HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
+    @RateLimit("lookup")
     public ResponseEntity<LineupWithAuthorDTO> getById(@PathVariable Long id) {
         LineupWithAuthorDTO lineup = lineupService.getById(id)
                 .orElseThrow(() -> new InvalidLineupException.NoSuchLineupException(id));
@@ -68,10 +80,15 @@ public class LineupController {
 
     @GetMapping("/user/{id}")
     public ResponseEntity<List<LineupWithAuthorDTO>> getAllLineupsFromUser(@PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+            OffsetDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME)
+            OffsetDateTime createdBefore,
             @RequestParam(required = false, defaultValue = "20") Long pageSize,
             @RequestParam(required = false) Optional<Long> lastValue) {
         List<LineupWithAuthorDTO> lineups = lineupService
-                .getAllLineupsFromUserId(id, pageSize, lastValue.orElse(null))
+                .getAllLineupsFromUserId(id, new CreatedRange(createdAfter, createdBefore),
+                        pageSize, lastValue.orElse(null))
                 .orElseThrow(() -> new InvalidLineupException.NoUserException(id));
         return ResponseEntity.ok(lineups);
     }
@@ -1,35 +1,74 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record9;
+import org.jooq.SelectJoinStep;
 import org.jooq.impl.DSL;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShards;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
 
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LIKES;
 import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LINEUP;
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LINEUP_TOMBSTONE;
 import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.USERS;
 import static org.jooq.Records.mapping;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.max;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.select;
 import static org.jooq.impl.DSL.selectFrom;
+import static org.jooq.impl.DSL.val;
 
 @Repository
 public class LineupRepository {
 
     private final DSLContext dsl;
+    private final ApplicationEventPublisher events;
+    private final LineupAuthorProperties authorProperties;
+    private final LikeShards likeShards;
 
-    LineupRepository(DSLContext dsl) {
+    LineupRepository(DSLContext dsl, ApplicationEventPublisher events,
+            LineupAuthorProperties authorProperties, LikeShards likeShards) {
         this.dsl = dsl;
+        this.events = events;
+        this.authorProperties = authorProperties;
+        this.likeShards = likeShards;
+    }
+
+    // the columns of a LineupWithAuthorDTO, with the username from the lineup row itself when
+    // it is denormalized and from a join with users otherwise
+    private SelectJoinStep<Record9<Long, Agent, Map, String, String, Long, OffsetDateTime,
+            OffsetDateTime, String>> selectWithAuthor() {
+        if (authorProperties.denormalized()) {
+            return dsl.select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
+                    LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, LINEUP.AUTHOR_USERNAME)
+                    .from(LINEUP);
+        }
+        return dsl.select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
+                LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, USERS.USERNAME)
+                .from(LINEUP)
+                .join(USERS).on(LINEUP.USER_ID.eq(USERS.ID));
     }
 
     // TODO: review and rename these
+    @Transactional
     public Lineup createLineup(Lineup lineup) {
         if (doesUserExist(lineup.userId(), true)) {
-            return dsl.insertInto(LINEUP).set(LINEUP.TITLE, lineup.title())
+            Lineup created = dsl.insertInto(LINEUP).set(LINEUP.TITLE, lineup.title())
                     .set(LINEUP.AGENT, lineup.agent())
                     .set(LINEUP.MAP, lineup.map())
                     .set(LINEUP.BODY, lineup.body())
@@ -37,6 +76,9 @@ public class LineupRepository {
                     .returning()
                     .fetchOne(r -> new Lineup(r.getId(), r.getAgent(), r.getMap(), r.getTitle(),
                             r.getBody(), r.getUserId(), r.getCreatedAt(), r.getUpdatedAt()));
+            events.publishEvent(new DomainEvent.LineupCreated(created.id(), created.userId(),
+                    created.map()));
+            return created;
         } else {
             throw new RuntimeException("Failed to create lineup");
         }
@@ -55,14 +97,19 @@ public class LineupRepository {
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Optional<LineupWithAuthorDTO> getLineupById(Long id) {
-        return dsl
-                .select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
-                        LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, USERS.USERNAME)
-                .from(LINEUP).join(USERS).on(LINEUP.USER_ID.eq(USERS.ID)).where(LINEUP.ID.eq(id))
+        return selectWithAuthor().where(LINEUP.ID.eq(id))
                 .fetchOptional().map(mapping(LineupWithAuthorDTO::new));
     }
 
+    // a backwards scan of the primary key, 0 for an empty table
+    public long getMaxLineupId() {
+        Long maxId = dsl.select(max(LINEUP.ID)).from(LINEUP).fetchOne(0, Long.class);
+        return maxId != null ? maxId : 0;
+    }
+
+    @Transactional
     public void updateLineup(Lineup lineup) {
         dsl.fetchOptional(LINEUP, LINEUP.ID.eq(lineup.id())).ifPresent(r -> {
             r.setId(lineup.id());
@@ -73,22 +120,34 @@ public class LineupRepository {
             r.setCreatedAt(lineup.createdAt());
             r.setUpdatedAt(lineup.updatedAt());
             r.store();
+            events.publishEvent(
+                    new DomainEvent.LineupUpdated(r.getId(), r.getUserId(), r.getMap()));
         });
     }
 
+    @Transactional
     public void deleteLineup(Long id) {
-        boolean exists = dsl.fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(id)));
+        // the lock keeps new likes out of what the cascade below removes
+        boolean exists = dsl.fetchExists(selectFrom(LINEUP).where(LINEUP.ID.eq(id)).forUpdate());
 
         if (!exists) {
             throw new InvalidLineupException.NoSuchLineupException(id);
         }
 
-        dsl.deleteFrom(LINEUP).where(LINEUP.ID.eq(id)).execute();
+        List<Long> likedBy = likeShards.forLineup(id).select(LIKES.USER_ID).from(LIKES)
+                .where(LIKES.LINEUP_ID.eq(id)).fetch(LIKES.USER_ID);
+        Long userId = dsl.deleteFrom(LINEUP).where(LINEUP.ID.eq(id)).returning(LINEUP.USER_ID)
+                .fetchOne(LINEUP.USER_ID);
+        // the likes go with it, through the foreign key or LikeShardCleanup, the change feed hears
+        // about each of them
+        likedBy.forEach(liker -> events.publishEvent(new DomainEvent.LikeRemoved(liker, id)));
+        events.publishEvent(new DomainEvent.LineupDeleted(id, userId));
     }
 
     // fetches all the lineups from a given user
-    public Optional<List<LineupWithAuthorDTO>> getLineupsByUserId(Long userId, Long pageSize,
-            Long lastValue) {
+    @Transactional(readOnly = true)
+    public Optional<List<LineupWithAuthorDTO>> getLineupsByUserId(Long userId,
+            CreatedRange created, Long pageSize, Long lastValue) {
         boolean exists = doesUserExist(userId, false);
 
         if (!exists) {
@@ -96,11 +155,10 @@ public class LineupRepository {
         }
 
         if (lastValue != null) {
-            List<LineupWithAuthorDTO> lineups = dsl
-                    .select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
-                            LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, USERS.USERNAME)
-                    .from(LINEUP).join(USERS).on(LINEUP.USER_ID.eq(USERS.ID))
-                    .where(LINEUP.USER_ID.eq(userId)).orderBy(LINEUP.ID.asc()).seek(lastValue)
+            List<LineupWithAuthorDTO> lineups = selectWithAuthor()
+                    .where(LINEUP.USER_ID.eq(userId))
+                    .and(createdIn(created))
+                    .orderBy(LINEUP.ID.asc()).seek(lastValue)
                     .limit(pageSize)
                     .fetch()
                     .map(mapping(LineupWithAuthorDTO::new));
@@ -108,11 +166,9 @@ public class LineupRepository {
             return Optional.of(lineups);
         }
 
-        List<LineupWithAuthorDTO> lineups = dsl
-                .select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
-                        LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, USERS.USERNAME)
-                .from(LINEUP).join(USERS).on(LINEUP.USER_ID.eq(USERS.ID))
+        List<LineupWithAuthorDTO> lineups = selectWithAuthor()
                 .where(LINEUP.USER_ID.eq(userId))
+                .and(createdIn(created))
                 .orderBy(LINEUP.ID.asc())
                 .limit(pageSize)
                 .fetch()
@@ -132,15 +188,12 @@ public class LineupRepository {
     }
 
     // TODO: Set a limit on pageSize
-    public List<LineupWithAuthorDTO> getLineups(String title, Agent agent, Map map, Long pageSize,
-            Long lastValue) {
-        var baseQuery = dsl
-                .select(LINEUP.ID, LINEUP.AGENT, LINEUP.MAP, LINEUP.TITLE, LINEUP.BODY,
-                        LINEUP.USER_ID, LINEUP.CREATED_AT, LINEUP.UPDATED_AT, USERS.USERNAME)
-                .from(LINEUP)
-                .join(USERS).on(LINEUP.USER_ID.eq(USERS.ID));
+    @Transactional(readOnly = true)
+    public List<LineupWithAuthorDTO> getLineups(String title, Agent agent, Map map,
+            CreatedRange created, Long pageSize, Long lastValue) {
+        var baseQuery = selectWithAuthor();
 
-        Condition conditions = DSL.noCondition();
+        Condition conditions = createdIn(created);
         if (title != null) {
             conditions = conditions.and(LINEUP.TITLE.eq(title));
         }
@@ -166,4 +219,85 @@ public class LineupRepository {
                 .limit(pageSize)
                 .fetchInto(LineupWithAuthorDTO.class);
     }
+
+    // half-open, so consecutive ranges never return a lineup twice
+    private static Condition createdIn(CreatedRange created) {
+        Condition condition = DSL.noCondition();
+        if (created.after() != null) {
+            condition = condition.and(LINEUP.CREATED_AT.ge(created.after()));
+        }
+        if (created.before() != null) {
+            condition = condition.and(LINEUP.CREATED_AT.lt(created.before()));
+        }
+        return condition;
+    }
+
+    // seeks on (map, updated_at, id) and holds back rows younger than safetyLag, longer than a
+    // transaction writing lineups may run, see LineupSyncProperties
+    public List<LineupWithAuthorDTO> getLineupsChangedSince(Map map, OffsetDateTime updatedAt,
+            Long id, Duration safetyLag, int limit) {
+        return selectWithAuthor()
+                .where(LINEUP.MAP.eq(map))
+                .and(row(LINEUP.UPDATED_AT, LINEUP.ID).gt(updatedAt, id))
+                .and(LINEUP.UPDATED_AT.lt(syncHorizon(safetyLag)))
+                .orderBy(LINEUP.UPDATED_AT.asc(), LINEUP.ID.asc())
+                .limit(limit)
+                .fetch(mapping(LineupWithAuthorDTO::new));
+    }
+
+    List<LineupTombstone> getTombstonesSince(Map map, OffsetDateTime deletedAt, Long id,
+            Duration safetyLag, int limit) {
+        return dsl.select(LINEUP_TOMBSTONE.LINEUP_ID, LINEUP_TOMBSTONE.DELETED_AT)
+                .from(LINEUP_TOMBSTONE)
+                .where(LINEUP_TOMBSTONE.MAP.eq(map))
+                .and(row(LINEUP_TOMBSTONE.DELETED_AT, LINEUP_TOMBSTONE.LINEUP_ID)
+                        .gt(deletedAt, id))
+                .and(LINEUP_TOMBSTONE.DELETED_AT.lt(syncHorizon(safetyLag)))
+                .orderBy(LINEUP_TOMBSTONE.DELETED_AT.asc(), LINEUP_TOMBSTONE.LINEUP_ID.asc())
+                .limit(limit)
+                .fetch(mapping(LineupTombstone::new));
+    }
+
+    public int purgeTombstonesBefore(OffsetDateTime cutoff) {
+        return dsl.deleteFrom(LINEUP_TOMBSTONE)
+                .where(LINEUP_TOMBSTONE.DELETED_AT.lt(cutoff))
+                .execute();
+    }
+
+    // copies the user's current username onto up to `limit` of their lineups that still have
+    // another one, 0 once they all match. Each copy is an update of the lineup, to the caches,
+    // the change feed and to /api/lineups/sync through its updated_at.
+    @Transactional
+    public int copyAuthorUsername(Long userId, int limit) {
+        Field<String> username = select(USERS.USERNAME).from(USERS).where(USERS.ID.eq(userId))
+                .asField();
+        List<DomainEvent.LineupUpdated> updated = dsl.update(LINEUP)
+                .set(LINEUP.AUTHOR_USERNAME, username)
+                .where(LINEUP.ID.in(select(LINEUP.ID)
+                        .from(LINEUP)
+                        .where(LINEUP.USER_ID.eq(userId))
+                        .and(LINEUP.AUTHOR_USERNAME.isDistinctFrom(username))
+                        .limit(limit)))
+                .returning(LINEUP.ID, LINEUP.MAP)
+                .fetch(lineup -> new DomainEvent.LineupUpdated(lineup.get(LINEUP.ID), userId,
+                        lineup.get(LINEUP.MAP)));
+        updated.forEach(events::publishEvent);
+        return updated.size();
+    }
+
+    // users with at least one lineup whose author_username differs from their username
+    public List<Long> getUsersWithStaleAuthorUsername(int limit) {
+        return dsl.selectDistinct(LINEUP.USER_ID)
+                .from(LINEUP)
+                .join(USERS).on(LINEUP.USER_ID.eq(USERS.ID))
+                .where(LINEUP.AUTHOR_USERNAME.isDistinctFrom(USERS.USERNAME))
+                .limit(limit)
+                .fetch(LINEUP.USER_ID);
+    }
+
+    // uses the database clock, so the horizon is the same for every statement in a transaction
+    private static Field<OffsetDateTime> syncHorizon(Duration safetyLag) {
+        return field("now() - make_interval(secs => {0})", OffsetDateTime.class,
+                val(safetyLag.toMillis() / 1000.0));
+    }
 }
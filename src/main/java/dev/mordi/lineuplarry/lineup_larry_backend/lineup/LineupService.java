@@ -5,41 +5,87 @@ import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.LocalCache;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.MissingIds;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.SingleFlight;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+import dev.mordi.lineuplarry.lineup_larry_backend.user.UserRepository;
 
 @Service
 public class LineupService {
 
     private final LineupRepository lineupRepository;
-
-    public LineupService(LineupRepository lineupRepository) {
+    private final LocalCache<Long, LineupWithAuthorDTO> lineupCache;
+    private final SingleFlight<Long, LineupWithAuthorDTO> lineupFlight;
+    private final LocalCache<SearchKey, List<LineupWithAuthorDTO>> searchCache;
+    private final SingleFlight<SearchKey, List<LineupWithAuthorDTO>> searchFlight;
+    private final MissingIds missingLineups;
+    private final MissingIds missingUsers;
+
+    public LineupService(LineupRepository lineupRepository, UserRepository userRepository,
+            CacheRegistry cacheRegistry) {
         this.lineupRepository = lineupRepository;
+        this.lineupCache = cacheRegistry.createLongKeyed(CacheRegistry.LINEUP);
+        this.lineupFlight = cacheRegistry.singleFlight(CacheRegistry.LINEUP);
+        this.searchCache = cacheRegistry.createDroppedWhole(CacheRegistry.LINEUP_SEARCH);
+        this.searchFlight = cacheRegistry.singleFlight(CacheRegistry.LINEUP_SEARCH);
+        this.missingLineups = cacheRegistry.missingIds(CacheRegistry.LINEUP_IDS,
+                lineupRepository::getMaxLineupId);
+        this.missingUsers = cacheRegistry.missingIds(CacheRegistry.USER_IDS,
+                userRepository::getMaxUserId);
     }
 
-    public List<LineupWithAuthorDTO> getLineup(String title, String agent, String map,
+    private record SearchKey(String title, Agent agent, Map map, CreatedRange created,
             Long pageSize, Long lastValue) {
+    }
+
+    public List<LineupWithAuthorDTO> getLineup(String title, String agent, String map,
+            CreatedRange created, Long pageSize, Long lastValue) {
         validateTitle(title);
         Agent validatedAgent = validateAgent(agent);
         Map validatedMap = validateMap(map);
+        validateCreatedRange(created);
 
-        return lineupRepository.getLineups(title, validatedAgent, validatedMap, pageSize,
-                lastValue);
+        return searchCache.getOrLoad(
+                new SearchKey(title, validatedAgent, validatedMap, created, pageSize, lastValue),
+                key -> searchFlight.load(key, () -> lineupRepository.getLineups(key.title(),
+                        key.agent(), key.map(), key.created(), key.pageSize(),
+                        key.lastValue())));
     }
 
     public Optional<LineupWithAuthorDTO> getById(Long id) {
-        return lineupRepository.getLineupById(id);
+        if (missingLineups.isMissing(id)) {
+            return Optional.empty();
+        }
+        Optional<LineupWithAuthorDTO> lineup = Optional.ofNullable(lineupCache.getOrLoad(id,
+                key -> lineupFlight.load(key,
+                        () -> lineupRepository.getLineupById(key).orElse(null))));
+        if (lineup.isEmpty()) {
+            missingLineups.recordMiss(id);
+        }
+        return lineup;
     }
 
-    public Optional<List<LineupWithAuthorDTO>> getAllLineupsFromUserId(Long id, Long pageSize,
-            Long lastValue) {
-        return lineupRepository.getLineupsByUserId(id, pageSize, lastValue);
+    public Optional<List<LineupWithAuthorDTO>> getAllLineupsFromUserId(Long id,
+            CreatedRange created, Long pageSize, Long lastValue) {
+        validateCreatedRange(created);
+        if (missingUsers.isMissing(id)) {
+            throw new InvalidLineupException.NoUserException(id);
+        }
+        try {
+            return lineupRepository.getLineupsByUserId(id, created, pageSize, lastValue);
+        } catch (InvalidLineupException.NoUserException e) {
+            missingUsers.recordMiss(id);
+            throw e;
+        }
     }
 
     public List<LineupWithAuthorDTO> getByTitle(String name, Long pageSize, Long lastValue) {
         validateGetByTitleString(name);
-        return lineupRepository.getLineups(name, null, null, pageSize, lastValue);
+        return lineupRepository.getLineups(name, null, null, CreatedRange.ANY, pageSize, lastValue);
     }
 
     private void validateGetByTitleString(String name) {
@@ -141,6 +187,14 @@ public class LineupService {
         }
     }
 
+    private void validateCreatedRange(CreatedRange created) {
+        if (created.after() != null && created.before() != null
+                && !created.after().isBefore(created.before())) {
+            throw new InvalidLineupException.InvalidCreatedRangeException(created.after(),
+                    created.before());
+        }
+    }
+
     private Agent validateAgent(String agent) {
         if (agent == null) {
             return null;
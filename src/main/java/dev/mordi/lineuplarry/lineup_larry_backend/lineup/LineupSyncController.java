@@ -0,0 +1,33 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.Bulkhead;
+
+@RestController
+@RequestMapping("/api/lineups/sync")
+@Validated
+public class LineupSyncController {
+
+    private final LineupSyncService lineupSyncService;
+
+    LineupSyncController(LineupSyncService lineupSyncService) {
+        this.lineupSyncService = lineupSyncService;
+    }
+
+    // leave out `since` for a full download, then pass back nextCursor to only get the deltas.
+    // A 410 means the cursor is too old and the client has to start over without one. Pages are
+    // applied in order, deletes first, see LineupSyncPage
+    @GetMapping
+    @Bulkhead("lineup-sync")
+    public LineupSyncPage sync(
+            @RequestParam String map,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false, defaultValue = "500") @Min(1) @Max(1000) int limit) {
+        return lineupSyncService.sync(map, since, limit);
+    }
+}
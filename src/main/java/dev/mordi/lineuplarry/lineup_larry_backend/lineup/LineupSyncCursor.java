@@ -0,0 +1,43 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+
+// Position in a map's sync stream, rendered as "<updatedAt in epoch micros>-<id>". Clients should
+// treat it as opaque.
+record LineupSyncCursor(OffsetDateTime updatedAt, long id) {
+
+    static final LineupSyncCursor START = new LineupSyncCursor(
+            Instant.EPOCH.atOffset(ZoneOffset.UTC), 0L);
+
+    static LineupSyncCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        int separator = cursor.indexOf('-');
+        try {
+            if (separator > 0) {
+                Instant updatedAt = Instant.EPOCH.plus(
+                        Long.parseLong(cursor.substring(0, separator)), ChronoUnit.MICROS);
+                return new LineupSyncCursor(updatedAt.atOffset(ZoneOffset.UTC),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            // fall through
+        }
+        throw new InvalidLineupException.InvalidSyncCursorException(cursor);
+    }
+
+    boolean isStart() {
+        return id == 0L && updatedAt.toInstant().equals(Instant.EPOCH);
+    }
+
+    @Override
+    public String toString() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt.toInstant()) + "-" + id;
+    }
+}
@@ -0,0 +1,10 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.util.List;
+
+// lineups to upsert and ids to drop. Keep calling with nextCursor while hasMore is true, and
+// apply the pages in order, each one's deletes before its upserts. The two lists of a page never
+// share an id: a lineup that was dropped and came back within it is only upserted.
+public record LineupSyncPage(List<LineupWithAuthorDTO> lineups, List<Long> deleted,
+        String nextCursor, boolean hasMore) {
+}
@@ -0,0 +1,16 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.sync")
+public record LineupSyncProperties(
+        // updated_at is the write's transaction start, so rows younger than this are held back
+        // until any transaction that started before them has had time to commit. Transactions
+        // writing lineups are ended after 4s (V9), keep this above that
+        @DefaultValue("5s") Duration safetyLag,
+        // tombstones older than this are purged, cursors older than this have to resync
+        @DefaultValue("30d") Duration tombstoneRetention) {
+}
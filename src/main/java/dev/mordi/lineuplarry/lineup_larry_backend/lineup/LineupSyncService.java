@@ -0,0 +1,92 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+
+// Delta sync for clients that keep a local copy of a map's lineups. Live rows and tombstones are
+// two streams ordered by (timestamp, lineup id), merged here under one shared cursor.
+@Service
+public class LineupSyncService {
+
+    private final LineupRepository lineupRepository;
+    private final LineupSyncProperties properties;
+
+    public LineupSyncService(LineupRepository lineupRepository, LineupSyncProperties properties) {
+        this.lineupRepository = lineupRepository;
+        this.properties = properties;
+    }
+
+    // one transaction so both streams are cut off at the same now()
+    @Transactional(readOnly = true)
+    public LineupSyncPage sync(String map, String since, int limit) {
+        Map validatedMap = validateMap(map);
+        LineupSyncCursor cursor = LineupSyncCursor.parse(since);
+        if (!cursor.isStart() && cursor.updatedAt()
+                .isBefore(OffsetDateTime.now().minus(properties.tombstoneRetention()))) {
+            throw new InvalidLineupException.SyncCursorExpiredException(since);
+        }
+
+        // fetch one extra from each stream to know whether there is more after this page
+        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineupsChangedSince(validatedMap,
+                cursor.updatedAt(), cursor.id(), properties.safetyLag(), limit + 1);
+        // a fresh client has nothing to delete
+        List<LineupTombstone> tombstones = cursor.isStart() ? List.of()
+                : lineupRepository.getTombstonesSince(validatedMap, cursor.updatedAt(),
+                        cursor.id(), properties.safetyLag(), limit + 1);
+
+        List<LineupWithAuthorDTO> upserts = new ArrayList<>();
+        List<LineupTombstone> deletions = new ArrayList<>();
+        LineupSyncCursor next = cursor;
+        int i = 0;
+        int j = 0;
+        while (upserts.size() + deletions.size() < limit
+                && (i < lineups.size() || j < tombstones.size())) {
+            LineupSyncCursor lineupPosition = i < lineups.size()
+                    ? new LineupSyncCursor(lineups.get(i).updatedAt(), lineups.get(i).id())
+                    : null;
+            LineupSyncCursor tombstonePosition = j < tombstones.size()
+                    ? new LineupSyncCursor(tombstones.get(j).deletedAt(),
+                            tombstones.get(j).lineupId())
+                    : null;
+            if (tombstonePosition == null
+                    || (lineupPosition != null && isBefore(lineupPosition, tombstonePosition))) {
+                upserts.add(lineups.get(i++));
+                next = lineupPosition;
+            } else {
+                deletions.add(tombstones.get(j++));
+                next = tombstonePosition;
+            }
+        }
+        boolean hasMore = i < lineups.size() || j < tombstones.size();
+
+        // a lineup that left this map and came back later is live, its older tombstone is moot
+        Set<Long> upsertIds = new HashSet<>();
+        upserts.forEach(lineup -> upsertIds.add(lineup.id()));
+        List<Long> deleted = deletions.stream().map(LineupTombstone::lineupId)
+                .filter(id -> !upsertIds.contains(id)).toList();
+
+        return new LineupSyncPage(upserts, deleted, next.toString(), hasMore);
+    }
+
+    private static boolean isBefore(LineupSyncCursor a, LineupSyncCursor b) {
+        int byTime = a.updatedAt().compareTo(b.updatedAt());
+        return byTime < 0 || (byTime == 0 && a.id() < b.id());
+    }
+
+    private static Map validateMap(String map) {
+        try {
+            return Map.valueOf(map.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidLineupException.InvalidMapException(map);
+        }
+    }
+}
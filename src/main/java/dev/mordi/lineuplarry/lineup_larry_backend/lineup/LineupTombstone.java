@@ -0,0 +1,6 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.OffsetDateTime;
+
+record LineupTombstone(Long lineupId, OffsetDateTime deletedAt) {
+}
@@ -0,0 +1,42 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.OffsetDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.ClusterTask;
+import dev.mordi.lineuplarry.lineup_larry_backend.scheduling.TaskSchedule;
+
+@Component
+public class LineupTombstonePurgeTask implements ClusterTask {
+
+    private static final Logger log = LoggerFactory.getLogger(LineupTombstonePurgeTask.class);
+
+    private final LineupRepository lineupRepository;
+    private final LineupSyncProperties properties;
+
+    public LineupTombstonePurgeTask(LineupRepository lineupRepository,
+            LineupSyncProperties properties) {
+        this.lineupRepository = lineupRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public String name() {
+        return "lineups.purge-tombstones";
+    }
+
+    @Override
+    public TaskSchedule schedule() {
+        return TaskSchedule.cron("0 45 3 * * *");
+    }
+
+    @Override
+    public void run() {
+        int purged = lineupRepository.purgeTombstonesBefore(
+                OffsetDateTime.now().minus(properties.tombstoneRetention()));
+        log.info("Purged {} lineup tombstones", purged);
+    }
+}
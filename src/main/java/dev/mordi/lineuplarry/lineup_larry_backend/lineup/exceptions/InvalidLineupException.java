@@ -1,5 +1,7 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions;
 
+import java.time.OffsetDateTime;
+
 import org.springframework.http.HttpStatus;
 
 import dev.mordi.lineuplarry.lineup_larry_backend.shared.ApiProblemException;
@@ -144,6 +146,19 @@ public abstract class InvalidLineupException extends ApiProblemException {
         }
     }
 
+    public static class InvalidCreatedRangeException extends InvalidLineupException {
+
+        public InvalidCreatedRangeException(OffsetDateTime createdAfter,
+                OffsetDateTime createdBefore) {
+            super(HttpStatus.BAD_REQUEST,
+                    "lineups/invalid-created-range",
+                    "Invalid created range",
+                    "createdAfter: '" + createdAfter + "' has to be before createdBefore: '"
+                            + createdBefore + "'",
+                    "LINEUP_INVALID_CREATED_RANGE");
+        }
+    }
+
     public static class UserIdInvalidException extends InvalidLineupException {
 
         public UserIdInvalidException(Long providedUserId) {
@@ -187,4 +202,27 @@ public abstract class InvalidLineupException extends ApiProblemException {
                     "LINEUP_NOT_FOUND");
         }
     }
+
+    public static class InvalidSyncCursorException extends InvalidLineupException {
+
+        public InvalidSyncCursorException(String cursor) {
+            super(HttpStatus.BAD_REQUEST,
+                    "lineups/invalid-sync-cursor",
+                    "Invalid sync cursor",
+                    "The sync cursor: '" + cursor + "' is not valid",
+                    "LINEUP_INVALID_SYNC_CURSOR");
+        }
+    }
+
+    public static class SyncCursorExpiredException extends InvalidLineupException {
+
+        public SyncCursorExpiredException(String cursor) {
+            super(HttpStatus.GONE,
+                    "lineups/sync-cursor-expired",
+                    "Sync cursor expired",
+                    "The sync cursor: '" + cursor
+                            + "' is older than the kept deletions, sync again without a cursor",
+                    "LINEUP_SYNC_CURSOR_EXPIRED");
+        }
+    }
 }
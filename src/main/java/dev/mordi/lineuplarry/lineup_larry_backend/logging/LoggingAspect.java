@@ -1,51 +1,110 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.logging;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.validation.ConstraintViolationException;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Times every controller call into a per-handler, per-outcome timer. Only slow calls, server
+// errors and a small sample are logged, and never with their arguments or results, since
+// formatting whole result lists used to dominate CPU and allocations under load.
 @Aspect
 @Component
 public class LoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
 
+    private final MeterRegistry meterRegistry;
+    private final RequestLoggingProperties properties;
+    private final long slowThresholdNanos;
+    private final Map<Method, HandlerMeters> handlers = new ConcurrentHashMap<>();
+
+    public LoggingAspect(MeterRegistry meterRegistry, RequestLoggingProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+    }
+
     // SpEL to target the HTTP mapping annotations, @GetMapping, @PutMapping etc.
     @Around("(@annotation(org.springframework.web.bind.annotation.GetMapping) ||"
             + " @annotation(org.springframework.web.bind.annotation.PostMapping) ||"
+            + " @annotation(org.springframework.web.bind.annotation.PutMapping) ||"
             + " @annotation(org.springframework.web.bind.annotation.PatchMapping) ||"
             + " @annotation(org.springframework.web.bind.annotation.DeleteMapping))")
-    public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
-        // Before method execution
-        log.info("Entering method: {} with arguments: {}",
-                joinPoint.getSignature().toShortString(),
-                joinPoint.getArgs());
-        long startTime = System.currentTimeMillis();
-
-        // Proceed with method execution
-        Object result;
+    public Object instrumentControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
+        HandlerMeters meters = handlers.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), this::register);
+        long start = System.nanoTime();
         try {
-            result = joinPoint.proceed(); // This is where the actual method execution happens
+            Object result = joinPoint.proceed();
+            record(meters, meters.success(), System.nanoTime() - start, null);
+            return result;
         } catch (Throwable throwable) {
-            // Optionally log the exception if needed
-            log.error("Exception in method: {}", joinPoint.getSignature().toShortString(),
-                    throwable);
-            throw throwable; // Re-throw the exception so the calling code can handle it
+            long elapsed = System.nanoTime() - start;
+            if (isClientError(throwable)) {
+                record(meters, meters.clientError(), elapsed, null);
+            } else {
+                // deliberate 5xx responses like overload rejections are not worth a stack trace
+                record(meters, meters.serverError(), elapsed,
+                        throwable instanceof ErrorResponse ? null : throwable);
+            }
+            throw throwable;
         }
+    }
 
-        long endTime = System.currentTimeMillis();
-        long totalTime = endTime - startTime;
+    private void record(HandlerMeters meters, Timer timer, long elapsedNanos,
+            Throwable serverError) {
+        timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (serverError != null) {
+            log.error("Handler {} failed after {} ms", meters.name(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), serverError);
+        } else if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow handler {} took {} ms", meters.name(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        } else if (properties.sampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.sampleRate()) {
+            log.info("Handler {} took {} us", meters.name(),
+                    TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+    }
+
+    private static boolean isClientError(Throwable throwable) {
+        return throwable instanceof ConstraintViolationException
+                || (throwable instanceof ErrorResponse errorResponse
+                        && errorResponse.getStatusCode().is4xxClientError());
+    }
 
-        // After method execution
-        log.info("Exiting method: {} with result: {}. Executed in {} milliseconds",
-                joinPoint.getSignature().toShortString(), result, totalTime);
-        return result;
+    private HandlerMeters register(Method method) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        return new HandlerMeters(name, timer(name, "SUCCESS"), timer(name, "CLIENT_ERROR"),
+                timer(name, "SERVER_ERROR"));
     }
 
-    // TODO: add logging to the service layer
+    private Timer timer(String handler, String outcome) {
+        return Timer.builder("http.handler")
+                .description("Time spent inside controller methods")
+                .tag("handler", handler)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-    // TODO: add logging to the repository layer
+    // resolved once per handler method so the hot path does not build tags
+    private record HandlerMeters(String name, Timer success, Timer clientError,
+            Timer serverError) {
+    }
 }
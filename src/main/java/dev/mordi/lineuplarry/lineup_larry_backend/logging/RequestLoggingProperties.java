@@ -0,0 +1,14 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.logging;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.request-logging")
+public record RequestLoggingProperties(
+        // fraction of handler calls logged at INFO, 0 turns sampling off
+        @DefaultValue("0.01") double sampleRate,
+        // calls slower than this are always logged at WARN
+        @DefaultValue("500ms") Duration slowThreshold) {
+}
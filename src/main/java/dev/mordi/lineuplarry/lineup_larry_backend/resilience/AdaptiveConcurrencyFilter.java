@@ -0,0 +1,83 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Sheds /api requests beyond the current AdaptiveConcurrencyLimit with a 503 before they get
+// anywhere near the database. Rejections are rendered by GlobalExceptionController like any
+// other problem, through the MVC exception resolvers.
+@Component
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private final AdaptiveLimitProperties properties;
+    private final AdaptiveConcurrencyLimit limit;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyFilter(AdaptiveLimitProperties properties,
+            MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.properties = properties;
+        this.limit = new AdaptiveConcurrencyLimit(properties);
+        this.exceptionResolver = exceptionResolver;
+        this.rejected = Counter.builder("api.concurrency.rejected")
+                .description("Requests shed by the adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("api.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .register(meterRegistry);
+        Gauge.builder("api.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.enabled()) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        if (!uri.startsWith("/api/")) {
+            return true;
+        }
+        for (String excluded : properties.excludedPaths()) {
+            if (uri.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            exceptionResolver.resolveException(request, response, null,
+                    new OverloadException.ConcurrencyLimitException(limit.limit()));
+            return;
+        }
+        long start = System.nanoTime();
+        boolean sample = false;
+        try {
+            chain.doFilter(request, response);
+            // only latency of requests that did real work says something about capacity
+            sample = response.getStatus() < 500;
+        } finally {
+            limit.onComplete(System.nanoTime() - start, sample);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Gradient based concurrency limit, after Netflix's Gradient2. The long term average latency is
+// compared to the latest window: while they match the limit grows by about sqrt(limit) per
+// window, once recent requests get slower than `tolerance` times the average it shrinks in
+// proportion. The limit is only raised while the system actually uses at least half of it.
+public class AdaptiveConcurrencyLimit {
+
+    private final AdaptiveLimitProperties properties;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong windowRttSum = new AtomicLong();
+    private final AtomicInteger windowSamples = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile long windowStart;
+    private volatile double limit;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(AdaptiveLimitProperties properties) {
+        this.properties = properties;
+        this.windowNanos = properties.window().toNanos();
+        this.limit = properties.initialLimit();
+        this.windowStart = System.nanoTime();
+    }
+
+    // false when the request should be shed, otherwise onComplete must follow
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    // failures release the slot without feeding their latency into the estimate
+    public void onComplete(long rttNanos, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            windowRttSum.addAndGet(rttNanos);
+            windowSamples.incrementAndGet();
+        }
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos && updateLock.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    update(now);
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(long now) {
+        windowStart = now;
+        int samples = windowSamples.getAndSet(0);
+        long sum = windowRttSum.getAndSet(0);
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        if (samples == 0) {
+            return;
+        }
+        double shortRtt = (double) sum / samples;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        }
+        // exponential average over roughly the last 100 windows
+        longRtt = longRtt * 0.99 + shortRtt * 0.01;
+        // after a drop in latency, let the average catch up quickly instead of over-admitting
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            // not enough load to say anything about a higher limit
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.tolerance() * longRtt / shortRtt));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - properties.smoothing()) + estimate * properties.smoothing();
+        limit = Math.max(properties.minLimit(), Math.min(properties.maxLimit(), next));
+    }
+}
@@ -0,0 +1,23 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.adaptive-limit")
+public record AdaptiveLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("400") int maxLimit,
+        // how much slower than the long term average requests may get before the limit shrinks
+        @DefaultValue("1.5") double tolerance,
+        // weight of each new estimate, lower reacts slower but flaps less
+        @DefaultValue("0.2") double smoothing,
+        // latency samples are averaged over this long before the limit is recalculated
+        @DefaultValue("100ms") Duration window,
+        // long polls and the like would only skew the latency signal
+        @DefaultValue("/api/changes") List<String> excludedPaths) {
+}
@@ -0,0 +1,18 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Caps how many requests run a handler, or every handler of a controller, at the same time.
+// Handlers sharing a name share the limit, sized by lineup-larry.bulkheads.limits.<name>.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    String value();
+
+    // false for handlers that mostly wait without a connection, such as long polls
+    boolean usesConnectionBudget() default true;
+}
@@ -0,0 +1,76 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.GetMapping;
+
+// Every controller call takes a permit from its @Bulkhead, if any, and then from the read or
+// write connection budget depending on whether it is a GET. Either one running out of permits
+// within lineup-larry.bulkheads.max-wait fails the request with a 503.
+@Aspect
+@Component
+public class BulkheadAspect {
+
+    private final BulkheadRegistry registry;
+    private final boolean enabled;
+    private final ConcurrentHashMap<Method, Plan> plans = new ConcurrentHashMap<>();
+
+    public BulkheadAspect(BulkheadRegistry registry, BulkheadProperties properties) {
+        this.registry = registry;
+        this.enabled = properties.enabled();
+    }
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object limitConcurrency(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        Plan plan = plans.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                this::plan);
+        if (plan.bulkhead() != null) {
+            plan.bulkhead().acquire();
+        }
+        try {
+            if (plan.budget() == null) {
+                return joinPoint.proceed();
+            }
+            plan.budget().acquire();
+            try {
+                return joinPoint.proceed();
+            } finally {
+                plan.budget().release();
+            }
+        } finally {
+            if (plan.bulkhead() != null) {
+                plan.bulkhead().release();
+            }
+        }
+    }
+
+    private Plan plan(Method method) {
+        Bulkhead annotation = AnnotatedElementUtils.findMergedAnnotation(method, Bulkhead.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(),
+                    Bulkhead.class);
+        }
+        BulkheadRegistry.Permits bulkhead = annotation != null ? registry.get(annotation.value())
+                : null;
+        BulkheadRegistry.Permits budget = null;
+        if (annotation == null || annotation.usesConnectionBudget()) {
+            budget = registry.get(AnnotatedElementUtils.hasAnnotation(method, GetMapping.class)
+                    ? BulkheadRegistry.READ_CONNECTIONS
+                    : BulkheadRegistry.WRITE_CONNECTIONS);
+        }
+        return new Plan(bulkhead, budget);
+    }
+
+    private record Plan(BulkheadRegistry.Permits bulkhead, BulkheadRegistry.Permits budget) {
+    }
+}
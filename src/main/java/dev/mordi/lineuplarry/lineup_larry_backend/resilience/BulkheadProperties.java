@@ -0,0 +1,26 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.bulkheads")
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        // how long a request may queue for a permit before it gets a 503
+        @DefaultValue("100ms") Duration maxWait,
+        // concurrent requests per @Bulkhead name, defaultLimit for names not listed here
+        @DefaultValue Map<String, Integer> limits,
+        @DefaultValue("16") int defaultLimit,
+        // handlers that only read and handlers that write draw from separate budgets, so a
+        // burst of reads can never take the connections writes need. Keep read + write at or
+        // above the pool size and each of them below it.
+        @DefaultValue("8") int readConnections,
+        @DefaultValue("4") int writeConnections) {
+
+    int limitFor(String name) {
+        return limits.getOrDefault(name, defaultLimit);
+    }
+}
@@ -0,0 +1,83 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class BulkheadRegistry {
+
+    public static final String READ_CONNECTIONS = "db-read";
+    public static final String WRITE_CONNECTIONS = "db-write";
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long maxWaitNanos;
+    private final ConcurrentHashMap<String, Permits> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = properties.maxWait().toNanos();
+    }
+
+    public Permits get(String name) {
+        return bulkheads.computeIfAbsent(name, n -> new Permits(n, switch (n) {
+            case READ_CONNECTIONS -> properties.readConnections();
+            case WRITE_CONNECTIONS -> properties.writeConnections();
+            default -> properties.limitFor(n);
+        }));
+    }
+
+    public final class Permits {
+
+        private final String name;
+        // fair, so queued requests are served in order and the wait budget means something
+        private final Semaphore semaphore;
+        private final Timer waits;
+        private final Counter rejected;
+
+        private Permits(String name, int limit) {
+            this.name = name;
+            this.semaphore = new Semaphore(limit, true);
+            this.waits = Timer.builder("bulkhead.wait").tag("bulkhead", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("bulkhead.rejected").tag("bulkhead", name)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .tag("bulkhead", name)
+                    .register(meterRegistry);
+        }
+
+        // always the timed tryAcquire, the untimed one barges past queued requests even on a
+        // fair semaphore
+        public void acquire() {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new OverloadException.BulkheadFullException(name);
+            }
+        }
+
+        public void release() {
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Closed, the breaker counts calls and failures per fixed window and opens once the failure rate
+// crosses the threshold. Open, every call fails fast until openDuration has passed. Half open,
+// halfOpenCalls trial calls go through: all of them succeeding closes it, any failure reopens it.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerProperties properties;
+    private final long windowNanos;
+    private final long openNanos;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger trialPermits = new AtomicInteger();
+    private final AtomicInteger trialSuccesses = new AtomicInteger();
+    private final ReentrantLock transitionLock = new ReentrantLock();
+    private volatile State state = State.CLOSED;
+    private volatile long windowStart;
+    private volatile long openedAt;
+
+    public CircuitBreaker(CircuitBreakerProperties properties) {
+        this.properties = properties;
+        this.windowNanos = properties.window().toNanos();
+        this.openNanos = properties.openDuration().toNanos();
+        this.windowStart = System.nanoTime();
+    }
+
+    // false when the call should fail fast, otherwise onSuccess or onFailure must follow
+    public boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    yield false;
+                }
+                transition(State.OPEN, State.HALF_OPEN);
+                yield tryAcquire();
+            }
+            case HALF_OPEN -> trialPermits.getAndDecrement() > 0;
+        };
+    }
+
+    public void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (trialSuccesses.incrementAndGet() >= properties.halfOpenCalls()) {
+                transition(State.HALF_OPEN, State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.HALF_OPEN, State.OPEN);
+            return;
+        }
+        record(true);
+    }
+
+    public State state() {
+        return state;
+    }
+
+    // nanos until trial calls are let through again, 0 unless open
+    public long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(0, openNanos - (System.nanoTime() - openedAt)) : 0;
+    }
+
+    private void record(boolean failed) {
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos && transitionLock.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    calls.set(0);
+                    failures.set(0);
+                    windowStart = now;
+                }
+            } finally {
+                transitionLock.unlock();
+            }
+        }
+        int total = calls.incrementAndGet();
+        int failedCalls = failed ? failures.incrementAndGet() : failures.get();
+        if (failed && total >= properties.minimumCalls()
+                && failedCalls >= total * properties.failureRateThreshold()) {
+            transition(State.CLOSED, State.OPEN);
+        }
+    }
+
+    private void transition(State from, State to) {
+        transitionLock.lock();
+        try {
+            if (state != from) {
+                return;
+            }
+            long now = System.nanoTime();
+            switch (to) {
+                case OPEN -> openedAt = now;
+                case HALF_OPEN -> {
+                    trialPermits.set(properties.halfOpenCalls());
+                    trialSuccesses.set(0);
+                }
+                case CLOSED -> {
+                    calls.set(0);
+                    failures.set(0);
+                    windowStart = now;
+                }
+            }
+            state = to;
+        } finally {
+            transitionLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One breaker around the lineup, like and user repositories, they all share the same database.
+// While it is open repository calls fail fast with a 503, which lets the caches fall back to
+// stale entries instead of piling more requests onto a database that is failing over.
+@Aspect
+@Component
+public class CircuitBreakerAspect {
+
+    private final CircuitBreaker breaker;
+    private final boolean enabled;
+    private final Counter rejected;
+
+    public CircuitBreakerAspect(CircuitBreakerProperties properties,
+            MeterRegistry meterRegistry) {
+        this.breaker = new CircuitBreaker(properties);
+        this.enabled = properties.enabled();
+        this.rejected = Counter.builder("db.circuit.rejected")
+                .description("Repository calls failed fast by the open circuit breaker")
+                .register(meterRegistry);
+        Gauge.builder("db.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+    }
+
+    @Around("@within(org.springframework.stereotype.Repository) && execution(public * *(..)) && ("
+            + "within(dev.mordi.lineuplarry.lineup_larry_backend.lineup..*) ||"
+            + " within(dev.mordi.lineuplarry.lineup_larry_backend.like..*) ||"
+            + " within(dev.mordi.lineuplarry.lineup_larry_backend.user..*))")
+    public Object guardRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new OverloadException.CircuitOpenException(
+                    Duration.ofNanos(breaker.remainingOpenNanos()));
+        }
+        try {
+            Object result = joinPoint.proceed();
+            breaker.onSuccess();
+            return result;
+        } catch (Throwable throwable) {
+            if (isDatabaseFailure(throwable)) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+            throw throwable;
+        }
+    }
+
+    // constraint violations and domain errors mean the database answered just fine, and a
+    // query cut short by the request's own deadline says nothing about its health either
+    private static boolean isDatabaseFailure(Throwable throwable) {
+        return throwable instanceof DataAccessException
+                && !(throwable instanceof DataIntegrityViolationException)
+                && !RequestDeadline.isCurrentExpired();
+    }
+}
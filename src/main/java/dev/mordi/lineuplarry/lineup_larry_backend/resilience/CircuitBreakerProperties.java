@@ -0,0 +1,19 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.circuit-breaker")
+public record CircuitBreakerProperties(
+        @DefaultValue("true") boolean enabled,
+        // the circuit opens once this share of calls within a window failed on the database
+        @DefaultValue("0.5") double failureRateThreshold,
+        // fewer calls than this in a window never open it
+        @DefaultValue("20") int minimumCalls,
+        @DefaultValue("10s") Duration window,
+        // how long calls fail fast before a few trial calls are let through
+        @DefaultValue("5s") Duration openDuration,
+        @DefaultValue("3") int halfOpenCalls) {
+}
@@ -0,0 +1,15 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Time budget for a handler, or every handler of a controller, such as "2s" or "500ms". A
+// shorter deadline sent by the client still wins.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Deadline {
+
+    String value();
+}
@@ -0,0 +1,58 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.DeadlineExceededException;
+
+// Applies @Deadline to the request's deadline before a handler runs, fails requests that are
+// already past it, and turns queries cancelled by the timeouts into a 504.
+@Aspect
+@Component
+public class DeadlineAspect {
+
+    private final ConcurrentHashMap<Method, Optional<Duration>> timeouts =
+            new ConcurrentHashMap<>();
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object enforceDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestDeadline.CURRENT.isBound()) {
+            return joinPoint.proceed();
+        }
+        RequestDeadline deadline = RequestDeadline.CURRENT.get();
+        timeouts.computeIfAbsent(((MethodSignature) joinPoint.getSignature()).getMethod(),
+                DeadlineAspect::timeoutOf).ifPresent(deadline::tighten);
+        if (deadline.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (DataAccessException e) {
+            if (RequestDeadline.isQueryCancelled(e) && deadline.isSet()) {
+                throw new DeadlineExceededException();
+            }
+            throw e;
+        }
+    }
+
+    private static Optional<Duration> timeoutOf(Method method) {
+        Deadline annotation = AnnotatedElementUtils.findMergedAnnotation(method, Deadline.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(),
+                    Deadline.class);
+        }
+        return Optional.ofNullable(annotation)
+                .map(a -> DurationStyle.detectAndParse(a.value()));
+    }
+}
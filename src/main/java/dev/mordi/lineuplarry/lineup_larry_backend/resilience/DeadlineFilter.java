@@ -0,0 +1,70 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Binds a RequestDeadline for /api requests, from the client's timeout header or the configured
+// default. Requests without either still get an unset one, so @Deadline has something to tighten.
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineProperties properties;
+
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        RequestDeadline deadline = new RequestDeadline();
+        Duration timeout = timeout(request.getHeader(properties.header()));
+        if (timeout != null) {
+            deadline.tighten(timeout);
+        }
+        try {
+            ScopedValue.where(RequestDeadline.CURRENT, deadline).call(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+
+    // malformed and non-positive headers are ignored, the default applies instead
+    private Duration timeout(String header) {
+        Duration requested = null;
+        if (header != null && !header.isBlank()) {
+            try {
+                requested = DurationStyle.detectAndParse(header.strip());
+            } catch (IllegalArgumentException e) {
+                requested = null;
+            }
+        }
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            requested = properties.defaultTimeout();
+        }
+        if (requested.isZero() || requested.isNegative()) {
+            return null;
+        }
+        return requested.compareTo(properties.maxTimeout()) > 0 ? properties.maxTimeout()
+                : requested;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+import org.jooq.exception.DataAccessException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.DeadlineExceededException;
+
+// Gives every statement run under a RequestDeadline a JDBC query timeout from the time left,
+// which the driver only takes in whole seconds. Inside a transaction statement_timeout, which
+// Postgres enforces to the millisecond, is set by the first statement and set again whenever the
+// time left has shrunk by a quarter since, so later statements cannot overrun the deadline by
+// more than that for the price of a few extra round trips.
+public class DeadlineListener implements ExecuteListener {
+
+    private static final Object TRANSACTION_KEY = new Object();
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        if (!RequestDeadline.CURRENT.isBound() || !RequestDeadline.CURRENT.get().isSet()) {
+            return;
+        }
+        long remainingNanos = RequestDeadline.CURRENT.get().remainingNanos();
+        if (remainingNanos <= 0) {
+            throw new DeadlineExceededException();
+        }
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()
+                    && isStale(remainingNanos)) {
+                setStatementTimeout(ctx, remainingNanos);
+            }
+            if (ctx.statement() != null) {
+                // rounded up, a timeout of 0 would mean none at all
+                int seconds = (int) Math.max(1, (remainingNanos + 999_999_999L) / 1_000_000_000L);
+                ctx.statement().setQueryTimeout(seconds);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not apply the request deadline", e);
+        }
+    }
+
+    // true when the transaction has no statement_timeout yet, or one a quarter above the time
+    // left. The slot holds the timeout last set, in nanoseconds.
+    private static boolean isStale(long remainingNanos) {
+        Object set = TransactionSynchronizationManager.getResource(TRANSACTION_KEY);
+        return !(set instanceof long[] timeout) || remainingNanos < timeout[0] - timeout[0] / 4;
+    }
+
+    // SET LOCAL, so it goes away with the transaction and never leaks into the pool
+    private static void setStatementTimeout(ExecuteContext ctx, long remainingNanos)
+            throws SQLException {
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        try (PreparedStatement statement = ctx.connection()
+                .prepareStatement("select set_config('statement_timeout', ?, true)")) {
+            statement.setString(1, millis + "ms");
+            statement.execute();
+        }
+        if (TransactionSynchronizationManager.getResource(TRANSACTION_KEY) instanceof long[] set) {
+            set[0] = remainingNanos;
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_KEY,
+                new long[] {remainingNanos});
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_KEY);
+            }
+        });
+    }
+}
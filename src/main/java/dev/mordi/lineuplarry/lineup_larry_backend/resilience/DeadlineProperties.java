@@ -0,0 +1,17 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.deadlines")
+public record DeadlineProperties(
+        @DefaultValue("true") boolean enabled,
+        // request header with the client's time budget, "1500" (millis), "1500ms" or "2s"
+        @DefaultValue("X-Request-Timeout") String header,
+        // applied to /api requests without a header or @Deadline, 0 for none
+        @DefaultValue("0s") Duration defaultTimeout,
+        // clients cannot ask for more than this
+        @DefaultValue("30s") Duration maxTimeout) {
+}
@@ -0,0 +1,16 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts a handler, or every handler of a controller, in a named rate limit budget, sized by
+// lineup-larry.rate-limit.budgets.<name>. Each client gets its own bucket per budget; handlers
+// without the annotation share the default budget.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimit {
+
+    String value();
+}
@@ -0,0 +1,120 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+// Takes a token from the client's bucket for the handler's @RateLimit budget before anything
+// else runs. It sits in front of AdaptiveConcurrencyFilter, so a rejected request never holds a
+// concurrency slot or a bulkhead permit, and its quick 429 never counts as a latency sample.
+// Every response carries the RateLimit-Limit/Remaining/Reset headers, an empty bucket fails the
+// request with a 429 rendered by GlobalExceptionController.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+    private final RateLimitProperties properties;
+    private final HandlerMapping handlerMapping;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final ConcurrentHashMap<Method, String> budgets = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimiter limiter, RateLimitProperties properties,
+            @Qualifier("requestMappingHandlerMapping") HandlerMapping handlerMapping,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.limiter = limiter;
+        this.properties = properties;
+        this.handlerMapping = handlerMapping;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        HandlerMethod handler = handlerOf(request);
+        if (handler == null) {
+            // unmapped requests end in a 404 without doing any work
+            chain.doFilter(request, response);
+            return;
+        }
+        String budget = budgets.computeIfAbsent(handler.getMethod(), this::budgetOf);
+        int limit = limiter.limitOf(budget);
+        TokenBucket.Decision decision = limiter.tryConsume(clientOf(request), budget);
+        if (!decision.allowed()) {
+            exceptionResolver.resolveException(request, response, null,
+                    new OverloadException.RateLimitedException(budget, limit,
+                            Duration.ofNanos(decision.retryAfterNanos()),
+                            seconds(decision.resetNanos())));
+            return;
+        }
+        response.setHeader("RateLimit-Limit", String.valueOf(limit));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(seconds(decision.resetNanos())));
+        chain.doFilter(request, response);
+    }
+
+    // looks the handler up the way DispatcherServlet will, ahead of it. The parsed path is only
+    // borrowed, DispatcherServlet parses and clears its own.
+    private HandlerMethod handlerOf(HttpServletRequest request) {
+        boolean parsed = ServletRequestPathUtils.hasParsedRequestPath(request);
+        if (!parsed) {
+            ServletRequestPathUtils.parseAndCache(request);
+        }
+        try {
+            HandlerExecutionChain chain = handlerMapping.getHandler(request);
+            return chain != null && chain.getHandler() instanceof HandlerMethod method ? method
+                    : null;
+        } catch (Exception e) {
+            // no match for the method or media type, MVC answers that itself
+            return null;
+        } finally {
+            if (!parsed) {
+                ServletRequestPathUtils.clearParsedRequestPath(request);
+            }
+        }
+    }
+
+    // the remote address, which is the real client once server.forward-headers-strategy is set
+    // behind a proxy. Switch to the user id once requests are authenticated.
+    private static String clientOf(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private String budgetOf(Method method) {
+        RateLimit annotation = AnnotatedElementUtils.findMergedAnnotation(method, RateLimit.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(),
+                    RateLimit.class);
+        }
+        return annotation != null ? annotation.value() : RateLimitProperties.DEFAULT_BUDGET;
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(0, (nanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
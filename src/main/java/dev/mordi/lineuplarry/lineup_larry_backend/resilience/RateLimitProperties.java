@@ -0,0 +1,28 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // requests a client may make per period for each @RateLimit name, the default budget
+        // below for handlers without one. A client can use a whole period's worth in a burst.
+        @DefaultValue Map<String, Budget> budgets,
+        @DefaultValue("600") int defaultLimit,
+        @DefaultValue("1m") Duration defaultPeriod,
+        // buckets kept at once, full (idle) ones are dropped first once there are more
+        @DefaultValue("100000") int maxBuckets) {
+
+    public static final String DEFAULT_BUDGET = "default";
+
+    public record Budget(int limit, Duration period) {
+    }
+
+    Budget budgetFor(String name) {
+        return budgets.getOrDefault(name, new Budget(defaultLimit, defaultPeriod));
+    }
+}
@@ -0,0 +1,67 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Token buckets per client and budget. The map is bounded by lineup-larry.rate-limit.max-buckets;
+// full buckets carry no state worth keeping, so they are what gets dropped first.
+@Component
+public class RateLimiter {
+
+    private record Key(String client, String budget) {
+    }
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("rate.limit.buckets", buckets, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    TokenBucket.Decision tryConsume(String client, String budget) {
+        long now = System.nanoTime();
+        Key key = new Key(client, budget);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= properties.maxBuckets()) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> newBucket(budget, now));
+        }
+        TokenBucket.Decision decision = bucket.tryConsume(now);
+        if (!decision.allowed()) {
+            meterRegistry.counter("rate.limit.rejected", "budget", budget).increment();
+        }
+        return decision;
+    }
+
+    int limitOf(String budget) {
+        return properties.budgetFor(budget).limit();
+    }
+
+    private TokenBucket newBucket(String budget, long now) {
+        RateLimitProperties.Budget sized = properties.budgetFor(budget);
+        return new TokenBucket(sized.limit(), sized.period().toNanos(), now);
+    }
+
+    // drops full buckets, and if that is not enough an arbitrary tenth of them
+    private void evict(long now) {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        int maxBuckets = properties.maxBuckets();
+        int toRemove = buckets.size() - maxBuckets + Math.max(1, maxBuckets / 10);
+        Iterator<Key> keys = buckets.keySet().iterator();
+        while (toRemove-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
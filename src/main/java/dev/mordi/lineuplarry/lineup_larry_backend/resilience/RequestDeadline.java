@@ -0,0 +1,70 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import org.springframework.dao.DataAccessException;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.DeadlineExceededException;
+
+// The point in time after which nobody is waiting for the current request anymore. Bound by
+// DeadlineFilter, tightened by @Deadline, and read by DeadlineListener to give every statement
+// a timeout from what is left.
+public final class RequestDeadline {
+
+    public static final ScopedValue<RequestDeadline> CURRENT = ScopedValue.newInstance();
+
+    // query_canceled, raised by both statement_timeout and the JDBC query timeout
+    private static final String QUERY_CANCELED = "57014";
+
+    private static final long NONE = Long.MAX_VALUE;
+
+    private volatile long deadlineNanos = NONE;
+
+    public RequestDeadline() {
+    }
+
+    public RequestDeadline(Duration timeout) {
+        tighten(timeout);
+    }
+
+    // a later deadline never replaces an earlier one
+    public synchronized void tighten(Duration timeout) {
+        long candidate = System.nanoTime() + timeout.toNanos();
+        if (deadlineNanos == NONE || candidate - deadlineNanos < 0) {
+            deadlineNanos = candidate;
+        }
+    }
+
+    public boolean isSet() {
+        return deadlineNanos != NONE;
+    }
+
+    public long remainingNanos() {
+        return isSet() ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public static boolean isCurrentExpired() {
+        return CURRENT.isBound() && CURRENT.get().isExpired();
+    }
+
+    // whether `failure` came from the current request running out of time rather than from
+    // what it was doing. A statement_timeout can fire a hair before the deadline itself.
+    public static boolean isCurrentOutOfTime(Throwable failure) {
+        if (!CURRENT.isBound() || !CURRENT.get().isSet()) {
+            return false;
+        }
+        return failure instanceof DeadlineExceededException || CURRENT.get().isExpired()
+                || isQueryCancelled(failure);
+    }
+
+    public static boolean isQueryCancelled(Throwable failure) {
+        return failure instanceof DataAccessException e
+                && e.getMostSpecificCause() instanceof SQLException sql
+                && QUERY_CANCELED.equals(sql.getSQLState());
+    }
+}
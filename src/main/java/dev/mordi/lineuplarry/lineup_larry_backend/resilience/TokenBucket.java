@@ -0,0 +1,47 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket in its GCRA form: instead of a token count and a refill timestamp the
+// bucket only keeps the theoretical arrival time (TAT) of the next request, so taking a token
+// is a single CAS. The bucket is full whenever the TAT is in the past.
+final class TokenBucket {
+
+    record Decision(boolean allowed, int remaining, long resetNanos, long retryAfterNanos) {
+    }
+
+    private final int limit;
+    // time it takes to refill one token, and to refill the whole bucket
+    private final long intervalNanos;
+    private final long periodNanos;
+    private final AtomicLong tat;
+
+    TokenBucket(int limit, long periodNanos, long now) {
+        this.limit = limit;
+        this.intervalNanos = Math.max(1, periodNanos / limit);
+        this.periodNanos = intervalNanos * limit;
+        this.tat = new AtomicLong(now);
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    Decision tryConsume(long now) {
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long debt = next - now;
+            if (debt > periodNanos) {
+                return new Decision(false, 0, current - now, debt - periodNanos);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return new Decision(true, (int) ((periodNanos - debt) / intervalNanos), debt, 0);
+            }
+        }
+    }
+
+    boolean isFull(long now) {
+        return tat.get() <= now;
+    }
+}
@@ -0,0 +1,16 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.ApiProblemException;
+
+public class DeadlineExceededException extends ApiProblemException {
+
+    public DeadlineExceededException() {
+        super(HttpStatus.GATEWAY_TIMEOUT,
+                "deadline/exceeded",
+                "Deadline exceeded",
+                "The request ran out of time before it could be completed",
+                "DEADLINE_EXCEEDED");
+    }
+}
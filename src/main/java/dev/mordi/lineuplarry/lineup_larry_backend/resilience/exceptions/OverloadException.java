@@ -0,0 +1,86 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.ApiProblemException;
+
+public abstract class OverloadException extends ApiProblemException {
+
+    protected OverloadException(HttpStatus status, String problemSlug, String title,
+            String detail, String code, Duration retryAfter) {
+        super(status, problemSlug, title, detail, code);
+        // whole seconds, rounded up so clients never retry too early
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+    }
+
+    public static class BulkheadFullException extends OverloadException {
+
+        public BulkheadFullException(String bulkhead) {
+            super(HttpStatus.SERVICE_UNAVAILABLE,
+                    "overload/bulkhead-full",
+                    "Service busy",
+                    "Too many concurrent requests for: '" + bulkhead + "', try again shortly",
+                    "BULKHEAD_FULL",
+                    Duration.ofSeconds(1));
+        }
+    }
+
+    public static class ConcurrencyLimitException extends OverloadException {
+
+        public ConcurrencyLimitException(int limit) {
+            super(HttpStatus.SERVICE_UNAVAILABLE,
+                    "overload/concurrency-limit",
+                    "Service overloaded",
+                    "The server is at its current limit of " + limit
+                            + " concurrent requests, try again shortly",
+                    "CONCURRENCY_LIMIT_EXCEEDED",
+                    Duration.ofSeconds(1));
+        }
+    }
+
+    public static class LoadTimeoutException extends OverloadException {
+
+        public LoadTimeoutException(String name) {
+            super(HttpStatus.SERVICE_UNAVAILABLE,
+                    "overload/load-timeout",
+                    "Service busy",
+                    "Timed out waiting for a concurrent load of: '" + name
+                            + "', try again shortly",
+                    "LOAD_TIMEOUT",
+                    Duration.ofSeconds(1));
+        }
+    }
+
+    public static class CircuitOpenException extends OverloadException {
+
+        public CircuitOpenException(Duration retryAfter) {
+            super(HttpStatus.SERVICE_UNAVAILABLE,
+                    "overload/circuit-open",
+                    "Service unavailable",
+                    "The database is failing, requests are rejected until it recovers",
+                    "CIRCUIT_OPEN",
+                    retryAfter);
+        }
+    }
+
+    public static class RateLimitedException extends OverloadException {
+
+        public RateLimitedException(String budget, int limit, Duration retryAfter,
+                long resetSeconds) {
+            super(HttpStatus.TOO_MANY_REQUESTS,
+                    "overload/rate-limited",
+                    "Too many requests",
+                    "Rate limit of " + limit + " requests for: '" + budget
+                            + "' exceeded, try again later",
+                    "RATE_LIMITED",
+                    retryAfter);
+            getHeaders().set("RateLimit-Limit", String.valueOf(limit));
+            getHeaders().set("RateLimit-Remaining", "0");
+            getHeaders().set("RateLimit-Reset", String.valueOf(resetSeconds));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.val;
+
+// Runs every ClusterTask on a virtual thread per task. All nodes wake up at the same fire times,
+// but only the node that wins pg_try_advisory_lock and sees that the fire time has not been
+// handled yet in scheduled_task_runs actually runs the task.
+@Component
+public class ClusterScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterScheduler.class);
+
+    private final DSLContext dsl;
+    private final TaskRunRepository taskRunRepository;
+    private final List<ClusterTask> tasks;
+    private final SchedulerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final String node = ManagementFactory.getRuntimeMXBean().getName();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public ClusterScheduler(DSLContext dsl, TaskRunRepository taskRunRepository,
+            List<ClusterTask> tasks, SchedulerProperties properties,
+            MeterRegistry meterRegistry) {
+        this.dsl = dsl;
+        this.taskRunRepository = taskRunRepository;
+        this.tasks = tasks;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled() || tasks.isEmpty()) {
+            return;
+        }
+        running = true;
+        for (ClusterTask task : tasks) {
+            threads.add(Thread.ofVirtual()
+                    .name("cluster-task-" + task.name())
+                    .start(new TaskLoop(task)::run));
+        }
+        log.info("Started cluster scheduler on {} for tasks {}", node,
+                tasks.stream().map(ClusterTask::name).toList());
+    }
+
+    // waits for running tasks to finish, so they do not race the shutdown of the pool
+    @Override
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // one fire time of the task as the loop would handle it, true if this node ran it
+    boolean runIfDue(ClusterTask task, Instant fireTime) {
+        return new TaskLoop(task).runIfDue(fireTime, false);
+    }
+
+    private final class TaskLoop {
+
+        private final ClusterTask task;
+        private final Timer duration;
+        private final Timer skew;
+        private final Counter skipped;
+
+        TaskLoop(ClusterTask task) {
+            this.task = task;
+            this.duration = Timer.builder("scheduler.task.duration").tag("task", task.name())
+                    .register(meterRegistry);
+            // how late the task started compared to its fire time
+            this.skew = Timer.builder("scheduler.task.skew").tag("task", task.name())
+                    .register(meterRegistry);
+            this.skipped = Counter.builder("scheduler.task.skipped").tag("task", task.name())
+                    .register(meterRegistry);
+        }
+
+        void run() {
+            try {
+                catchUpMissedRun();
+                while (running) {
+                    Instant fireTime = task.schedule().next(Instant.now());
+                    sleepUntil(fireTime);
+                    runIfDue(fireTime, false);
+                }
+            } catch (InterruptedException e) {
+                // shutting down
+            }
+        }
+
+        private void catchUpMissedRun() {
+            if (task.schedule().missedRunPolicy() != TaskSchedule.MissedRunPolicy.RUN_ONCE) {
+                return;
+            }
+            try {
+                Optional<Instant> last = taskRunRepository.getLastScheduledFor(task.name());
+                Instant now = Instant.now();
+                if (last.isPresent() && !task.schedule().next(last.get()).isBefore(now)) {
+                    return;
+                }
+                // the latest missed fire time, or the epoch when the task never ran, so nodes
+                // starting together agree on it and runLocked lets only one of them catch up
+                Instant fireTime = last.isEmpty() ? Instant.EPOCH
+                        : task.schedule().latest(last.get(), now);
+                log.info("Task '{}' missed a run while no node was up, catching up",
+                        task.name());
+                runIfDue(fireTime, true);
+            } catch (RuntimeException e) {
+                log.error("Failed to check missed runs for task '{}'", task.name(), e);
+            }
+        }
+
+        private boolean runIfDue(Instant fireTime, boolean catchUp) {
+            try {
+                boolean ran = dsl.connectionResult(connection -> {
+                    DSLContext session = DSL.using(connection, dsl.dialect());
+                    if (!tryLock(session)) {
+                        return false;
+                    }
+                    try {
+                        return runLocked(fireTime, catchUp);
+                    } finally {
+                        unlock(session);
+                    }
+                });
+                if (!ran) {
+                    skipped.increment();
+                }
+                return ran;
+            } catch (RuntimeException e) {
+                log.error("Failed to schedule task '{}'", task.name(), e);
+                return false;
+            }
+        }
+
+        private boolean runLocked(Instant fireTime, boolean catchUp) {
+            // another node might have held the lock for this fire time and already released it
+            Optional<Instant> last = taskRunRepository.getLastScheduledFor(task.name());
+            if (last.isPresent() && !last.get().isBefore(fireTime)) {
+                return false;
+            }
+
+            long start = System.nanoTime();
+            // a catch-up runs long after its fire time by design
+            if (!catchUp) {
+                skew.record(Duration.between(fireTime, Instant.now()).abs());
+            }
+            taskRunRepository.markStarted(task.name(), fireTime, node);
+            String error = null;
+            try {
+                task.run();
+            } catch (Exception e) {
+                error = String.valueOf(e);
+                log.error("Task '{}' failed", task.name(), e);
+            }
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("scheduler.task.runs", "task", task.name(), "outcome",
+                    error == null ? "success" : "failure").increment();
+            taskRunRepository.markFinished(task.name(), error);
+            return true;
+        }
+
+        private boolean tryLock(DSLContext session) {
+            return Boolean.TRUE.equals(session
+                    .select(field("pg_try_advisory_lock({0}, hashtext({1}))", Boolean.class,
+                            val(properties.lockNamespace()), val(task.name())))
+                    .fetchOne(0, Boolean.class));
+        }
+
+        private void unlock(DSLContext session) {
+            session.select(field("pg_advisory_unlock({0}, hashtext({1}))", Boolean.class,
+                    val(properties.lockNamespace()), val(task.name())))
+                    .fetch();
+        }
+    }
+
+    private static void sleepUntil(Instant instant) throws InterruptedException {
+        Duration wait = Duration.between(Instant.now(), instant);
+        if (!wait.isNegative()) {
+            Thread.sleep(wait);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+// Periodic work that should run on exactly one replica per scheduled time. Register an
+// implementation as a bean and the ClusterScheduler takes care of the rest.
+public interface ClusterTask {
+
+    // also used to derive the advisory lock key, so keep it stable
+    String name();
+
+    TaskSchedule schedule();
+
+    void run() throws Exception;
+}
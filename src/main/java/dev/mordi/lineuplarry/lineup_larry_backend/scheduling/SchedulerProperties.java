@@ -0,0 +1,11 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("lineup-larry.scheduler")
+public record SchedulerProperties(
+        @DefaultValue("true") boolean enabled,
+        // first key of the two-int pg_try_advisory_lock form, keeps our locks apart from others
+        @DefaultValue("20260") int lockNamespace) {
+}
@@ -0,0 +1,55 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.jooq.DSLContext;
+import org.springframework.stereotype.Repository;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.SCHEDULED_TASK_RUNS;
+
+@Repository
+public class TaskRunRepository {
+
+    private final DSLContext dsl;
+
+    TaskRunRepository(DSLContext dsl) {
+        this.dsl = dsl;
+    }
+
+    public Optional<Instant> getLastScheduledFor(String name) {
+        return dsl.select(SCHEDULED_TASK_RUNS.SCHEDULED_FOR)
+                .from(SCHEDULED_TASK_RUNS)
+                .where(SCHEDULED_TASK_RUNS.NAME.eq(name))
+                .fetchOptional(SCHEDULED_TASK_RUNS.SCHEDULED_FOR)
+                .map(OffsetDateTime::toInstant);
+    }
+
+    public void markStarted(String name, Instant scheduledFor, String node) {
+        OffsetDateTime scheduled = scheduledFor.atOffset(ZoneOffset.UTC);
+        OffsetDateTime now = OffsetDateTime.now();
+        dsl.insertInto(SCHEDULED_TASK_RUNS)
+                .set(SCHEDULED_TASK_RUNS.NAME, name)
+                .set(SCHEDULED_TASK_RUNS.SCHEDULED_FOR, scheduled)
+                .set(SCHEDULED_TASK_RUNS.STARTED_AT, now)
+                .set(SCHEDULED_TASK_RUNS.NODE, node)
+                .onConflict(SCHEDULED_TASK_RUNS.NAME)
+                .doUpdate()
+                .set(SCHEDULED_TASK_RUNS.SCHEDULED_FOR, scheduled)
+                .set(SCHEDULED_TASK_RUNS.STARTED_AT, now)
+                .setNull(SCHEDULED_TASK_RUNS.FINISHED_AT)
+                .set(SCHEDULED_TASK_RUNS.NODE, node)
+                .setNull(SCHEDULED_TASK_RUNS.LAST_ERROR)
+                .execute();
+    }
+
+    public void markFinished(String name, String error) {
+        dsl.update(SCHEDULED_TASK_RUNS)
+                .set(SCHEDULED_TASK_RUNS.FINISHED_AT, OffsetDateTime.now())
+                .set(SCHEDULED_TASK_RUNS.LAST_ERROR, error)
+                .where(SCHEDULED_TASK_RUNS.NAME.eq(name))
+                .execute();
+    }
+}
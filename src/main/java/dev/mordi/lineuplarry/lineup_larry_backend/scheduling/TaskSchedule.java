@@ -0,0 +1,77 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.springframework.scheduling.support.CronExpression;
+
+public sealed interface TaskSchedule {
+
+    // first fire time strictly after the given instant
+    Instant next(Instant after);
+
+    MissedRunPolicy missedRunPolicy();
+
+    // latest fire time after `after` that is not after `until`, `after` itself when none is
+    default Instant latest(Instant after, Instant until) {
+        Instant latest = after;
+        for (Instant next = next(after); !next.isAfter(until); next = next(next)) {
+            latest = next;
+        }
+        return latest;
+    }
+
+    static TaskSchedule fixedRate(Duration period) {
+        return new FixedRate(period, MissedRunPolicy.RUN_ONCE);
+    }
+
+    static TaskSchedule cron(String expression) {
+        return new Cron(CronExpression.parse(expression), MissedRunPolicy.RUN_ONCE);
+    }
+
+    enum MissedRunPolicy {
+        // run a single catch-up as soon as a node notices that a fire time was missed
+        RUN_ONCE,
+        // wait for the next regular fire time
+        SKIP
+    }
+
+    // Fire times are aligned to multiples of the period since the epoch, so every node
+    // computes the same schedule without coordination.
+    record FixedRate(Duration period, MissedRunPolicy missedRunPolicy) implements TaskSchedule {
+
+        @Override
+        public Instant next(Instant after) {
+            long periodMillis = period.toMillis();
+            long slot = Math.floorDiv(after.toEpochMilli(), periodMillis) + 1;
+            return Instant.ofEpochMilli(slot * periodMillis);
+        }
+
+        @Override
+        public Instant latest(Instant after, Instant until) {
+            long periodMillis = period.toMillis();
+            Instant slot = Instant.ofEpochMilli(
+                    Math.floorDiv(until.toEpochMilli(), periodMillis) * periodMillis);
+            return slot.isAfter(after) ? slot : after;
+        }
+
+        public FixedRate skipMissedRuns() {
+            return new FixedRate(period, MissedRunPolicy.SKIP);
+        }
+    }
+
+    // cron expressions are evaluated in UTC
+    record Cron(CronExpression expression, MissedRunPolicy missedRunPolicy)
+            implements TaskSchedule {
+
+        @Override
+        public Instant next(Instant after) {
+            return expression.next(after.atZone(ZoneOffset.UTC)).toInstant();
+        }
+
+        public Cron skipMissedRuns() {
+            return new Cron(expression, MissedRunPolicy.SKIP);
+        }
+    }
+}
@@ -31,11 +31,12 @@ import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineu
 @RestControllerAdvice
 public class GlobalExceptionController extends ResponseEntityExceptionHandler {
 
+    // keeps headers set by the exception, such as Retry-After
     @ExceptionHandler(ApiProblemException.class)
-    public ProblemDetail handleApiProblemException(ApiProblemException e) {
+    public ResponseEntity<ProblemDetail> handleApiProblemException(ApiProblemException e) {
         ProblemDetail problemDetail = e.getBody();
         withTimestamp(problemDetail);
-        return problemDetail;
+        return new ResponseEntity<>(problemDetail, e.getHeaders(), e.getStatusCode());
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
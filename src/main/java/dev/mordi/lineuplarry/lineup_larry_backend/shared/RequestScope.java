@@ -0,0 +1,45 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.ReadYourWrites;
+import dev.mordi.lineuplarry.lineup_larry_backend.db.RequestQueryStats;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RequestDeadline;
+import dev.mordi.lineuplarry.lineup_larry_backend.timing.RequestTiming;
+
+// The request's scoped values as bound by the filters: its deadline, query stats, timing and
+// read-your-writes position. Scoped values do not follow a task into an executor, so a fan-out
+// captures them on the request thread and runs every task under them. Work meant to outlive the
+// request, like a background cache refresh, must not.
+public final class RequestScope {
+
+    private final ScopedValue.Carrier carrier;
+
+    private RequestScope(ScopedValue.Carrier carrier) {
+        this.carrier = carrier;
+    }
+
+    public static RequestScope capture() {
+        List<ScopedValue<?>> values = new ArrayList<>(List.of(RequestDeadline.CURRENT,
+                RequestQueryStats.CURRENT, RequestTiming.CURRENT));
+        values.addAll(ReadYourWrites.scopedValues());
+        ScopedValue.Carrier carrier = null;
+        for (ScopedValue<?> value : values) {
+            carrier = with(carrier, value);
+        }
+        return new RequestScope(carrier);
+    }
+
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return carrier == null ? task : () -> carrier.call(task::call);
+    }
+
+    private static <T> ScopedValue.Carrier with(ScopedValue.Carrier carrier, ScopedValue<T> key) {
+        if (!key.isBound()) {
+            return carrier;
+        }
+        return carrier == null ? ScopedValue.where(key, key.get()) : carrier.where(key, key.get());
+    }
+}
@@ -0,0 +1,51 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.timing;
+
+import java.util.Locale;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.RequestQueryStats;
+
+// Where the time of one /api request went, rendered into its Server-Timing header. Only bound
+// while lineup-larry.server-timing.enabled is set, everything else checks isBound() first.
+public final class RequestTiming {
+
+    public static final ScopedValue<RequestTiming> CURRENT = ScopedValue.newInstance();
+
+    private final long start = System.nanoTime();
+    private long handlerNanos;
+    private long errorNanos;
+    private long serializationStart;
+
+    void addHandler(long nanos) {
+        handlerNanos += nanos;
+    }
+
+    void addError(long nanos) {
+        errorNanos += nanos;
+    }
+
+    // the last body written wins, an error response replaces the handler's
+    void serializationStarted() {
+        serializationStart = System.nanoTime();
+    }
+
+    String header(RequestQueryStats queries) {
+        long end = System.nanoTime();
+        StringBuilder header = new StringBuilder(160);
+        append(header, "db", queries.dbNanos())
+                .append(";desc=\"").append(queries.total()).append(" queries\"");
+        append(header.append(", "), "conn", queries.connectionAcquireNanos());
+        append(header.append(", "), "handler", handlerNanos);
+        if (errorNanos > 0) {
+            append(header.append(", "), "error", errorNanos);
+        }
+        if (serializationStart > 0) {
+            append(header.append(", "), "ser", end - serializationStart);
+        }
+        return append(header.append(", "), "total", end - start).toString();
+    }
+
+    private static StringBuilder append(StringBuilder header, String name, long nanos) {
+        return header.append(name).append(";dur=")
+                .append(String.format(Locale.ROOT, "%.2f", nanos / 1e6));
+    }
+}
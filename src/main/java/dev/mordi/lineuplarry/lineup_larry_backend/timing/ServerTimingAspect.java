@@ -0,0 +1,41 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.timing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// handler and exception handler time for RequestTiming
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "lineup-larry.server-timing", name = "enabled",
+        havingValue = "true")
+public class ServerTimingAspect {
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeHandler(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTiming.CURRENT.isBound()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTiming.CURRENT.get().addHandler(System.nanoTime() - start);
+        }
+    }
+
+    @Around("@annotation(org.springframework.web.bind.annotation.ExceptionHandler)")
+    public Object timeExceptionHandler(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!RequestTiming.CURRENT.isBound()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTiming.CURRENT.get().addError(System.nanoTime() - start);
+        }
+    }
+}
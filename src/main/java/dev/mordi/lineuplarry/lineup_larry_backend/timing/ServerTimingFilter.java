@@ -0,0 +1,54 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.timing;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.RequestQueryStats;
+
+// Adds a Server-Timing header to /api responses. The body is buffered so the header can still
+// be set after serialization, which is why this is opt-in. When disabled none of the timing
+// beans exist, so requests do not pay for it at all.
+@Component
+@ConditionalOnProperty(prefix = "lineup-larry.server-timing", name = "enabled",
+        havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        RequestTiming timing = new RequestTiming();
+        // QueryBudgetFilter normally binds this already, unless the budget is turned off
+        RequestQueryStats queries = RequestQueryStats.CURRENT.isBound()
+                ? RequestQueryStats.CURRENT.get()
+                : new RequestQueryStats();
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            ScopedValue.where(RequestTiming.CURRENT, timing)
+                    .where(RequestQueryStats.CURRENT, queries)
+                    .call(() -> {
+                        chain.doFilter(request, buffered);
+                        return null;
+                    });
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        buffered.setHeader("Server-Timing", timing.header(queries));
+        buffered.copyBodyToResponse();
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.Bulkhead;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RateLimit;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
 
 @RestController
@@ -31,6 +33,7 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
+    @RateLimit("lookup")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         User user = userService.getById(id)
                 .orElseThrow(() -> new InvalidUserException.UserNotFoundException(id));
@@ -55,6 +58,8 @@ public class UserController {
     }
 
     @GetMapping("/summary/{id}")
+    @Bulkhead("user-summary")
+    @RateLimit("lookup")
     public ResponseEntity<UserSummaryDTO> getUserSummary(@PathVariable Long id) {
         UserSummaryDTO ar = userService.getUserSummary(id);
         return new ResponseEntity<>(ar, HttpStatus.OK);
@@ -1,18 +1,30 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.user;
 
+import java.time.OffsetDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.jooq.DSLContext;
+import org.jooq.Record2;
+import org.jooq.Record3;
+import org.jooq.Result;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShards;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.LineupIdTitleDTO;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
 
 import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.*;
 import static org.jooq.Records.mapping;
 import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.max;
 import static org.jooq.impl.DSL.selectFrom;
 
 @Repository
@@ -21,14 +33,21 @@ public class UserRepository {
     @Autowired
     DSLContext dsl;
 
-    UserRepository(DSLContext dsl) {
+    private final LikeShards likeShards;
+    private final ApplicationEventPublisher events;
+
+    UserRepository(DSLContext dsl, LikeShards likeShards, ApplicationEventPublisher events) {
         this.dsl = dsl;
+        this.likeShards = likeShards;
+        this.events = events;
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return dsl.selectFrom(USERS).fetch(r -> r.into(User.class));
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return dsl.select(USERS.ID, USERS.USERNAME)
                 .from(USERS)
@@ -37,6 +56,12 @@ public class UserRepository {
                 .map(mapping(User::new));
     }
 
+    // a backwards scan of the primary key, 0 for an empty table
+    public long getMaxUserId() {
+        Long maxId = dsl.select(max(USERS.ID)).from(USERS).fetchOne(0, Long.class);
+        return maxId != null ? maxId : 0;
+    }
+
     // TODO: create tests
     protected boolean doesUserExist(Long id) {
         boolean exists = dsl.fetchExists(selectFrom(USERS).where(USERS.ID.eq(id)));
@@ -48,27 +73,57 @@ public class UserRepository {
     }
 
     // consider using "UserRecord" instead
+    @Transactional
     public User createUser(User user) {
-        return dsl.insertInto(USERS).set(USERS.USERNAME, user.username()).returning()
+        User created = dsl.insertInto(USERS).set(USERS.USERNAME, user.username()).returning()
                 .fetchOne(r -> new User(r.getId(), r.getUsername()));
+        events.publishEvent(new DomainEvent.UserCreated(created.id(), created.username()));
+        return created;
     }
 
+    @Transactional
     public void updateUser(Long id, User user) {
         dsl.fetchOptional(USERS, USERS.ID.eq(user.id())).ifPresent(r -> {
+            boolean renamed = !user.username().equals(r.getUsername());
             r.setUsername(user.username());
             r.store();
+            if (renamed) {
+                // also queues copying the new name onto the user's lineups, see
+                // LineupAuthorRenames
+                events.publishEvent(new DomainEvent.UserRenamed(r.getId(), r.getUsername()));
+            }
         });
     }
 
+    @Transactional
     public void deleteUser(Long id) {
-        int rowsAffected = dsl.deleteFrom(USERS).where(USERS.ID.eq(id)).execute();
+        // the locks keep new lineups and likes out of what the cascade below removes
+        boolean exists = dsl.fetchExists(selectFrom(USERS).where(USERS.ID.eq(id)).forUpdate());
 
-        if (rowsAffected == 0) {
+        if (!exists) {
             throw new InvalidUserException.UserNotFoundException(id);
         }
+
+        List<Long> lineupIds = dsl.select(LINEUP.ID).from(LINEUP).where(LINEUP.USER_ID.eq(id))
+                .forUpdate().fetch(LINEUP.ID);
+        List<Record2<Long, Long>> likes = likeShards.gather(shard -> shard
+                .select(LIKES.USER_ID, LIKES.LINEUP_ID)
+                .from(LIKES)
+                .where(LIKES.USER_ID.eq(id).or(LIKES.LINEUP_ID.in(lineupIds)))
+                .fetch());
+
+        dsl.deleteFrom(USERS).where(USERS.ID.eq(id)).execute();
+        // the database cascades to the lineups and likes, the change feed and the like shards
+        // hear about each of them
+        likes.forEach(like -> events.publishEvent(
+                new DomainEvent.LikeRemoved(like.value1(), like.value2())));
+        lineupIds.forEach(lineupId -> events.publishEvent(
+                new DomainEvent.LineupDeleted(lineupId, id)));
+        events.publishEvent(new DomainEvent.UserDeleted(id));
     }
 
     // TODO: look into if fewer queries can be made to produces the same result
+    @Transactional(readOnly = true)
     public UserSummaryDTO getUserSummary(Long userId) {
         boolean exists = doesUserExist(userId);
 
@@ -88,6 +143,11 @@ public class UserRepository {
                 .limit(5)
                 .fetchInto(LineupIdTitleDTO.class);
 
+        if (likeShards.isSharded()) {
+            return new UserSummaryDTO(userInfo.id(), userInfo.username(), recentlyCreatedLineups,
+                    mostLikedAcrossShards(userId), recentlyLikedAcrossShards(userId));
+        }
+
         List<LineupIdTitleDTO> mostLikedLineup = dsl.select(LINEUP.ID, LINEUP.TITLE)
                 .from(LINEUP)
                 .leftJoin(LIKES)
@@ -109,4 +169,62 @@ public class UserRepository {
         return new UserSummaryDTO(userInfo.id(), userInfo.username(), recentlyCreatedLineups,
                 mostLikedLineup, recentlyLikedLineups);
     }
+
+    // sharded likes cannot be joined with lineups, so each lineup's count comes from its shard
+    // and the ranking happens here
+    private List<LineupIdTitleDTO> mostLikedAcrossShards(Long userId) {
+        Result<Record3<Long, String, OffsetDateTime>> lineups = dsl
+                .select(LINEUP.ID, LINEUP.TITLE, LINEUP.CREATED_AT)
+                .from(LINEUP)
+                .where(LINEUP.USER_ID.eq(userId))
+                .fetch();
+        if (lineups.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> likeCounts = likeShards
+                .gatherForLineups(lineups.getValues(LINEUP.ID), (shard, ids) -> shard
+                        .select(LIKES.LINEUP_ID, count())
+                        .from(LIKES)
+                        .where(LIKES.LINEUP_ID.in(ids))
+                        .groupBy(LIKES.LINEUP_ID)
+                        .fetch())
+                .stream()
+                .collect(Collectors.toMap(Record2::value1, Record2::value2));
+        return lineups.stream()
+                .sorted(Comparator.<Record3<Long, String, OffsetDateTime>>comparingInt(
+                        r -> likeCounts.getOrDefault(r.value1(), 0)).reversed()
+                        .thenComparing(Record3::value3,
+                                Comparator.nullsFirst(Comparator.reverseOrder())))
+                .limit(5)
+                .map(r -> new LineupIdTitleDTO(r.value1(), r.value2()))
+                .toList();
+    }
+
+    // every shard's five most recent likes by the user, merged
+    private List<LineupIdTitleDTO> recentlyLikedAcrossShards(Long userId) {
+        List<Long> lineupIds = likeShards
+                .gather(shard -> shard.select(LIKES.LINEUP_ID, LIKES.CREATED_AT)
+                        .from(LIKES)
+                        .where(LIKES.USER_ID.eq(userId))
+                        .orderBy(LIKES.CREATED_AT.desc())
+                        .limit(5)
+                        .fetch(),
+                        Comparator.comparing(Record2<Long, OffsetDateTime>::value2,
+                                Comparator.nullsFirst(Comparator.reverseOrder())),
+                        5)
+                .stream()
+                .map(Record2::value1)
+                .toList();
+        if (lineupIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> titles = dsl.select(LINEUP.ID, LINEUP.TITLE)
+                .from(LINEUP)
+                .where(LINEUP.ID.in(lineupIds))
+                .fetchMap(LINEUP.ID, LINEUP.TITLE);
+        return lineupIds.stream()
+                .filter(titles::containsKey)
+                .map(id -> new LineupIdTitleDTO(id, titles.get(id)))
+                .toList();
+    }
 }
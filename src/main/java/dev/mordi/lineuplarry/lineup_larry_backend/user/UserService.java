@@ -5,15 +5,28 @@ import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.LocalCache;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.MissingIds;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.SingleFlight;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
 
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
+    private final LocalCache<Long, UserSummaryDTO> summaryCache;
+    private final SingleFlight<Long, UserSummaryDTO> summaryFlight;
+    private final SingleFlight<Long, Optional<User>> userFlight;
+    private final MissingIds missingUsers;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, CacheRegistry cacheRegistry) {
         this.userRepository = userRepository;
+        this.summaryCache = cacheRegistry.createLongKeyed(CacheRegistry.USER_SUMMARY);
+        this.summaryFlight = cacheRegistry.singleFlight(CacheRegistry.USER_SUMMARY);
+        this.userFlight = cacheRegistry.singleFlight("user");
+        this.missingUsers = cacheRegistry.missingIds(CacheRegistry.USER_IDS,
+                userRepository::getMaxUserId);
     }
 
     public List<User> getAll() {
@@ -21,7 +34,14 @@ public class UserService {
     }
 
     public Optional<User> getById(Long id) {
-        return userRepository.getUserById(id);
+        if (missingUsers.isMissing(id)) {
+            return Optional.empty();
+        }
+        Optional<User> user = userFlight.load(id, () -> userRepository.getUserById(id));
+        if (user.isEmpty()) {
+            missingUsers.recordMiss(id);
+        }
+        return user;
     }
 
     public User createUser(User user) {
@@ -41,7 +61,8 @@ public class UserService {
     }
 
     public UserSummaryDTO getUserSummary(Long userId) {
-        return userRepository.getUserSummary(userId);
+        return summaryCache.getOrLoad(userId,
+                key -> summaryFlight.load(key, () -> userRepository.getUserSummary(key)));
     }
 
     // Should
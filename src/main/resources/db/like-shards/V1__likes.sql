@@ -0,0 +1,13 @@
+-- users and lineups live in the main database, so a shard cannot hold foreign keys to them.
+-- LikeShardCleanup deletes the likes of deleted lineups and users instead.
+CREATE TABLE IF NOT EXISTS
+    likes (
+        user_id bigint NOT NULL,
+        lineup_id bigint NOT NULL,
+        created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+        PRIMARY KEY (user_id, lineup_id)
+    );
+
+    -- per-lineup reads, the primary key only helps per-user ones
+    CREATE INDEX likes_lineup_id_idx ON likes (lineup_id);
+    CREATE INDEX likes_user_id_created_at_idx ON likes (user_id, created_at);
@@ -0,0 +1,22 @@
+-- deferred work that any node can pick up, see JobWorker
+CREATE TABLE IF NOT EXISTS
+    jobs (
+        id bigserial not null,
+        type text not null,
+        payload text not null default '',
+        status text not null default 'PENDING' CHECK (status IN ('PENDING', 'RUNNING', 'FAILED')),
+        attempts int not null default 0,
+        max_attempts int not null default 5,
+        run_at TIMESTAMP WITH TIME ZONE not null default NOW(),
+        locked_at TIMESTAMP WITH TIME ZONE,
+        locked_by text,
+        last_error text,
+        created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+        primary key (id)
+    );
+
+    -- completed jobs are deleted, so this partial index only ever covers the backlog
+    CREATE INDEX jobs_dequeue_idx ON jobs (type, run_at) WHERE status = 'PENDING';
+
+    -- used when reclaiming jobs from nodes that died mid-run
+    CREATE INDEX jobs_running_idx ON jobs (locked_at) WHERE status = 'RUNNING';
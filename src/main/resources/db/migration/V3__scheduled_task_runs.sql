@@ -0,0 +1,11 @@
+-- bookkeeping for ClusterScheduler, one row per task name
+CREATE TABLE IF NOT EXISTS
+    scheduled_task_runs (
+        name text not null,
+        scheduled_for TIMESTAMP WITH TIME ZONE not null,
+        started_at TIMESTAMP WITH TIME ZONE not null,
+        finished_at TIMESTAMP WITH TIME ZONE,
+        node text not null,
+        last_error text,
+        primary key (name)
+    );
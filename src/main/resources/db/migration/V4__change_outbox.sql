@@ -0,0 +1,19 @@
+-- every write appends here in its own transaction, served by GET /api/changes
+CREATE TABLE IF NOT EXISTS
+    change_outbox (
+        id bigserial not null,
+        entity text not null,
+        entity_id text not null,
+        operation text not null CHECK (operation IN ('CREATED', 'UPDATED', 'DELETED')),
+        payload jsonb not null,
+        -- ids are handed out before commit, so they alone do not give a gap-free order.
+        -- the feed is ordered by (tx_id, id) and only serves transactions older than the
+        -- oldest one still running
+        tx_id bigint not null default (pg_current_xact_id()::text::bigint),
+        created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+        primary key (id)
+    );
+
+    CREATE INDEX change_outbox_feed_idx ON change_outbox (tx_id, id);
+
+    CREATE INDEX change_outbox_created_at_idx ON change_outbox (created_at);
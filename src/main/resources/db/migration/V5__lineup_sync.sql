@@ -0,0 +1,39 @@
+-- serves GET /api/lineups/sync, which walks a map's lineups in (updated_at, id) order
+CREATE INDEX lineup_map_updated_at_idx ON lineup (map, updated_at, id);
+
+-- a lineup that leaves a map, by being deleted or moved to another map, leaves a tombstone
+-- behind so syncing clients know to drop it. purged by LineupTombstonePurgeTask
+CREATE TABLE IF NOT EXISTS
+    lineup_tombstone (
+        lineup_id bigint not null,
+        map map not null,
+        deleted_at TIMESTAMP WITH TIME ZONE not null DEFAULT NOW(),
+        primary key (map, lineup_id)
+    );
+
+    CREATE INDEX lineup_tombstone_sync_idx ON lineup_tombstone (map, deleted_at, lineup_id);
+
+    CREATE INDEX lineup_tombstone_deleted_at_idx ON lineup_tombstone (deleted_at);
+
+    CREATE OR REPLACE FUNCTION record_lineup_tombstone()
+    RETURNS TRIGGER AS $$
+    BEGIN
+        IF OLD.map IS NOT NULL THEN
+            INSERT INTO lineup_tombstone (lineup_id, map, deleted_at)
+            VALUES (OLD.id, OLD.map, NOW())
+            ON CONFLICT (map, lineup_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+        END IF;
+        RETURN NULL;
+    END;
+    $$ LANGUAGE plpgsql;
+
+    CREATE TRIGGER lineup_tombstone_on_delete
+    AFTER DELETE ON lineup
+    FOR EACH ROW
+    EXECUTE FUNCTION record_lineup_tombstone();
+
+    CREATE TRIGGER lineup_tombstone_on_map_change
+    AFTER UPDATE OF map ON lineup
+    FOR EACH ROW
+    WHEN (OLD.map IS DISTINCT FROM NEW.map)
+    EXECUTE FUNCTION record_lineup_tombstone();
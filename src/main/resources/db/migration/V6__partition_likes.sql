@@ -0,0 +1,37 @@
+-- likes hashed over 16 partitions by lineup_id. The primary key contains the partition key, so
+-- (user_id, lineup_id) stays unique across partitions, and per-lineup reads touch one partition
+-- with a small index. created_at months would need created_at in the primary key instead.
+-- autovacuum never analyzes the partitioned parent itself, see LikePartitionAnalyzeTask
+ALTER TABLE likes RENAME TO likes_unpartitioned;
+ALTER TABLE likes_unpartitioned RENAME CONSTRAINT likes_pkey TO likes_unpartitioned_pkey;
+
+CREATE TABLE
+    likes (
+        user_id bigint REFERENCES users (id) ON DELETE CASCADE,
+        lineup_id bigint REFERENCES lineup (id) ON DELETE CASCADE,
+        created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+        PRIMARY KEY (user_id, lineup_id)
+    ) PARTITION BY HASH (lineup_id);
+
+    DO $$
+    BEGIN
+        FOR i IN 0..15 LOOP
+            EXECUTE format(
+                'CREATE TABLE likes_p%s PARTITION OF likes FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+                i, i);
+        END LOOP;
+    END;
+    $$;
+
+    -- per-lineup reads prune to one partition, per-user ones probe this index in each of them
+    CREATE INDEX likes_lineup_id_idx ON likes (lineup_id);
+    CREATE INDEX likes_user_id_created_at_idx ON likes (user_id, created_at);
+
+-- one pass is fine for small installs. Large ones should create the partitioned table next to
+-- the old one and copy in lineup_id ranges before the swap, instead of running this copy.
+INSERT INTO likes (user_id, lineup_id, created_at)
+SELECT user_id, lineup_id, created_at FROM likes_unpartitioned ORDER BY created_at;
+
+DROP TABLE likes_unpartitioned;
+
+ANALYZE likes;
@@ -0,0 +1,8 @@
+-- serves the createdAfter/createdBefore filters on GET /api/lineups and /api/lineups/user/{id}.
+-- lineups are mostly appended, so created_at follows the physical row order and a BRIN index
+-- keeps one min/max pair per block range instead of an entry per row, a tiny fraction of a
+-- B-tree's size. Rows moved by non-HOT updates widen their new range, which costs selectivity
+-- but never correctness, see LineupCreatedAtIndexBenchmarkTest. autosummarize covers new block
+-- ranges without waiting for a vacuum
+CREATE INDEX lineup_created_at_brin_idx ON lineup USING brin (created_at)
+    WITH (pages_per_range = 32, autosummarize = on);
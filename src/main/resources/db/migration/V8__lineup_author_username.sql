@@ -0,0 +1,26 @@
+-- the author's username copied onto each lineup, so listings can skip the users join when
+-- lineup-larry.lineup-author.denormalized is on. renames are copied over in chunks by
+-- LineupAuthorRenames and LineupAuthorCheckTask repairs whatever drifted
+ALTER TABLE lineup ADD COLUMN author_username text;
+
+-- the backfill is not an edit of the lineups, later renames copied over by LineupAuthorRenames
+-- are and bump updated_at like any other update
+ALTER TABLE lineup DISABLE TRIGGER set_updated_at;
+UPDATE lineup SET author_username = users.username FROM users WHERE users.id = lineup.user_id;
+ALTER TABLE lineup ENABLE TRIGGER set_updated_at;
+
+-- finds a user's lineups for /api/lineups/user/{id} and for the rename chunks
+CREATE INDEX lineup_user_id_idx ON lineup (user_id, id);
+
+CREATE OR REPLACE FUNCTION set_lineup_author_username()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.author_username = (SELECT username FROM users WHERE id = NEW.user_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER lineup_author_username
+BEFORE INSERT OR UPDATE OF user_id ON lineup
+FOR EACH ROW
+EXECUTE FUNCTION set_lineup_author_username();
@@ -0,0 +1,28 @@
+-- /api/lineups/sync holds back rows younger than lineup-larry.sync.safety-lag (5s by default),
+-- because updated_at and deleted_at are the writing transaction's start, not its commit. That
+-- only works while every transaction that writes lineups commits within the lag, so the first
+-- statement touching lineup arms transaction_timeout for whatever is left of 4s since the
+-- transaction began. Postgres ends a transaction that outlives it, session and all.
+-- Keep safety-lag above 4s. Bulk maintenance disables the trigger, as V8 does for its backfill.
+CREATE OR REPLACE FUNCTION bound_lineup_write_transaction()
+RETURNS TRIGGER AS $$
+DECLARE
+    remaining interval := interval '4 seconds' - (clock_timestamp() - now());
+BEGIN
+    IF remaining <= interval '0' THEN
+        RAISE EXCEPTION 'transaction writing lineups ran longer than 4s'
+            USING ERRCODE = 'query_canceled',
+                  HINT = 'lineup-larry.sync.safety-lag relies on these committing sooner';
+    END IF;
+    -- the timer runs from now, not from the start of the transaction, and once armed it
+    -- ignores later changes, so the first statement decides
+    PERFORM set_config('transaction_timeout',
+            ceil(extract(epoch FROM remaining) * 1000)::bigint || 'ms', true);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bound_lineup_write_transaction
+BEFORE INSERT OR UPDATE OR DELETE ON lineup
+FOR EACH STATEMENT
+EXECUTE FUNCTION bound_lineup_write_transaction();
@@ -0,0 +1,119 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.event.DomainEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Listens on the channel from a connection of its own, the way another replica would
+@JooqTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+public class CacheInvalidationPublisherTest {
+
+    private final CacheProperties enabled = new CacheProperties(true, Duration.ofMinutes(1),
+            Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1), true,
+            Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(30), 1000);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private CacheInvalidationPublisher publisher;
+    private Connection listener;
+
+    @BeforeEach
+    void listen() throws SQLException {
+        publisher = new CacheInvalidationPublisher(dsl,
+                new CacheRegistry(enabled, new SimpleMeterRegistry()), enabled);
+        listener = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+        try (Statement statement = listener.createStatement()) {
+            statement.execute("LISTEN cache_invalidation");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        listener.close();
+    }
+
+    @Test
+    void transactionSendsOneMessageWhenItCommits() throws SQLException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            publisher.notifyReplicas(new DomainEvent.LineupUpdated(1L, 2L, Map.ICEBOX));
+            publisher.notifyReplicas(new DomainEvent.LineupUpdated(3L, 2L, Map.ICEBOX));
+            try {
+                assertThat(received(200)).isEmpty();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        List<String> messages = received(5_000);
+
+        assertThat(messages).singleElement().satisfies(message -> {
+            assertThat(message).startsWith(CacheInvalidationPublisher.NODE_ID + "|");
+            assertThat(message).contains("lineup:1,3");
+        });
+    }
+
+    @Test
+    void rolledBackTransactionSendsNothing() throws SQLException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            publisher.notifyReplicas(new DomainEvent.LineupDeleted(1L, 2L));
+            status.setRollbackOnly();
+        });
+
+        assertThat(received(500)).isEmpty();
+    }
+
+    @Test
+    void eventOutsideATransactionIsSentRightAway() throws SQLException {
+        publisher.notifyReplicas(new DomainEvent.LikeAdded(2L, 1L));
+
+        assertThat(received(5_000)).singleElement().asString().endsWith("|user-summary:2");
+    }
+
+    private List<String> received(int timeoutMillis) throws SQLException {
+        PGNotification[] notifications = listener.unwrap(PGConnection.class)
+                .getNotifications(timeoutMillis);
+        if (notifications == null) {
+            return List.of();
+        }
+        return Arrays.stream(notifications).map(PGNotification::getParameter).toList();
+    }
+}
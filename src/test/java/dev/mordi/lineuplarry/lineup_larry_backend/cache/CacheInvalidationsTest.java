@@ -0,0 +1,72 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheInvalidationsTest {
+
+    private final CacheProperties enabled = new CacheProperties(true, Duration.ofMinutes(1),
+            Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1), true,
+            Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(30), 1000);
+
+    @Test
+    void encodesKeysPerCache() {
+        CacheInvalidations invalidations = new CacheInvalidations();
+        invalidations.add(CacheRegistry.LINEUP, 1L);
+        invalidations.add(CacheRegistry.LINEUP, 2L);
+        invalidations.addAll(CacheRegistry.USER_SUMMARY);
+
+        assertThat(invalidations.encode(CacheInvalidations.MAX_PAYLOAD_LENGTH))
+                .containsExactly("lineup:1,2;user-summary:*");
+    }
+
+    @Test
+    void splitsPayloadsThatAreTooLong() {
+        CacheInvalidations invalidations = new CacheInvalidations();
+        for (long id = 100; id < 110; id++) {
+            invalidations.add(CacheRegistry.LINEUP, id);
+        }
+
+        List<String> payloads = invalidations.encode(20);
+
+        assertThat(payloads).allSatisfy(payload -> assertThat(payload.length()).isLessThan(21));
+        assertThat(payloads).first().isEqualTo("lineup:100,101,102");
+        assertThat(payloads).hasSize(4);
+    }
+
+    @Test
+    void decodedMessagesInvalidateLocalCaches() {
+        CacheRegistry registry = new CacheRegistry(enabled, new SimpleMeterRegistry());
+        LocalCache<Long, String> lineups = registry.createLongKeyed(CacheRegistry.LINEUP);
+        LocalCache<Long, String> summaries = registry.createLongKeyed(CacheRegistry.USER_SUMMARY);
+        lineups.getOrLoad(1L, id -> "one");
+        lineups.getOrLoad(2L, id -> "two");
+        summaries.getOrLoad(1L, id -> "summary");
+
+        CacheInvalidations.decode("lineup:1;user-summary:*").applyTo(registry);
+
+        assertThat(lineups.getOrLoad(1L, id -> "reloaded")).isEqualTo("reloaded");
+        assertThat(lineups.getOrLoad(2L, id -> "reloaded")).isEqualTo("two");
+        assertThat(summaries.size()).isZero();
+    }
+
+    @Test
+    void loadsRacingWithAnInvalidationAreNotCached() {
+        CacheRegistry registry = new CacheRegistry(enabled, new SimpleMeterRegistry());
+        LocalCache<Long, String> lineups = registry.createLongKeyed(CacheRegistry.LINEUP);
+
+        lineups.getOrLoad(1L, id -> {
+            // a write commits while we are still reading the old row
+            lineups.invalidate(1L);
+            return "old";
+        });
+
+        assertThat(lineups.getOrLoad(1L, id -> "new")).isEqualTo("new");
+    }
+}
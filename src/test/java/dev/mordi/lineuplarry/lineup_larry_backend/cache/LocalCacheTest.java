@@ -0,0 +1,151 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LocalCacheTest {
+
+    // a zero ttl makes every entry stale as soon as it is loaded
+    private static LocalCache<Long, String> cache(Duration staleWhileRevalidate,
+            Duration staleIfError) {
+        CacheProperties properties = new CacheProperties(true, Duration.ZERO,
+                staleWhileRevalidate, staleIfError, 100, "cache_invalidation",
+                Duration.ofSeconds(1), true, Duration.ofSeconds(2), Duration.ofSeconds(1),
+                Duration.ofSeconds(30), 1000);
+        return new CacheRegistry(properties, new SimpleMeterRegistry())
+                .createLongKeyed(CacheRegistry.LINEUP);
+    }
+
+    @Test
+    void servesStaleEntryWhileRefreshingInBackground() throws InterruptedException {
+        LocalCache<Long, String> lineups = cache(Duration.ofMinutes(1), Duration.ZERO);
+        lineups.getOrLoad(1L, id -> "old");
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        String served = lineups.getOrLoad(1L, id -> {
+            refreshed.countDown();
+            return "new";
+        });
+
+        assertThat(served).isEqualTo("old");
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue(lineups, "new");
+    }
+
+    @Test
+    void servesStaleEntryWhenDatabaseIsUnavailable() {
+        LocalCache<Long, String> lineups = cache(Duration.ZERO, Duration.ofMinutes(1));
+        lineups.getOrLoad(1L, id -> "old");
+
+        String served = lineups.getOrLoad(1L, id -> {
+            throw new DataAccessResourceFailureException("failing over");
+        });
+
+        assertThat(served).isEqualTo("old");
+    }
+
+    @Test
+    void domainErrorsAreNotMaskedByStaleEntries() {
+        LocalCache<Long, String> lineups = cache(Duration.ZERO, Duration.ofMinutes(1));
+        lineups.getOrLoad(1L, id -> "old");
+
+        assertThatThrownBy(() -> lineups.getOrLoad(1L, id -> {
+            throw new InvalidLineupException.NoSuchLineupException(id);
+        })).isInstanceOf(InvalidLineupException.NoSuchLineupException.class);
+    }
+
+    @Test
+    void invalidatedEntriesAreNotServedStale() {
+        LocalCache<Long, String> lineups = cache(Duration.ZERO, Duration.ofMinutes(1));
+        lineups.getOrLoad(1L, id -> "old");
+        lineups.invalidate(1L);
+
+        assertThatThrownBy(() -> lineups.getOrLoad(1L, id -> {
+            throw new DataAccessResourceFailureException("failing over");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    @Test
+    void rowsGoneFromTheDatabaseDropTheStaleEntry() {
+        LocalCache<Long, String> lineups = cache(Duration.ZERO, Duration.ofMinutes(1));
+        lineups.getOrLoad(1L, id -> "old");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(lineups.getOrLoad(1L, id -> {
+            loads.incrementAndGet();
+            return null;
+        })).isNull();
+        assertThat(lineups.size()).isZero();
+        assertThat(loads).hasValue(1);
+    }
+
+    // a load that starts after the invalidation must not join one that started before it
+    @Test
+    void loadAfterInvalidationDoesNotCacheTheEarlierFlightsResult() throws Exception {
+        CacheProperties properties = new CacheProperties(true, Duration.ofMinutes(1),
+                Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1),
+                true, Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(30), 1000);
+        CacheRegistry registry = new CacheRegistry(properties, new SimpleMeterRegistry());
+        LocalCache<Long, String> lineups = registry.createLongKeyed(CacheRegistry.LINEUP);
+        SingleFlight<Long, String> flight = registry.singleFlight(CacheRegistry.LINEUP);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> before = executor.submit(() -> lineups.getOrLoad(1L,
+                    id -> flight.load(id, () -> {
+                        loading.countDown();
+                        await(release);
+                        return "old";
+                    })));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            registry.invalidate(CacheRegistry.LINEUP, List.of("1"));
+            Future<String> after = executor.submit(() -> lineups.getOrLoad(1L,
+                    id -> flight.load(id, () -> "new")));
+
+            assertThat(after.get(5, TimeUnit.SECONDS)).isEqualTo("new");
+            release.countDown();
+            assertThat(before.get(5, TimeUnit.SECONDS)).isEqualTo("old");
+        }
+
+        assertThat(lineups.getOrLoad(1L, id -> "reloaded")).isEqualTo("new");
+    }
+
+    private static void awaitValue(LocalCache<Long, String> cache, String expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        // the refresh lands shortly after the loader returned
+        while (System.nanoTime() < deadline) {
+            if (expected.equals(cache.getOrLoad(1L, id -> expected))) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("cache never served " + expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MissingIdsTest {
+
+    private final AtomicLong maxId = new AtomicLong(100);
+    private final AtomicInteger maxIdQueries = new AtomicInteger();
+    private boolean databaseDown;
+
+    private MissingIds missingIds(boolean enabled, Duration refreshInterval) {
+        return missingIds(enabled, refreshInterval, () -> {
+            if (databaseDown) {
+                throw new IllegalStateException("database down");
+            }
+            return maxId.get();
+        });
+    }
+
+    private MissingIds missingIds(boolean enabled, Duration refreshInterval,
+            LongSupplier maxIdLoader) {
+        CacheProperties properties = new CacheProperties(enabled, Duration.ofMinutes(1),
+                Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1),
+                true, Duration.ofSeconds(2), refreshInterval, Duration.ZERO, 1000);
+        return new CacheRegistry(properties, new SimpleMeterRegistry())
+                .missingIds(CacheRegistry.LINEUP_IDS, () -> {
+                    maxIdQueries.incrementAndGet();
+                    return maxIdLoader.getAsLong();
+                });
+    }
+
+    @Test
+    void idsAboveHighWaterMarkAreMissingWithoutRequerying() {
+        MissingIds ids = missingIds(true, Duration.ofHours(1));
+
+        assertThat(ids.isMissing(101L)).isTrue();
+        assertThat(ids.isMissing(5_000L)).isTrue();
+        assertThat(ids.isMissing(100L)).isFalse();
+        assertThat(maxIdQueries).hasValue(1);
+    }
+
+    @Test
+    void idsAboveHighWaterMarkAreRecheckedOnceTheRefreshIsDue() {
+        MissingIds ids = missingIds(true, Duration.ZERO);
+
+        assertThat(ids.isMissing(101L)).isTrue();
+
+        // inserted elsewhere, the invalidation has not arrived
+        maxId.set(101);
+
+        assertThat(ids.isMissing(101L)).isFalse();
+        assertThat(maxIdQueries).hasValue(2);
+    }
+
+    @Test
+    void concurrentLookupsShareOneRefresh() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MissingIds ids = missingIds(true, Duration.ofHours(1), () -> {
+            loading.countDown();
+            await(release);
+            return 100L;
+        });
+        Thread first = Thread.ofVirtual().start(() -> ids.isMissing(101L));
+        await(loading);
+
+        List<Thread> others = IntStream.range(0, 10)
+                .mapToObj(i -> Thread.ofVirtual().start(() -> ids.isMissing(200L + i)))
+                .toList();
+        release.countDown();
+        first.join();
+        for (Thread other : others) {
+            other.join();
+        }
+
+        assertThat(maxIdQueries).hasValue(1);
+        assertThat(ids.isMissing(300L)).isTrue();
+    }
+
+    @Test
+    void idsAboveHighWaterMarkAreNotMissingWhileMaxIdFails() {
+        MissingIds ids = missingIds(true, Duration.ofHours(1));
+        databaseDown = true;
+
+        assertThat(ids.isMissing(101L)).isFalse();
+    }
+
+    @Test
+    void createdIdsRaiseHighWaterMark() {
+        MissingIds ids = missingIds(true, Duration.ofHours(1));
+        ids.isMissing(1L);
+
+        ids.recordCreated(101L);
+
+        assertThat(ids.isMissing(101L)).isFalse();
+        assertThat(ids.isMissing(102L)).isTrue();
+    }
+
+    @Test
+    void deletedIdsAreMissingRightAway() {
+        MissingIds ids = missingIds(true, Duration.ofHours(1));
+
+        ids.recordDeleted(42L);
+
+        assertThat(ids.isMissing(42L)).isTrue();
+        assertThat(ids.isMissing(43L)).isFalse();
+    }
+
+    @Test
+    void missesAreOnlyRememberedOnceSettled() {
+        MissingIds ids = missingIds(true, Duration.ZERO);
+
+        // the first refresh only starts the settle delay
+        ids.recordMiss(42L);
+        assertThat(ids.isMissing(42L)).isFalse();
+
+        ids.recordMiss(42L);
+        assertThat(ids.isMissing(42L)).isTrue();
+    }
+
+    @Test
+    void invalidationClearsEverything() {
+        MissingIds ids = missingIds(true, Duration.ofHours(1));
+        ids.recordDeleted(42L);
+
+        ids.clear();
+        maxId.set(200);
+
+        assertThat(ids.isMissing(42L)).isFalse();
+        assertThat(ids.isMissing(150L)).isFalse();
+    }
+
+    @Test
+    void answersNothingWhileCachesAreDisabled() {
+        MissingIds ids = missingIds(false, Duration.ofHours(1));
+        ids.recordDeleted(42L);
+
+        assertThat(ids.isMissing(42L)).isFalse();
+        assertThat(ids.isMissing(5_000L)).isFalse();
+        assertThat(maxIdQueries).hasValue(0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RequestDeadline;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.DeadlineExceededException;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 20;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SingleFlight<Long, String> flight(Duration maxWait) {
+        CacheProperties properties = new CacheProperties(false, Duration.ofMinutes(1),
+                Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1),
+                true, maxWait, Duration.ofSeconds(1), Duration.ofSeconds(30), 1000);
+        return new CacheRegistry(properties, meterRegistry).singleFlight("test");
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = flight(Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> flight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "lineup";
+                })));
+            }
+            waitForFollowers(CALLERS - 1);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("lineup");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void followersGetTheLeadersException() throws Exception {
+        SingleFlight<Long, String> flight = flight(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.load(1L, () -> {
+                await(release);
+                throw new IllegalArgumentException("boom");
+            }));
+            waitForInFlight(flight);
+            Future<String> follower = executor.submit(() -> flight.load(1L, () -> "unused"));
+            waitForFollowers(1);
+            release.countDown();
+
+            assertThatThrownBy(leader::get).hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(follower::get).hasCauseInstanceOf(IllegalArgumentException.class)
+                    .hasRootCauseMessage("boom");
+        }
+        // a failed load is not remembered
+        assertThat(flight.load(1L, () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void followersGiveUpAfterMaxWait() throws Exception {
+        SingleFlight<Long, String> flight = flight(Duration.ofMillis(20));
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> flight.load(1L, () -> {
+                await(release);
+                return "slow";
+            }));
+            waitForInFlight(flight);
+
+            assertThatThrownBy(() -> flight.load(1L, () -> "unused"))
+                    .isInstanceOf(OverloadException.LoadTimeoutException.class);
+            release.countDown();
+        }
+        assertThat(meterRegistry.get("cache.coalesce.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void followersDoNotShareTheLeadersDeadline() throws Exception {
+        SingleFlight<Long, String> flight = flight(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> ScopedValue
+                    .where(RequestDeadline.CURRENT, new RequestDeadline(Duration.ofMillis(50)))
+                    .call(() -> flight.load(1L, () -> {
+                        await(release);
+                        throw new DeadlineExceededException();
+                    })));
+            waitForInFlight(flight);
+            Future<String> follower = executor.submit(() -> flight.load(1L, () -> "lineup"));
+            waitForFollowers(1);
+            release.countDown();
+
+            assertThatThrownBy(leader::get).hasCauseInstanceOf(DeadlineExceededException.class);
+            assertThat(follower.get()).isEqualTo("lineup");
+        }
+        assertThat(flight.inFlight()).isZero();
+    }
+
+    @Test
+    void differentKeysDoNotWaitOnEachOther() {
+        SingleFlight<Long, String> flight = flight(Duration.ofSeconds(5));
+
+        assertThat(flight.load(1L, () -> "one")).isEqualTo("one");
+        assertThat(flight.load(2L, () -> "two")).isEqualTo("two");
+        assertThat(meterRegistry.get("cache.coalesce").tag("role", "leader").counter().count())
+                .isEqualTo(2);
+    }
+
+    private void waitForFollowers(int followers) throws InterruptedException {
+        while (meterRegistry.get("cache.coalesce").tag("role", "follower").counter()
+                .count() < followers) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void waitForInFlight(SingleFlight<?, ?> flight) throws InterruptedException {
+        while (flight.inFlight() == 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
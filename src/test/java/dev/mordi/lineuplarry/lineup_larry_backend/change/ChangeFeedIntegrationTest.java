@@ -0,0 +1,195 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.change;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.Lineup;
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupport;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.CHANGE_OUTBOX;
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LIKES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import tools.jackson.databind.JsonNode;
+
+// the outbox is not truncated by test-data.sql, so every test starts reading at the end of it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql("/test-data.sql")
+@Testcontainers
+@AutoConfigureRestTestClient
+public class ChangeFeedIntegrationTest extends RestIntegrationTestSupport {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    ChangeOutboxPurgeTask purgeTask;
+
+    record Change(String entity, String entityId, String operation) {
+    }
+
+    @Test
+    void createdLineupShowsUpInTheFeed() {
+        String cursor = endOfFeed();
+
+        Lineup created = createLineup("new lineup");
+
+        // changes only show up once no older transaction is still in flight
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(changesSince(cursor))
+                .containsExactly(new Change("lineup", created.id().toString(), "CREATED")));
+    }
+
+    @Test
+    void pagesThroughTheFeedWithTheCursor() {
+        String cursor = endOfFeed();
+        List<String> created = List.of(createLineup("first").id().toString(),
+                createLineup("second").id().toString(), createLineup("third").id().toString());
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(changesSince(cursor)).hasSize(3));
+
+        List<String> paged = new ArrayList<>();
+        String since = cursor;
+        for (int i = 0; i < 3; i++) {
+            JsonNode page = getPage(since, 1);
+            assertThat(page.get("changes")).hasSize(1);
+            paged.add(page.get("changes").get(0).get("entityId").asString());
+            since = page.get("nextCursor").asString();
+        }
+
+        assertThat(paged).isEqualTo(created);
+        assertThat(getPage(since, 1).get("changes")).isEmpty();
+        assertThat(getPage(since, 1).get("nextCursor").asString()).isEqualTo(since);
+    }
+
+    @Test
+    void deletingAUserShowsWhatTheDeleteCascadedTo() {
+        // user 2 owns lineups 2, 3 and 9
+        List<Change> likes = dsl.select(LIKES.USER_ID, LIKES.LINEUP_ID)
+                .from(LIKES)
+                .where(LIKES.USER_ID.eq(2L).or(LIKES.LINEUP_ID.in(2L, 3L, 9L)))
+                .fetch(like -> new Change("like", like.value1() + ":" + like.value2(),
+                        "DELETED"));
+        assertThat(likes).isNotEmpty();
+        String cursor = endOfFeed();
+
+        client.delete()
+                .uri("/api/users/2")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            List<Change> changes = changesSince(cursor);
+            assertThat(changes).filteredOn(change -> change.entity().equals("like"))
+                    .containsExactlyInAnyOrderElementsOf(likes);
+            assertThat(changes).filteredOn(change -> change.entity().equals("lineup"))
+                    .containsExactlyInAnyOrder(new Change("lineup", "2", "DELETED"),
+                            new Change("lineup", "3", "DELETED"),
+                            new Change("lineup", "9", "DELETED"));
+            assertThat(changes).last().isEqualTo(new Change("user", "2", "DELETED"));
+        });
+    }
+
+    @Test
+    void deletingALineupShowsItsLikes() {
+        List<Change> likes = dsl.select(LIKES.USER_ID)
+                .from(LIKES)
+                .where(LIKES.LINEUP_ID.eq(22L))
+                .fetch(like -> new Change("like", like.value1() + ":22", "DELETED"));
+        assertThat(likes).isNotEmpty();
+        String cursor = endOfFeed();
+
+        client.delete()
+                .uri("/api/lineups/22")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        List<Change> expected = new ArrayList<>(likes);
+        expected.add(new Change("lineup", "22", "DELETED"));
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(
+                () -> assertThat(changesSince(cursor)).containsExactlyInAnyOrderElementsOf(expected)
+                        .last().isEqualTo(new Change("lineup", "22", "DELETED")));
+    }
+
+    @Test
+    void purgeRemovesChangesOlderThanTheRetention() {
+        createLineup("old lineup");
+        dsl.update(CHANGE_OUTBOX)
+                .set(CHANGE_OUTBOX.CREATED_AT, OffsetDateTime.now().minusDays(8))
+                .execute();
+        Lineup recent = createLineup("recent lineup");
+
+        purgeTask.run();
+
+        assertThat(dsl.select(CHANGE_OUTBOX.ENTITY_ID).from(CHANGE_OUTBOX)
+                .fetch(CHANGE_OUTBOX.ENTITY_ID))
+                .containsExactly(recent.id().toString());
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() {
+        assertThat(getBody("/api/changes?since=nope", HttpStatus.BAD_REQUEST))
+                .contains("CHANGE_INVALID_CURSOR");
+    }
+
+    private Lineup createLineup(String title) {
+        return client.post()
+                .uri("/api/lineups")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("""
+                        {"title":"%s","body":"new body","agent":"SOVA","map":"ICEBOX","userId":1}\
+                        """.formatted(title))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Lineup.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private String endOfFeed() {
+        String cursor = "";
+        while (true) {
+            JsonNode page = getPage(cursor, 1000);
+            if (page.get("changes").isEmpty()) {
+                return cursor;
+            }
+            cursor = page.get("nextCursor").asString();
+        }
+    }
+
+    private List<Change> changesSince(String cursor) {
+        List<Change> changes = new ArrayList<>();
+        for (JsonNode change : getPage(cursor, 1000).get("changes")) {
+            changes.add(new Change(change.get("entity").asString(),
+                    change.get("entityId").asString(), change.get("operation").asString()));
+        }
+        return changes;
+    }
+
+    private JsonNode getPage(String since, int limit) {
+        return getOkBody("/api/changes?since=" + since + "&limit=" + limit,
+                new ParameterizedTypeReference<JsonNode>() {
+                });
+    }
+}
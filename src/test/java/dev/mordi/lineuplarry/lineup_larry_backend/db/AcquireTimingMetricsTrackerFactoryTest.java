@@ -0,0 +1,55 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AcquireTimingMetricsTrackerFactoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IMetricsTracker tracker = new AcquireTimingMetricsTrackerFactory(
+            new MicrometerMetricsTrackerFactory(meterRegistry)).create("primary", new PoolStats(0) {
+                @Override
+                protected void update() {
+                }
+            });
+
+    @BeforeEach
+    void setUp() {
+        AcquireTimingMetricsTrackerFactory.takeAcquireNanos();
+    }
+
+    @Test
+    void waitsAddUpUntilTheNextStatementTakesThem() {
+        tracker.recordConnectionAcquiredNanos(1_000);
+        tracker.recordConnectionAcquiredNanos(2_000);
+
+        assertThat(AcquireTimingMetricsTrackerFactory.takeAcquireNanos()).isEqualTo(3_000);
+        assertThat(AcquireTimingMetricsTrackerFactory.takeAcquireNanos()).isEqualTo(-1);
+    }
+
+    @Test
+    void waitsStayOnTheThreadThatAcquired() {
+        CompletableFuture.runAsync(() -> tracker.recordConnectionAcquiredNanos(1_000)).join();
+
+        assertThat(AcquireTimingMetricsTrackerFactory.takeAcquireNanos()).isEqualTo(-1);
+    }
+
+    @Test
+    void poolMetricsAreStillRecorded() {
+        tracker.recordConnectionAcquiredNanos(1_000);
+
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "primary")
+                .timer().totalTime(TimeUnit.NANOSECONDS)).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,122 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import jakarta.servlet.FilterChain;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QueryBudgetFilterTest {
+
+    private static final String ROUTE = "GET /api/lineups/{id}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryShapes shapes = new QueryShapes(new SimpleMeterRegistry(),
+            new QueryShapeProperties(true, 100, 20, List.of(0.5, 0.99)));
+
+    static class Handlers {
+
+        @QueryBudget(10)
+        public void generous() {
+        }
+    }
+
+    @Test
+    void requestOverTheBudgetIsCounted() throws Exception {
+        run(filter(false), request(null), "select a from t", "select b from t",
+                "select c from t", "select d from t", "select e from t");
+
+        assertThat(meterRegistry.get("db.request.budget.exceeded").tag("route", ROUTE)
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.request.queries").tag("route", ROUTE)
+                .summary().max()).isEqualTo(5);
+    }
+
+    @Test
+    void requestWithinTheBudgetIsNotCounted() throws Exception {
+        run(filter(false), request(null), "select a from t", "select b from t",
+                "select c from t", "select d from t");
+
+        assertThat(meterRegistry.find("db.request.budget.exceeded").counter()).isNull();
+        assertThat(meterRegistry.find("db.request.repeated.shape").counter()).isNull();
+    }
+
+    @Test
+    void handlerCanRaiseItsBudget() throws Exception {
+        HandlerMethod handler = new HandlerMethod(new Handlers(),
+                Handlers.class.getMethod("generous"));
+
+        run(filter(false), request(handler), "select a from t", "select b from t",
+                "select c from t", "select d from t", "select e from t");
+
+        assertThat(meterRegistry.find("db.request.budget.exceeded").counter()).isNull();
+    }
+
+    @Test
+    void shapeRepeatedPastTheThresholdIsReported() throws Exception {
+        run(filter(false), request(null), likesPerLineup(5));
+
+        QueryShape shape = shapes.shapeOf(likesPerLineup(1)[0]);
+        assertThat(meterRegistry.get("db.request.repeated.shape").tag("route", ROUTE)
+                .tag("shape", shape.fingerprint()).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shapeBelowTheThresholdIsNotReported() throws Exception {
+        run(filter(false), request(null), likesPerLineup(4));
+
+        assertThat(meterRegistry.find("db.request.repeated.shape").counter()).isNull();
+    }
+
+    @Test
+    void countHeaderHasTheQueriesOfTheRequest() throws Exception {
+        MockHttpServletResponse response = run(filter(true), request(null), "select a from t",
+                "select b from t");
+
+        assertThat(response.getHeader(QueryBudgetFilter.QUERY_COUNT_HEADER)).isEqualTo("2");
+    }
+
+    // same shape, different literals, as a query per item would produce
+    private static String[] likesPerLineup(int lineups) {
+        return IntStream.rangeClosed(1, lineups)
+                .mapToObj(id -> "select * from likes where lineup_id = " + id)
+                .toArray(String[]::new);
+    }
+
+    private QueryBudgetFilter filter(boolean exposeCountHeader) {
+        return new QueryBudgetFilter(new QueryBudgetProperties(true, 4, 5, exposeCountHeader),
+                meterRegistry);
+    }
+
+    private static MockHttpServletRequest request(HandlerMethod handler) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lineups/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/lineups/{id}");
+        if (handler != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+        }
+        return request;
+    }
+
+    // the chain stands in for the handler, running each statement the way QueryShapeListener
+    // would count it
+    private MockHttpServletResponse run(QueryBudgetFilter filter, MockHttpServletRequest request,
+            String... statements) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            for (String sql : statements) {
+                RequestQueryStats.CURRENT.get().record(shapes.shapeOf(sql), 1_000, 0);
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QueryShapesTest {
+
+    @Test
+    void replacesLiteralsAndWhitespace() {
+        assertThat(QueryShapes.normalize("select *  from \"lineup\"\n where title = 'it''s' "
+                + "and id > 42 and \"likes_p3\".x = 1.5"))
+                .isEqualTo("select * from \"lineup\" where title = ? and id > ? "
+                        + "and \"likes_p3\".x = ?");
+    }
+
+    @Test
+    void collapsesInListsAndMultiRowValues() {
+        String three = QueryShapes.normalize("select id from lineup where id in (?, ?, ?)");
+        String one = QueryShapes.normalize("select id from lineup where id in (?)");
+        String rows = QueryShapes.normalize("insert into jobs (type, payload) values (?, ?), "
+                + "(?, ?), (?, ?)");
+
+        assertThat(three).isEqualTo(one).isEqualTo("select id from lineup where id in (?, ...)");
+        assertThat(rows).isEqualTo("insert into jobs (type, payload) values (?, ...), ...");
+    }
+
+    @Test
+    void sameShapeForDifferentParameters() {
+        QueryShapes shapes = shapes(10);
+
+        QueryShape first = shapes.shapeOf("select * from users where id in (?, ?)");
+        QueryShape second = shapes.shapeOf("select * from users where id in (?, ?, ?, ?)");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.fingerprint()).hasSize(16);
+    }
+
+    @Test
+    void overflowingShapesShareOneBucket() {
+        QueryShapes shapes = shapes(2);
+
+        shapes.shapeOf("select a from t");
+        shapes.shapeOf("select b from t");
+        QueryShape third = shapes.shapeOf("select c from t");
+        QueryShape fourth = shapes.shapeOf("select d from t");
+
+        assertThat(third.fingerprint()).isEqualTo(QueryShapes.OTHER);
+        assertThat(fourth).isSameAs(third);
+        assertThat(shapes.all()).hasSize(3);
+    }
+
+    private static QueryShapes shapes(int maxShapes) {
+        return new QueryShapes(new SimpleMeterRegistry(),
+                new QueryShapeProperties(true, maxShapes, 20, List.of(0.5, 0.99)));
+    }
+}
@@ -0,0 +1,42 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class ReadYourWritesTest {
+
+    @Test
+    void parsesBothHalves() {
+        assertThat(ReadYourWrites.parse("16/B374D848")).isEqualTo(0x16_B374D848L);
+        assertThat(ReadYourWrites.parse("0/0")).isZero();
+    }
+
+    @Test
+    void laterPositionsCompareGreater() {
+        assertThat(ReadYourWrites.parse("1/0")).isGreaterThan(ReadYourWrites.parse("0/FFFFFFFF"));
+    }
+
+    @Test
+    void rejectsMalformedCookies() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ReadYourWrites.parse("16B374D848"));
+        assertThatIllegalArgumentException().isThrownBy(() -> ReadYourWrites.parse("16/"));
+        assertThatIllegalArgumentException().isThrownBy(() -> ReadYourWrites.parse("-1/0"));
+        assertThatIllegalArgumentException().isThrownBy(() -> ReadYourWrites.parse("1/1FFFFFFFF"));
+        assertThatIllegalArgumentException().isThrownBy(() -> ReadYourWrites.parse("x/1"));
+    }
+
+    @Test
+    void unboundRequestsNeedNothing() {
+        assertThat(ReadYourWrites.requiredLsn()).isZero();
+        assertThat(ReadYourWrites.awaitsOwnWrite()).isFalse();
+        assertThat(ReadYourWrites.primaryRequired()).isFalse();
+    }
+
+    @Test
+    void cacheLoadsAreBoundToThePrimary() {
+        assertThat(ReadYourWrites.onPrimary(ReadYourWrites::primaryRequired)).isTrue();
+        assertThat(ReadYourWrites.primaryRequired()).isFalse();
+    }
+}
@@ -0,0 +1,211 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.db;
+
+import java.time.Duration;
+
+import org.jooq.CloseableDSLContext;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.client.EntityExchangeResult;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.Lineup;
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.jooq.impl.DSL.field;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// A primary and a hot standby cloned from it with pg_basebackup, streaming over a shared network.
+// Tests that need the replica to be behind pause its replay.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"lineup-larry.replica.enabled=true",
+                "lineup-larry.replica.poll-interval=100ms",
+                "lineup-larry.cache.enabled=true"})
+@Sql("/test-data.sql")
+@Testcontainers
+@AutoConfigureRestTestClient
+public class ReplicaRoutingIntegrationTest extends RestIntegrationTestSupport {
+
+    private static final Network network = Network.newNetwork();
+
+    private static final String ALLOW_REPLICATION = """
+            #!/bin/sh
+            set -e
+            psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" \\
+                -c "create role replicator with replication login password 'replicator'"
+            echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+            """;
+
+    private static final String CLONE_AND_START = """
+            mkdir -p "$PGDATA" && chmod 0700 "$PGDATA" \
+            && pg_basebackup -h primary -U replicator -D "$PGDATA" -R -X stream \
+            && exec postgres
+            """;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer primary = new PostgreSQLContainer("postgres:18-alpine")
+            .withNetwork(network)
+            .withNetworkAliases("primary")
+            .withCopyToContainer(Transferable.of(ALLOW_REPLICATION, 0755),
+                    "/docker-entrypoint-initdb.d/allow-replication.sh");
+
+    @Container
+    static GenericContainer<?> replica = new GenericContainer<>("postgres:18-alpine")
+            .withNetwork(network)
+            .dependsOn(primary)
+            .withEnv("PGPASSWORD", "replicator")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres")
+                    .withEntrypoint("sh", "-c", CLONE_AND_START))
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*\\s", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("lineup-larry.replica.url", ReplicaRoutingIntegrationTest::replicaUrl);
+        registry.add("lineup-larry.replica.username", primary::getUsername);
+        registry.add("lineup-larry.replica.password", primary::getPassword);
+    }
+
+    @Autowired
+    private ReplicaMonitor replicaMonitor;
+
+    @Autowired
+    private DSLContext dsl;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // lineups by user are not cached, so every read reaches the database
+    @Test
+    void readOnlyRepositoryCallsGoToTheReplica() {
+        awaitReplicaCaughtUp();
+        double before = routed("replica");
+
+        getBody("/api/lineups/user/1", HttpStatus.OK);
+
+        assertThat(routed("replica")).isGreaterThan(before);
+    }
+
+    @Test
+    void writesHandTheClientItsLsn() {
+        String setCookie = createLineup().getResponseHeaders().getFirst(HttpHeaders.SET_COOKIE);
+
+        assertThat(setCookie).startsWith("lineup-larry-lsn=").contains("Path=/api");
+    }
+
+    @Test
+    void clientReadsItsOwnWriteRightAway() {
+        awaitReplicaCaughtUp();
+        pauseReplay();
+        try {
+            var created = createLineup();
+            String lsn = created.getResponseHeaders().getFirst(HttpHeaders.SET_COOKIE)
+                    .split(";")[0].substring("lineup-larry-lsn=".length());
+            Long id = created.getResponseBody().id();
+            double before = routed("primary");
+
+            client.get()
+                    .uri("/api/lineups/user/2")
+                    .cookie("lineup-larry-lsn", lsn)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class)
+                    .value(body -> assertThat(body).contains("\"id\":" + id + ","));
+            assertThat(routed("primary")).isGreaterThan(before);
+        } finally {
+            resumeReplay();
+        }
+    }
+
+    @Test
+    void invalidatedEntryIsNotRefilledFromABehindReplica() {
+        awaitReplicaCaughtUp();
+        assertThat(getBody("/api/lineups/1", HttpStatus.OK)).contains("lineupOne");
+        pauseReplay();
+        try {
+            client.put()
+                    .uri("/api/lineups/1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new Lineup(1L, Agent.SOVA, Map.ASCENT, "updated title", "updated body",
+                            1L, null, null))
+                    .exchange()
+                    .expectStatus().isOk();
+
+            // another client, without the cookie, misses the invalidated entry
+            assertThat(getBody("/api/lineups/1", HttpStatus.OK)).contains("updated title");
+        } finally {
+            resumeReplay();
+        }
+    }
+
+    private EntityExchangeResult<Lineup> createLineup() {
+        return client.post()
+                .uri("/api/lineups")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("""
+                        {"title":"replicated","body":"body","agent":"SOVA","map":"ICEBOX","userId":2}\
+                        """)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Lineup.class)
+                .returnResult();
+    }
+
+    // the test data was just written to the primary
+    private void awaitReplicaCaughtUp() {
+        long primaryLsn = ReadYourWrites.parse(
+                dsl.select(field("pg_current_wal_lsn()::text", String.class)).fetchSingle()
+                        .value1());
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> replicaMonitor.canServe(primaryLsn));
+    }
+
+    private static String replicaUrl() {
+        return "jdbc:postgresql://" + replica.getHost() + ":" + replica.getMappedPort(5432) + "/"
+                + primary.getDatabaseName();
+    }
+
+    // pausing is only requested by pg_wal_replay_pause, replay stops a little later
+    private void pauseReplay() {
+        try (CloseableDSLContext replicaDsl = DSL.using(replicaUrl(), primary.getUsername(),
+                primary.getPassword())) {
+            replicaDsl.execute("SELECT pg_wal_replay_pause()");
+            await().atMost(Duration.ofSeconds(10)).until(() -> replicaDsl
+                    .fetchValue("SELECT pg_get_wal_replay_pause_state()").equals("paused"));
+        }
+    }
+
+    private void resumeReplay() {
+        try (CloseableDSLContext replicaDsl = DSL.using(replicaUrl(), primary.getUsername(),
+                primary.getPassword())) {
+            replicaDsl.execute("SELECT pg_wal_replay_resume()");
+        }
+    }
+
+    private double routed(String target) {
+        return meterRegistry.get("db.replica.routed").tag("target", target).counter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.event;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DomainEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DomainEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void deliversOnlyMatchingEventTypes() throws InterruptedException {
+        RecordingSubscriber<DomainEvent.LikeAdded> likes = new RecordingSubscriber<>(
+                "likes", DomainEvent.LikeAdded.class, 1, 16);
+        bus = new DomainEventBus(List.of(likes), meterRegistry,
+                new EventProperties(Duration.ofMillis(100)));
+        bus.start();
+
+        bus.onDomainEvent(new DomainEvent.LineupCreated(1L, 1L, Map.ASCENT));
+        bus.onDomainEvent(new DomainEvent.LikeAdded(2L, 1L));
+
+        assertThat(likes.latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(likes.received).containsExactly(new DomainEvent.LikeAdded(2L, 1L));
+    }
+
+    @Test
+    void dropsEventsWhenSubscriberQueueIsFull() {
+        RecordingSubscriber<DomainEvent> stalled = new RecordingSubscriber<>(
+                "stalled", DomainEvent.class, 1, 1);
+        // never started, so nothing drains the queue
+        bus = new DomainEventBus(List.of(stalled), meterRegistry,
+                new EventProperties(Duration.ofMillis(1)));
+
+        bus.onDomainEvent(new DomainEvent.LineupDeleted(1L, 1L));
+        bus.onDomainEvent(new DomainEvent.LineupDeleted(2L, 1L));
+
+        assertThat(meterRegistry.get("events.subscriber.dropped").tag("subscriber", "stalled")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("events.subscriber.queued").tag("subscriber", "stalled")
+                .gauge().value()).isEqualTo(1.0);
+    }
+
+    private static final class RecordingSubscriber<E extends DomainEvent>
+            implements DomainEventSubscriber<E> {
+
+        private final String name;
+        private final Class<E> type;
+        private final int capacity;
+        private final List<E> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch latch;
+
+        RecordingSubscriber(String name, Class<E> type, int expected, int capacity) {
+            this.name = name;
+            this.type = type;
+            this.capacity = capacity;
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Class<E> eventType() {
+            return type;
+        }
+
+        @Override
+        public void onEvents(List<E> events) {
+            received.addAll(events);
+            events.forEach(e -> latch.countDown());
+        }
+
+        @Override
+        public int queueCapacity() {
+            return capacity;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.web.servlet.client.RestTestClient;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupport;
+
+// the actuator, /actuator/jfr included, is only served on the management port
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@AutoConfigureRestTestClient
+public class JfrEndpointIntegrationTest extends RestIntegrationTestSupport {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Value("${local.management.port}")
+    int managementPort;
+
+    @Test
+    void actuatorIsNotServedOnTheApiPort() {
+        client.get().uri("/actuator/jfr/1").exchange().expectStatus().isNotFound();
+        client.get().uri("/actuator/pinning").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void actuatorIsServedOnTheManagementPort() {
+        RestTestClient management = RestTestClient.bindToServer()
+                .baseUrl("http://localhost:" + managementPort)
+                .build();
+
+        management.get().uri("/actuator/pinning").exchange().expectStatus().isOk();
+        management.get().uri("/actuator/jfr/0").exchange().expectStatus().isBadRequest();
+    }
+}
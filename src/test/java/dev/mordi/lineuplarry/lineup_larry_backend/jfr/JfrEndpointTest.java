@@ -0,0 +1,79 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEndpointTest {
+
+    private final JfrEndpoint endpoint = new JfrEndpoint(
+            new JfrProperties(Duration.ofSeconds(2), 15));
+
+    @Test
+    void recordingLeavesOutEnvironmentVariablesAndSystemProperties() throws IOException {
+        WebEndpointResponse<Resource> response = endpoint.record("profile", 1);
+
+        assertThat(response.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        Path file = response.getBody().getFile().toPath();
+        assertThat(RecordingFile.readAllEvents(file))
+                .isNotEmpty()
+                .extracting(RecordedEvent::getEventType)
+                .extracting(EventType::getName)
+                .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void everySettingsTurnsTheSecretEventsOff() {
+        for (String settings : new String[] {"default", "profile",
+                JfrEndpoint.LINEUP_LARRY_SETTINGS}) {
+            assertThat(JfrEndpoint.configuration(settings))
+                    .containsEntry("jdk.InitialEnvironmentVariable#enabled", "false")
+                    .containsEntry("jdk.InitialSystemProperty#enabled", "false");
+        }
+        assertThat(JfrEndpoint.configuration(JfrEndpoint.LINEUP_LARRY_SETTINGS))
+                .containsEntry("lineuplarry.Request#enabled", "true");
+    }
+
+    @Test
+    void rejectsDurationsAboveTheCapAndUnknownSettings() {
+        assertThat(endpoint.record("default", 3).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.record("default", 0).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.record("everything", 1).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+        assertThat(endpoint.summary(3).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+
+    @Test
+    void onlyOneRecordingRunsAtATime() {
+        CompletableFuture<WebEndpointResponse<JfrSummary>> first = CompletableFuture
+                .supplyAsync(() -> endpoint.summary(2));
+        await().atMost(Duration.ofSeconds(2)).until(JfrEndpoint::isRecording);
+
+        // another instance, as in a second application context, shares the recorder
+        JfrEndpoint other = new JfrEndpoint(new JfrProperties(Duration.ofSeconds(2), 15));
+        assertThat(other.record("default", 1).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        assertThat(endpoint.summary(1).getStatus())
+                .isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+
+        assertThat(first.join().getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+        assertThat(JfrEndpoint.isRecording()).isFalse();
+    }
+}
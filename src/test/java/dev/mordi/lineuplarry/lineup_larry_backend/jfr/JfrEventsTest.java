@@ -0,0 +1,162 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.LocalCache;
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.LineupRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+
+    @Test
+    void requestEventHasTheMatchedRouteAndStatus() throws Throwable {
+        FilterChain chain = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                    "/api/lineups/{id}");
+            ((HttpServletResponse) response).setStatus(404);
+        };
+
+        List<RecordedEvent> events = record(RequestEvent.class, () -> new JfrRequestFilter()
+                .doFilter(new MockHttpServletRequest("GET", "/api/lineups/999"),
+                        new MockHttpServletResponse(), chain));
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("method")).isEqualTo("GET");
+            assertThat(event.getString("route")).isEqualTo("/api/lineups/{id}");
+            assertThat(event.getInt("status")).isEqualTo(404);
+        });
+    }
+
+    @Test
+    void requestWithoutAHandlerIsUnmapped() throws Throwable {
+        List<RecordedEvent> events = record(RequestEvent.class, () -> new JfrRequestFilter()
+                .doFilter(new MockHttpServletRequest("GET", "/nowhere"),
+                        new MockHttpServletResponse(), (request, response) -> {
+                        }));
+
+        assertThat(events).singleElement()
+                .satisfies(event -> assertThat(event.getString("route")).isEqualTo("UNMAPPED"));
+    }
+
+    @Test
+    void repositoryEventCountsTheRowsOfAnOptionalList() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("getLineupsByUserId");
+        when(joinPoint.proceed()).thenReturn(Optional.of(List.of(1, 2, 3)));
+
+        List<RecordedEvent> events = record(RepositoryEvent.class,
+                () -> new RepositoryEventAspect().recordRepositoryCall(joinPoint));
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("repository")).isEqualTo("LineupRepository");
+            assertThat(event.getString("method")).isEqualTo("getLineupsByUserId");
+            assertThat(event.getInt("rows")).isEqualTo(3);
+            assertThat(event.getBoolean("failed")).isFalse();
+        });
+    }
+
+    @Test
+    void repositoryEventMarksFailedCalls() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint("getLineupById");
+        when(joinPoint.proceed()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        List<RecordedEvent> events = record(RepositoryEvent.class,
+                () -> assertThatThrownBy(
+                        () -> new RepositoryEventAspect().recordRepositoryCall(joinPoint))
+                        .isInstanceOf(DataAccessResourceFailureException.class));
+
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getInt("rows")).isEqualTo(-1);
+            assertThat(event.getBoolean("failed")).isTrue();
+        });
+    }
+
+    @Test
+    void cacheLookupEventTellsMissesFromHits() throws Throwable {
+        CacheProperties properties = new CacheProperties(true, Duration.ofMinutes(1),
+                Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1),
+                true, Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(30), 1000);
+        LocalCache<Long, String> cache = new CacheRegistry(properties, new SimpleMeterRegistry())
+                .createLongKeyed(CacheRegistry.LINEUP);
+
+        List<RecordedEvent> events = record(CacheLookupEvent.class, () -> {
+            cache.getOrLoad(1L, key -> "lineupOne");
+            cache.getOrLoad(1L, key -> "lineupOne");
+        });
+
+        assertThat(events).extracting(event -> event.getString("cache"))
+                .containsOnly(CacheRegistry.LINEUP);
+        assertThat(events).extracting(event -> event.getString("key")).containsOnly("1");
+        assertThat(events).extracting(event -> event.getBoolean("hit"))
+                .containsExactly(false, true);
+    }
+
+    @Test
+    void eventsAreOffUntilARecordingTurnsThemOn() {
+        // @Enabled(false), so the filter, aspect and listeners skip them unless a recording asks
+        assertThat(new RequestEvent().isEnabled()).isFalse();
+        assertThat(new RepositoryEvent().isEnabled()).isFalse();
+        assertThat(new QueryEvent().isEnabled()).isFalse();
+        assertThat(new CacheLookupEvent().isEnabled()).isFalse();
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method) {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        doReturn(LineupRepository.class).when(signature).getDeclaringType();
+        when(signature.getName()).thenReturn(method);
+        return joinPoint;
+    }
+
+    private static List<RecordedEvent> record(Class<? extends Event> eventType, Action action)
+            throws Throwable {
+        Path file = Files.createTempFile("jfr-events-", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventType).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName()
+                            .equals(eventType.getAnnotation(Name.class).value()))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Throwable;
+    }
+}
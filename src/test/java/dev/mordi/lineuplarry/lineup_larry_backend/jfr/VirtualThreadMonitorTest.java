@@ -0,0 +1,116 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.jfr;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Since JEP 491 a virtual thread only pins while something native is on its stack, blocking in a
+// class initializer is the simplest way to get there. Each initializer below runs once per JVM.
+public class VirtualThreadMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VirtualThreadMonitor monitor;
+
+    static class PinnedOnce {
+        static {
+            sleep();
+        }
+
+        static void touch() {
+        }
+    }
+
+    static class PinnedTwice {
+        static {
+            sleep();
+        }
+
+        static void touch() {
+        }
+    }
+
+    static class PinnedThrice {
+        static {
+            sleep();
+        }
+
+        static void touch() {
+        }
+    }
+
+    @AfterEach
+    void stopMonitor() {
+        monitor.stop();
+    }
+
+    @Test
+    void pinningIsGroupedByTheFirstApplicationFrame() throws InterruptedException {
+        monitor = start(200);
+
+        Thread.ofVirtual().start(PinnedOnce::touch).join();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(
+                new PinningEndpoint(monitor).topSites())
+                .singleElement()
+                .satisfies(site -> {
+                    assertThat(site.frame()).startsWith(PinnedOnce.class.getName() + ".<clinit>");
+                    assertThat(site.stack()).isNotEmpty().hasSizeLessThanOrEqualTo(8);
+                    assertThat(site.count()).isEqualTo(1);
+                    assertThat(site.maxMs()).isGreaterThanOrEqualTo(40);
+                }));
+        assertThat(meterRegistry.get("jvm.threads.virtual.pinned").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sitesPastTheLimitAreCountedAsOther() throws InterruptedException {
+        monitor = start(1);
+
+        Thread.ofVirtual().start(PinnedTwice::touch).join();
+        await().atMost(Duration.ofSeconds(10)).until(() -> !monitor.topSites(10).isEmpty());
+        Thread.ofVirtual().start(PinnedThrice::touch).join();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(
+                monitor.topSites(10))
+                .extracting(PinnedSite.View::frame)
+                .hasSize(2)
+                .contains("other")
+                .anySatisfy(frame -> assertThat(frame)
+                        .startsWith(PinnedTwice.class.getName())));
+    }
+
+    @Test
+    void staysOffWhenDisabled() {
+        monitor = new VirtualThreadMonitor(
+                new VirtualThreadMonitorProperties(false, Duration.ofMillis(1), 200, 8),
+                meterRegistry);
+
+        monitor.start();
+
+        assertThat(monitor.isRunning()).isFalse();
+        assertThat(monitor.topSites(10)).isEqualTo(List.of());
+    }
+
+    private VirtualThreadMonitor start(int maxSites) {
+        VirtualThreadMonitor started = new VirtualThreadMonitor(
+                new VirtualThreadMonitorProperties(true, Duration.ofMillis(1), maxSites, 8),
+                meterRegistry);
+        started.start();
+        assertThat(started.isRunning()).isTrue();
+        return started;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
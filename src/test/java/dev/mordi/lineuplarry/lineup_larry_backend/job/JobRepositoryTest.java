@@ -0,0 +1,118 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.JOBS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JooqTest
+@Import({JobRepository.class})
+@Testcontainers
+public class JobRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    JobRepository jobRepository;
+
+    @Autowired
+    DSLContext dsl;
+
+    @Test
+    void enqueueAndClaim() {
+        Job job = jobRepository.enqueue("recount", "{\"lineupId\":1}", Duration.ZERO, 5);
+
+        List<Job> claimed = jobRepository.claim("recount", 10, "worker-1");
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.getFirst().id()).isEqualTo(job.id());
+        assertThat(claimed.getFirst().payload()).isEqualTo("{\"lineupId\":1}");
+        assertThat(claimed.getFirst().attempts()).isEqualTo(1);
+    }
+
+    @Test
+    void claimOnlyPicksDueJobsOfTheRequestedType() {
+        jobRepository.enqueue("recount", "due", Duration.ZERO, 5);
+        jobRepository.enqueue("recount", "later", Duration.ofHours(1), 5);
+        jobRepository.enqueue("thumbnail", "other type", Duration.ZERO, 5);
+
+        List<Job> claimed = jobRepository.claim("recount", 10, "worker-1");
+
+        assertThat(claimed).extracting(Job::payload).containsExactly("due");
+    }
+
+    @Test
+    void claimedJobsAreNotClaimedTwice() {
+        jobRepository.enqueueAll("recount", List.of("a", "b", "c"), 5);
+
+        List<Job> first = jobRepository.claim("recount", 2, "worker-1");
+        List<Job> second = jobRepository.claim("recount", 10, "worker-2");
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        assertThat(second).extracting(Job::id).doesNotContainAnyElementsOf(
+                first.stream().map(Job::id).toList());
+    }
+
+    @Test
+    void completeDeletesJobs() {
+        jobRepository.enqueueAll("recount", List.of("a", "b"), 5);
+        List<Job> claimed = jobRepository.claim("recount", 10, "worker-1");
+
+        int deleted = jobRepository.complete(claimed.stream().map(Job::id).toList());
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(jobRepository.countPending("recount")).isZero();
+        assertThat(jobRepository.claim("recount", 10, "worker-1")).isEmpty();
+    }
+
+    @Test
+    void retryLaterReschedulesJob() {
+        jobRepository.enqueue("recount", "a", Duration.ZERO, 5);
+        Job claimed = jobRepository.claim("recount", 1, "worker-1").getFirst();
+
+        jobRepository.retryLater(claimed.id(), Duration.ofHours(1), "boom");
+
+        assertThat(jobRepository.countPending("recount")).isEqualTo(1);
+        assertThat(jobRepository.claim("recount", 1, "worker-1")).isEmpty();
+    }
+
+    @Test
+    void failKeepsJobForInspection() {
+        jobRepository.enqueue("recount", "a", Duration.ZERO, 1);
+        Job claimed = jobRepository.claim("recount", 1, "worker-1").getFirst();
+
+        jobRepository.fail(claimed.id(), "boom");
+
+        assertThat(jobRepository.countPending("recount")).isZero();
+        assertThat(jobRepository.getFailed("recount")).extracting(Job::id)
+                .containsExactly(claimed.id());
+        assertThat(dsl.select(JOBS.LOCKED_BY, JOBS.LOCKED_AT).from(JOBS)
+                .where(JOBS.ID.eq(claimed.id())).fetchOne().intoArray()).containsOnlyNulls();
+    }
+
+    @Test
+    void reclaimStaleResetsRunningJobs() {
+        jobRepository.enqueue("recount", "a", Duration.ZERO, 5);
+        jobRepository.claim("recount", 1, "worker-1");
+
+        // everything that is RUNNING counts as stale with a negative timeout
+        int reclaimed = jobRepository.reclaimStale(Duration.ofSeconds(-1));
+
+        assertThat(reclaimed).isEqualTo(1);
+        assertThat(jobRepository.claim("recount", 1, "worker-2")).hasSize(1);
+    }
+}
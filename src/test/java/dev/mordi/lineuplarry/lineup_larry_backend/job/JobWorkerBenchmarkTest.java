@@ -0,0 +1,78 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Throughput check for the job queue, skipped unless run with -Dbenchmarks=true
+@SpringBootTest(properties = "lineup-larry.jobs.concurrency.benchmark=64")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class JobWorkerBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JobWorkerBenchmarkTest.class);
+
+    private static final int JOB_COUNT = 50_000;
+
+    static final CountDownLatch done = new CountDownLatch(JOB_COUNT);
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    JobService jobService;
+
+    @TestConfiguration
+    static class BenchmarkHandlerConfig {
+
+        @Bean
+        JobHandler benchmarkHandler() {
+            return new JobHandler() {
+                @Override
+                public String type() {
+                    return "benchmark";
+                }
+
+                @Override
+                public void handle(Job job) {
+                    done.countDown();
+                }
+            };
+        }
+    }
+
+    @Test
+    void sustainsThousandsOfJobsPerSecond() throws InterruptedException {
+        List<String> payloads = IntStream.range(0, 1_000).mapToObj(String::valueOf).toList();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < JOB_COUNT / payloads.size(); i++) {
+            jobService.enqueueAll("benchmark", payloads);
+        }
+        boolean finished = done.await(2, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double jobsPerSecond = JOB_COUNT / seconds;
+
+        log.info("Processed {} jobs in {}s ({} jobs/s)", JOB_COUNT, "%.2f".formatted(seconds),
+                "%.0f".formatted(jobsPerSecond));
+        assertThat(finished).isTrue();
+        assertThat(jobsPerSecond).isGreaterThan(2_000);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.job;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobWorkerTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+
+    @Test
+    void jobFinishingWhileThePollerIsIdleIsDeletedRightAway() throws Exception {
+        CountDownLatch finish = new CountDownLatch(1);
+        JobHandler handler = new JobHandler() {
+            @Override
+            public String type() {
+                return "test";
+            }
+
+            @Override
+            public void handle(Job job) throws Exception {
+                finish.await();
+            }
+        };
+        Job job = new Job(1L, "test", "{}", 1, 5, OffsetDateTime.now(), OffsetDateTime.now());
+        when(jobRepository.claim(eq("test"), anyInt(), anyString()))
+                .thenReturn(List.of(job))
+                .thenReturn(List.of());
+        // far longer than the test waits for the delete
+        JobWorker worker = worker(handler, Duration.ofMinutes(1));
+
+        worker.start();
+        try {
+            // the second claim came back empty, the poller is idle now
+            verify(jobRepository, timeout(5_000).times(2))
+                    .claim(eq("test"), anyInt(), anyString());
+            finish.countDown();
+
+            verify(jobRepository, timeout(2_000)).complete(List.of(1L));
+        } finally {
+            worker.stop();
+        }
+    }
+
+    private JobWorker worker(JobHandler handler, Duration pollInterval) {
+        JobProperties properties = new JobProperties(true, pollInterval, pollInterval, 100,
+                Duration.ofMinutes(5), Duration.ofSeconds(1), Duration.ofMinutes(10),
+                Duration.ofDays(7), Map.of());
+        return new JobWorker(jobRepository, List.of(handler), properties,
+                new SimpleMeterRegistry());
+    }
+}
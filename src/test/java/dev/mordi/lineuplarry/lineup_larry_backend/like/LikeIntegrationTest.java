@@ -40,13 +40,14 @@ public class LikeIntegrationTest extends RestIntegrationTestSupport {
                 new ParameterizedTypeReference<List<Like>>() {
                 });
 
+        // oldest first, the last four share a created_at and go by lineup id
         List<Like> expectedArray = List.of(new Like(1L, 2L, null), new Like(1L, 3L, null),
                 new Like(1L, 11L, null), new Like(1L, 22L, null), new Like(1L, 18L, null),
                 new Like(1L, 16L, null), new Like(2L, 2L, null), new Like(2L, 1L, null),
                 new Like(2L, 22L, null), new Like(2L, 23L, null), new Like(2L, 12L, null),
                 new Like(2L, 14L, null), new Like(3L, 4L, null), new Like(3L, 22L, null),
                 new Like(3L, 15L, null), new Like(3L, 9L, null), new Like(3L, 20L, null),
-                new Like(3L, 1L, null), new Like(2L, 20L, null), new Like(4L, 9L, null),
+                new Like(3L, 1L, null), new Like(4L, 9L, null), new Like(2L, 20L, null),
                 new Like(4L, 22L, null));
 
         assertThat(likes)
@@ -98,6 +99,18 @@ public class LikeIntegrationTest extends RestIntegrationTestSupport {
     }
 
     // test getting a like by id
+    @Test
+    void getLikeById() {
+        // user 2 liked lineup 22, but no user 22 liked lineup 2
+        Like like = getOkBody("/api/likes/user/2/lineup/22",
+                new ParameterizedTypeReference<Like>() {
+                });
+
+        assertThat(like.userId()).isEqualTo(2L);
+        assertThat(like.lineupId()).isEqualTo(22L);
+        assertThat(like.createdAt()).isNotNull();
+    }
+
     @Test
     void getNonexistentLikeById() {
         String response = getBody("/api/likes/user/2/lineup/999", HttpStatus.NOT_FOUND);
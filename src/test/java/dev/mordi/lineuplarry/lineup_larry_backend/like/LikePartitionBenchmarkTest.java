@@ -0,0 +1,130 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Like insert and lookup latency on the partitioned table, skipped unless run with
+// -Dbenchmarks=true. Loads 10 million likes by default, -Dbenchmarks.likes.rows=300000000 for
+// production sized runs (the load alone then takes a while).
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class LikePartitionBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LikePartitionBenchmarkTest.class);
+
+    private static final long ROWS = Long.getLong("benchmarks.likes.rows", 10_000_000L);
+    private static final int USERS = 100_000;
+    private static final long LINEUPS = Math.max(1, ROWS / USERS);
+    private static final int SAMPLES = 2_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "shared_buffers=512MB");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    LikeRepository likeRepository;
+
+    @BeforeAll
+    void load() {
+        long start = System.nanoTime();
+        dsl.execute("TRUNCATE users, lineup, likes, lineup_tombstone");
+        // the extra users are the ones the insert benchmark likes with
+        dsl.execute("INSERT INTO users (id, username) SELECT u, 'user' || u "
+                + "FROM generate_series(1, ?) u", USERS + SAMPLES);
+        // foreign keys are checked by triggers, which replica mode skips for the bulk load,
+        // along with the 4s bound on transactions writing lineups
+        dsl.transaction(tx -> {
+            tx.dsl().execute("SET LOCAL session_replication_role = replica");
+            tx.dsl().execute("INSERT INTO lineup (id, agent, map, title, body, user_id) "
+                    + "SELECT l, 'SOVA', 'ASCENT', 'lineup ' || l, 'body', 1 "
+                    + "FROM generate_series(1, ?) l", LINEUPS);
+            for (long from = 1; from <= LINEUPS; from += 10) {
+                tx.dsl().execute("INSERT INTO likes (user_id, lineup_id, created_at) "
+                        + "SELECT u, l, now() - random() * interval '365 days' "
+                        + "FROM generate_series(?::bigint, ?::bigint) l, "
+                        + "generate_series(1, ?) u", from, Math.min(from + 9, LINEUPS), USERS);
+            }
+        });
+        dsl.execute("ANALYZE likes");
+        likeRepository.analyzeLikes();
+        log.info("Loaded {} likes in {}s", LINEUPS * USERS,
+                "%.1f".formatted((System.nanoTime() - start) / 1e9));
+    }
+
+    @Test
+    void lookupsStayFast() {
+        long[] byLineup = measure(i -> likeRepository.getLikeCountByLineup(randomLineup()));
+        long[] byId = measure(i -> likeRepository.getLikeById(randomLineup(),
+                ThreadLocalRandom.current().nextLong(1, USERS + 1)));
+        long[] byUser = measure(i -> likeRepository.getLikesByUser(
+                ThreadLocalRandom.current().nextLong(1, USERS + 1)));
+
+        report("count by lineup", byLineup);
+        report("like by id", byId);
+        report("likes by user", byUser);
+        assertThat(percentile(byId, 0.99)).isLessThan(20_000_000L);
+        assertThat(percentile(byUser, 0.99)).isLessThan(100_000_000L);
+    }
+
+    @Test
+    void insertsStayFast() {
+        long[] inserts = measure(i -> likeRepository.likeLineup(
+                new Like(USERS + 1 + i, randomLineup(), null)));
+
+        report("insert", inserts);
+        assertThat(percentile(inserts, 0.99)).isLessThan(50_000_000L);
+    }
+
+    private static long randomLineup() {
+        return ThreadLocalRandom.current().nextLong(1, LINEUPS + 1);
+    }
+
+    private static long[] measure(LongConsumer operation) {
+        // warm up the pool, the plans and the partitions' upper index pages
+        for (long i = 0; i < SAMPLES / 10; i++) {
+            operation.accept(SAMPLES - 1 - i);
+        }
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            operation.accept(i);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static void report(String operation, long[] sorted) {
+        log.info("{}: p50 {}ms, p99 {}ms, max {}ms", operation,
+                "%.2f".formatted(percentile(sorted, 0.5) / 1e6),
+                "%.2f".formatted(percentile(sorted, 0.99) / 1e6),
+                "%.2f".formatted(sorted[sorted.length - 1] / 1e6));
+    }
+}
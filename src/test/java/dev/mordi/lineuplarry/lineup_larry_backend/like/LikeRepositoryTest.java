@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Import;
@@ -21,7 +22,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @JooqTest
-@Import({LikeRepository.class})
+@Import({LikeRepository.class, LikeShards.class})
+@EnableConfigurationProperties(LikeShardProperties.class)
 @Sql("/test-data.sql")
 @Testcontainers
 public class LikeRepositoryTest {
@@ -80,6 +82,18 @@ public class LikeRepositoryTest {
         assertThat(res.createdAt()).isNotNull();
     }
 
+    // user 2 liked lineup 22, there is no user 22, so swapped ids find nothing
+    @Test
+    void getLikeByIdTakesLineupIdFirst() {
+        var like = likeRepository.getLikeById(22L, 2L);
+
+        assertThat(like).get()
+                .usingRecursiveComparison()
+                .ignoringFields("createdAt")
+                .isEqualTo(new Like(2L, 22L, null));
+        assertThat(likeRepository.getLikeById(2L, 22L)).isEmpty();
+    }
+
     @Test
     void failToCreateLikeOnInvalidLineupId() {
         Like likeToFail = new Like(2L, 999L, null);
@@ -0,0 +1,176 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.LineupIdTitleDTO;
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupport;
+import dev.mordi.lineuplarry.lineup_larry_backend.user.UserSummaryDTO;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LIKES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+// The main database plus two like shards. test-data.sql only seeds the main database, the
+// shards start empty for every test.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Sql("/test-data.sql")
+@Testcontainers
+@AutoConfigureRestTestClient
+public class LikeShardingIntegrationTest extends RestIntegrationTestSupport {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2024-01-01T12:00:00Z");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Container
+    static PostgreSQLContainer shardZero = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Container
+    static PostgreSQLContainer shardOne = new PostgreSQLContainer("postgres:18-alpine");
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        List<PostgreSQLContainer> shards = List.of(shardZero, shardOne);
+        for (int i = 0; i < shards.size(); i++) {
+            PostgreSQLContainer shard = shards.get(i);
+            String prefix = "lineup-larry.like-shards.shards[" + i + "].";
+            registry.add(prefix + "url", shard::getJdbcUrl);
+            registry.add(prefix + "username", shard::getUsername);
+            registry.add(prefix + "password", shard::getPassword);
+        }
+    }
+
+    @Autowired
+    private LikeShards likeShards;
+
+    @Autowired
+    private LikeShardSweepTask sweepTask;
+
+    @BeforeEach
+    void emptyShards() {
+        likeShards.gather(shard -> List.of(shard.truncate(LIKES).execute()));
+    }
+
+    @Test
+    void likesLandOnTheirLineupsShard() {
+        like(4L, 1L);
+
+        assertThat(likeShards.forLineup(1L).fetchCount(LIKES, LIKES.LINEUP_ID.eq(1L))).isOne();
+        assertThat(likeShards.gather(shard -> List.of(shard.fetchCount(LIKES)))).containsOnly(0, 1);
+        assertThat(getOkBody("/api/likes/lineup/1", new ParameterizedTypeReference<List<Like>>() {
+        })).extracting(Like::userId).containsExactly(4L);
+        assertThat(getBody("/api/likes/lineup/1/count", HttpStatus.OK)).isEqualTo("1");
+    }
+
+    @Test
+    void userLikesAreGatheredFromAllShardsInOrder() {
+        List<Long> lineupIds = List.of(8L, 3L, 6L, 1L, 5L, 2L, 7L, 4L);
+        for (int i = 0; i < lineupIds.size(); i++) {
+            insertLike(4L, lineupIds.get(i), START.plusMinutes(i));
+        }
+        // both shards hold some of them
+        assertThat(likeShards.gather(shard -> List.of(shard.fetchCount(LIKES))))
+                .allMatch(count -> count > 0);
+
+        List<Like> likes = getOkBody("/api/likes/user/4", new ParameterizedTypeReference<>() {
+        });
+
+        assertThat(likes).extracting(Like::lineupId).containsExactlyElementsOf(lineupIds);
+    }
+
+    @Test
+    void summaryMergesLikesAcrossShards() {
+        // user 2 owns lineups 2, 3 and 9
+        insertLike(1L, 3L, START);
+        insertLike(4L, 3L, START);
+        insertLike(5L, 9L, START);
+        for (long lineupId = 1; lineupId <= 7; lineupId++) {
+            insertLike(2L, lineupId, START.plusMinutes(lineupId));
+        }
+
+        UserSummaryDTO summary = getOkBody("/api/users/summary/2",
+                new ParameterizedTypeReference<>() {
+                });
+
+        // 3 has three likes, 2 and 9 one each
+        assertThat(summary.mostLikedLineups()).extracting(LineupIdTitleDTO::id)
+                .containsExactlyInAnyOrder(3L, 2L, 9L)
+                .first().isEqualTo(3L);
+        assertThat(summary.recentlyLikedLineups()).extracting(LineupIdTitleDTO::id)
+                .containsExactly(7L, 6L, 5L, 4L, 3L);
+    }
+
+    @Test
+    void deletingALineupDeletesItsLikes() {
+        like(4L, 1L);
+
+        client.delete().uri("/api/lineups/1").exchange().expectStatus().isNoContent();
+
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> likeShards.forLineup(1L).fetchCount(LIKES, LIKES.LINEUP_ID.eq(1L)) == 0);
+    }
+
+    @Test
+    void readsLeaveOutLikesOfDeletedLineupsAndUsers() {
+        insertLike(4L, 1L, START);
+        insertLike(4L, 999L, START);
+        insertLike(999L, 1L, START);
+
+        assertThat(getOkBody("/api/likes", new ParameterizedTypeReference<List<Like>>() {
+        })).extracting(Like::userId, Like::lineupId).containsExactly(tuple(4L, 1L));
+        assertThat(getOkBody("/api/likes/lineup/1", new ParameterizedTypeReference<List<Like>>() {
+        })).extracting(Like::userId).containsExactly(4L);
+    }
+
+    @Test
+    void sweepDeletesWhatTheCleanupMissed() {
+        insertLike(4L, 1L, START);
+        // a lineup and a user deleted without the event reaching LikeShardCleanup
+        insertLike(4L, 999L, START);
+        insertLike(999L, 2L, START);
+
+        sweepTask.run();
+
+        assertThat(likeShards.gather(shard -> shard.selectFrom(LIKES)
+                .fetch(r -> tuple(r.getUserId(), r.getLineupId()))))
+                .containsExactly(tuple(4L, 1L));
+    }
+
+    private void like(Long userId, Long lineupId) {
+        client.post()
+                .uri("/api/likes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new Like(userId, lineupId, null))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    private void insertLike(Long userId, Long lineupId, OffsetDateTime createdAt) {
+        likeShards.forLineup(lineupId).insertInto(LIKES)
+                .set(LIKES.USER_ID, userId)
+                .set(LIKES.LINEUP_ID, lineupId)
+                .set(LIKES.CREATED_AT, createdAt)
+                .execute();
+    }
+}
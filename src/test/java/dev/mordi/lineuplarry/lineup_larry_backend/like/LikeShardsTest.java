@@ -0,0 +1,43 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.like;
+
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LikeShardsTest {
+
+    @Test
+    void placementIsStable() {
+        assertThat(LikeShards.shardOf(42L, 4)).isEqualTo(LikeShards.shardOf(42L, 4));
+        assertThat(LikeShards.shardOf(Long.MAX_VALUE, 3)).isBetween(0, 2);
+        assertThat(LikeShards.shardOf(-7L, 3)).isBetween(0, 2);
+    }
+
+    @Test
+    void consecutiveIdsSpreadEvenly() {
+        int[] counts = new int[4];
+        for (long lineupId = 1; lineupId <= 40_000; lineupId++) {
+            counts[LikeShards.shardOf(lineupId, 4)]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isBetween(9_500, 10_500);
+        }
+    }
+
+    @Test
+    void withoutShardsEverythingRunsOnTheMainDatabase() {
+        DSLContext dsl = DSL.using(SQLDialect.POSTGRES);
+        LikeShards shards = new LikeShards(dsl, new LikeShardProperties(List.of(), 5), null);
+
+        assertThat(shards.isSharded()).isFalse();
+        assertThat(shards.forLineup(7L)).isSameAs(dsl);
+        assertThat(shards.gather(shard -> List.of(shard == dsl))).containsExactly(true);
+        assertThat(shards.gatherForLineups(List.of(1L, 2L, 3L), (shard, ids) -> ids))
+                .containsExactly(1L, 2L, 3L);
+    }
+}
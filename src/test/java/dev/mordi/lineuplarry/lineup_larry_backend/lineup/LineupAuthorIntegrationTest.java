@@ -0,0 +1,136 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureRestTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupport;
+import dev.mordi.lineuplarry.lineup_larry_backend.user.User;
+
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LINEUP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// Lineup reads with the denormalized author_username instead of the users join
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"lineup-larry.lineup-author.denormalized=true",
+                "lineup-larry.lineup-author.rename-chunk-size=2",
+                "lineup-larry.cache.enabled=true"})
+@Sql("/test-data.sql")
+@Testcontainers
+@AutoConfigureRestTestClient
+public class LineupAuthorIntegrationTest extends RestIntegrationTestSupport {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    LineupAuthorCheckTask checkTask;
+
+    @Test
+    void readsTheCopiedUsername() {
+        List<LineupWithAuthorDTO> lineups = getUserLineups(2L);
+
+        assertThat(lineups).extracting(LineupWithAuthorDTO::username)
+                .containsOnly("userTwo")
+                .hasSize(3);
+    }
+
+    @Test
+    void createdLineupGetsItsAuthorsUsername() {
+        Lineup created = client.post()
+                .uri("/api/lineups")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("""
+                        {"title":"new lineup","body":"new body","agent":"SOVA","map":"ICEBOX","userId":2}\
+                        """)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Lineup.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(getUserLineups(2L)).filteredOn(lineup -> lineup.id().equals(created.id()))
+                .extracting(LineupWithAuthorDTO::username)
+                .containsExactly("userTwo");
+    }
+
+    @Test
+    void renameIsCopiedOntoEveryLineupInChunks() {
+        var updatedAt = dsl.select(LINEUP.ID, LINEUP.UPDATED_AT).from(LINEUP)
+                .where(LINEUP.USER_ID.eq(3L)).fetchMap(LINEUP.ID, LINEUP.UPDATED_AT);
+
+        rename(3L, "renamedThree");
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(getUserLineups(3L))
+                .extracting(LineupWithAuthorDTO::username)
+                .containsOnly("renamedThree"));
+        // the copy is an update, so clients syncing a map's lineups pick up the new name
+        var bumped = dsl.select(LINEUP.ID, LINEUP.UPDATED_AT).from(LINEUP)
+                .where(LINEUP.USER_ID.eq(3L)).fetchMap(LINEUP.ID, LINEUP.UPDATED_AT);
+        assertThat(bumped).hasSameSizeAs(updatedAt);
+        updatedAt.forEach((id, before) -> assertThat(bumped.get(id)).isNotEqualTo(before));
+    }
+
+    @Test
+    void cachedLineupPicksUpTheRename() {
+        assertThat(getLineup(4L).username()).isEqualTo("userThree");
+
+        rename(3L, "cachedThree");
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(getLineup(4L).username()).isEqualTo("cachedThree"));
+    }
+
+    @Test
+    void checkRepairsDriftedUsernames() {
+        dsl.update(LINEUP).set(LINEUP.AUTHOR_USERNAME, "stale").where(LINEUP.ID.in(1L, 9L))
+                .execute();
+
+        checkTask.run();
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            assertThat(getUserLineups(1L)).extracting(LineupWithAuthorDTO::username)
+                    .containsOnly("userOne");
+            assertThat(getUserLineups(2L)).extracting(LineupWithAuthorDTO::username)
+                    .containsOnly("userTwo");
+        });
+    }
+
+    private List<LineupWithAuthorDTO> getUserLineups(Long userId) {
+        return getOkBody("/api/lineups/user/" + userId + "?pageSize=100",
+                new ParameterizedTypeReference<List<LineupWithAuthorDTO>>() {
+                });
+    }
+
+    private LineupWithAuthorDTO getLineup(Long id) {
+        return getOkBody("/api/lineups/" + id,
+                new ParameterizedTypeReference<LineupWithAuthorDTO>() {
+                });
+    }
+
+    private void rename(Long userId, String username) {
+        client.put()
+                .uri("/api/users/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new User(userId, username))
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
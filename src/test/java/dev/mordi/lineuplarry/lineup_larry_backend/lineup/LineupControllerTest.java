@@ -72,7 +72,7 @@ public class LineupControllerTest {
     // getAll
     @Test
     void successfulGetAll() throws Exception {
-        when(lineupService.getLineup(null, null, null, 20L, null))
+        when(lineupService.getLineup(null, null, null, CreatedRange.ANY, 20L, null))
                 .thenReturn(Arrays.asList(lineupOne, lineupTwo));
 
         MvcResult result = mockMvc.perform(get("/api/lineups"))
@@ -83,7 +83,7 @@ public class LineupControllerTest {
                 .isEqualToIgnoringCase(MediaType.APPLICATION_JSON.toString());
         assertThat(result.getResponse().getContentAsString()).contains(lineupOne.title(),
                 lineupTwo.title());
-        verify(lineupService).getLineup(null, null, null, 20L, null);
+        verify(lineupService).getLineup(null, null, null, CreatedRange.ANY, 20L, null);
     }
 
     // getById
@@ -122,28 +122,28 @@ public class LineupControllerTest {
         Long userId = lineupOne.userId();
         Optional<List<LineupWithAuthorDTO>> userOnesLineups = Optional
                 .of(List.of(lineupOne, lineupTwo));
-        when(lineupService.getAllLineupsFromUserId(userId, 20L, null))
+        when(lineupService.getAllLineupsFromUserId(userId, CreatedRange.ANY, 20L, null))
                 .thenReturn(userOnesLineups);
 
         mockMvc.perform(get("/api/lineups/user/{id}", userId))
                 .andExpect(status().isOk())
                 .andReturn();
 
-        verify(lineupService).getAllLineupsFromUserId(userId, 20L, null);
+        verify(lineupService).getAllLineupsFromUserId(userId, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getLineupsFromUserWithNoLineups() throws Exception {
         Long userId = userWithNoLineups.id();
         Optional<List<LineupWithAuthorDTO>> emptyArray = Optional.of(List.of());
-        when(lineupService.getAllLineupsFromUserId(userId, 20L, null))
+        when(lineupService.getAllLineupsFromUserId(userId, CreatedRange.ANY, 20L, null))
                 .thenReturn(emptyArray);
 
         mockMvc.perform(get("/api/lineups/user/{id}", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(lineupService).getAllLineupsFromUserId(userId, 20L, null);
+        verify(lineupService).getAllLineupsFromUserId(userId, CreatedRange.ANY, 20L, null);
     }
 
     @Test
@@ -151,7 +151,7 @@ public class LineupControllerTest {
         Long nonexistentUserId = 222L;
         InvalidLineupException.NoUserException exception = new InvalidLineupException.NoUserException(
                 nonexistentUserId);
-        when(lineupService.getAllLineupsFromUserId(nonexistentUserId, 20L, null))
+        when(lineupService.getAllLineupsFromUserId(nonexistentUserId, CreatedRange.ANY, 20L, null))
                 .thenThrow(exception);
 
         mockMvc.perform(get("/api/lineups/user/{id}", nonexistentUserId))
@@ -160,7 +160,8 @@ public class LineupControllerTest {
                 .andExpect(jsonPath("$.detail")
                         .value("No user with id: '" + nonexistentUserId + "' exists"));
 
-        verify(lineupService).getAllLineupsFromUserId(nonexistentUserId, 20L, null);
+        verify(lineupService).getAllLineupsFromUserId(nonexistentUserId, CreatedRange.ANY, 20L,
+                null);
     }
 
     // create
@@ -0,0 +1,158 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Index size and created_at range query latency of the BRIN index against a B-tree on the same
+// column, and of the BRIN index again once updates have moved some rows out of created_at order.
+// Skipped unless run with -Dbenchmarks=true. Loads 5 million lineups spread over two years by
+// default, -Dbenchmarks.lineups.rows to change that.
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class LineupCreatedAtIndexBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("benchmarks.lineups.rows", 5_000_000L);
+    private static final int USERS = 10_000;
+    private static final int SAMPLES = 1_000;
+    private static final OffsetDateTime START = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    private static final long DAYS = 730;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "shared_buffers=512MB");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    LineupRepository lineupRepository;
+
+    @BeforeAll
+    void load() {
+        long start = System.nanoTime();
+        dsl.execute("TRUNCATE users, lineup, likes, lineup_tombstone");
+        dsl.execute("INSERT INTO users (id, username) SELECT u, 'user' || u "
+                + "FROM generate_series(1, ?) u", USERS);
+        // inserted in created_at order, like lineups arrive
+        bulk("INSERT INTO lineup (id, agent, map, title, body, user_id, created_at) "
+                + "SELECT l, (enum_range(NULL::agent))[1 + l % 20], "
+                + "(enum_range(NULL::map))[1 + l % 10], 'lineup ' || l, 'body', 1 + l % ?, "
+                + "?::timestamptz + make_interval(secs => l * ?) "
+                + "FROM generate_series(1, ?::bigint) l",
+                USERS, START, DAYS * 86_400.0 / ROWS, ROWS);
+        dsl.execute("VACUUM ANALYZE lineup");
+        System.out.printf("loaded %d lineups in %.1fs%n", ROWS,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    @Test
+    void brinIsSmallAndKeepsUp() {
+        Result brin = run("brin", "lineup_created_at_brin_idx");
+
+        dsl.execute("DROP INDEX lineup_created_at_brin_idx");
+        dsl.execute("CREATE INDEX lineup_created_at_btree_idx ON lineup (created_at)");
+        dsl.execute("ANALYZE lineup");
+        Result btree;
+        try {
+            btree = run("btree", "lineup_created_at_btree_idx");
+        } finally {
+            dsl.execute("DROP INDEX lineup_created_at_btree_idx");
+            dsl.execute("CREATE INDEX lineup_created_at_brin_idx ON lineup USING brin "
+                    + "(created_at) WITH (pages_per_range = 32, autosummarize = on)");
+        }
+
+        // edits are not HOT on full pages, each one moves its row to the end of the table and
+        // widens the last block ranges to the row's old created_at
+        bulk("UPDATE lineup SET body = body || ' edited' WHERE id % 20 = 0");
+        dsl.execute("VACUUM ANALYZE lineup");
+        Result churned = run("brin after editing 5%", "lineup_created_at_brin_idx");
+
+        assertThat(brin.bytes()).isLessThan(btree.bytes() / 50);
+        // a lossy bitmap scan rechecks whole block ranges, allow it a few times the B-tree's
+        // latency but no more
+        long limit = Math.max(5 * percentile(btree.week(), 0.99), 20_000_000L);
+        assertThat(percentile(brin.week(), 0.99)).isLessThan(limit);
+        assertThat(percentile(churned.week(), 0.99)).isLessThan(limit);
+    }
+
+    private record Result(long bytes, long[] week, long[] weekOnMap, long[] userMonth) {
+    }
+
+    private Result run(String name, String index) {
+        long bytes = dsl.fetchValue("SELECT pg_relation_size(?::regclass)", index)
+                .longValue();
+        long[] week = measure(from -> lineupRepository.getLineups(null, null, null,
+                new CreatedRange(from, from.plusDays(7)), 20L, null));
+        long[] weekOnMap = measure(from -> lineupRepository.getLineups(null, null,
+                Map.values()[ThreadLocalRandom.current().nextInt(Map.values().length)],
+                new CreatedRange(from, from.plusDays(7)), 20L, null));
+        long[] userMonth = measure(from -> lineupRepository.getLineupsByUserId(
+                ThreadLocalRandom.current().nextLong(1, USERS + 1),
+                new CreatedRange(from, from.plusDays(30)), 20L, null));
+
+        System.out.printf("%s: %.1f MB%n", name, bytes / 1e6);
+        report(name + " week", week);
+        report(name + " week on map", weekOnMap);
+        report(name + " user month", userMonth);
+        return new Result(bytes, week, weekOnMap, userMonth);
+    }
+
+    // replica mode skips the triggers, the 4s bound on transactions writing lineups among them
+    private void bulk(String sql, Object... bindings) {
+        dsl.transaction(tx -> {
+            tx.dsl().execute("SET LOCAL session_replication_role = replica");
+            tx.dsl().execute(sql, bindings);
+        });
+    }
+
+    private static long[] measure(Consumer<OffsetDateTime> query) {
+        // warm up the pool, the plans and the index pages
+        for (int i = 0; i < SAMPLES / 10; i++) {
+            query.accept(randomWeek());
+        }
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            OffsetDateTime from = randomWeek();
+            long start = System.nanoTime();
+            query.accept(from);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static OffsetDateTime randomWeek() {
+        return START.plusHours(ThreadLocalRandom.current().nextLong(0, (DAYS - 30) * 24));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static void report(String query, long[] sorted) {
+        System.out.printf("%s: p50 %.2fms, p99 %.2fms, max %.2fms%n", query,
+                percentile(sorted, 0.5) / 1e6, percentile(sorted, 0.99) / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+}
@@ -20,7 +20,9 @@ import dev.mordi.lineuplarry.lineup_larry_backend.shared.RestIntegrationTestSupp
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"lineup-larry.query-budget.expose-count-header=true",
+                "lineup-larry.server-timing.enabled=true"})
 @Sql("/test-data.sql")
 @Testcontainers
 @AutoConfigureRestTestClient
@@ -1457,6 +1459,64 @@ public class LineupIntegrationTest extends RestIntegrationTestSupport {
         assertThat(response).contains("No user with id: '999' exists");
     }
 
+    // created_at ranges, the test data backdates 22 to 26 to 2003-2007 and creates the rest now
+    @Test
+    void getAllLineupsCreatedAfterWithAgent() {
+        List<LineupWithAuthorDTO> response = getOkBody(
+                "/api/lineups?agent=sova&createdAfter=2024-01-01T00:00:00Z",
+                new ParameterizedTypeReference<List<LineupWithAuthorDTO>>() {
+                });
+
+        assertThat(response).extracting(LineupWithAuthorDTO::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void getAllLineupsCreatedBefore() {
+        List<LineupWithAuthorDTO> response = getOkBody(
+                "/api/lineups?createdBefore=2005-01-01T00:00:00Z",
+                new ParameterizedTypeReference<List<LineupWithAuthorDTO>>() {
+                });
+
+        assertThat(response).extracting(LineupWithAuthorDTO::id).containsExactly(22L, 23L);
+    }
+
+    @Test
+    void getAllLineupsCreatedBeforeWithNoMatches() {
+        List<LineupWithAuthorDTO> response = getOkBody(
+                "/api/lineups?createdBefore=2000-01-01T00:00:00Z",
+                new ParameterizedTypeReference<List<LineupWithAuthorDTO>>() {
+                });
+
+        assertThat(response).isEmpty();
+    }
+
+    @Test
+    void getAllLineupsFromUserCreatedAfterPaginationSeek() {
+        List<LineupWithAuthorDTO> response = getOkBody(
+                "/api/lineups/user/2?createdAfter=2024-01-01T00:00:00Z&lastValue=2",
+                new ParameterizedTypeReference<List<LineupWithAuthorDTO>>() {
+                });
+
+        assertThat(response).extracting(LineupWithAuthorDTO::id).containsExactly(3L, 9L);
+    }
+
+    @Test
+    void getAllLineupsOnInvertedCreatedRange() {
+        String response = getBody(
+                "/api/lineups?createdAfter=2024-02-01T00:00:00Z"
+                        + "&createdBefore=2024-01-01T00:00:00Z",
+                HttpStatus.BAD_REQUEST);
+
+        assertThat(response).contains("LINEUP_INVALID_CREATED_RANGE");
+    }
+
+    @Test
+    void getAllLineupsOnMalformedCreatedAfter() {
+        String response = getBody("/api/lineups?createdAfter=yesterday", HttpStatus.BAD_REQUEST);
+
+        assertThat(response).contains("REQUEST_INVALID_PARAMETER");
+    }
+
     // seeking on "bad" values, ie does not exist or the seek value does not fit the
     // query criteria
     @Test
@@ -1471,4 +1531,71 @@ public class LineupIntegrationTest extends RestIntegrationTestSupport {
 
         assertThat(response).isEmpty();
     }
+
+    // Query counts
+    @Test
+    void getAllRunsSingleQuery() {
+        assertQueryCount("/api/lineups", 1);
+    }
+
+    @Test
+    void getByIdRunsSingleQuery() {
+        assertQueryCount("/api/lineups/1", 1);
+    }
+
+    @Test
+    void getAllFromUserChecksUserThenFetches() {
+        assertQueryCount("/api/lineups/user/1", 2);
+    }
+
+    @Test
+    void reportsServerTiming() {
+        String serverTiming = client.get()
+                .uri("/api/lineups/1")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst("Server-Timing");
+
+        assertThat(serverTiming)
+                .startsWith("db;dur=")
+                .contains("desc=\"1 queries\"", "conn;dur=", "handler;dur=", "ser;dur=",
+                        "total;dur=");
+    }
+
+    @Test
+    void reportsRateLimit() {
+        HttpHeaders headers = client.get()
+                .uri("/api/lineups/1")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult()
+                .getResponseHeaders();
+
+        assertThat(headers.getFirst("RateLimit-Limit")).isEqualTo("120");
+        assertThat(Integer.parseInt(headers.getFirst("RateLimit-Remaining")))
+                .isBetween(0, 119);
+        assertThat(headers.getFirst("RateLimit-Reset")).isNotNull();
+    }
+
+    @Test
+    void expiredDeadlineIsGatewayTimeout() {
+        client.get()
+                .uri("/api/lineups/1")
+                .header("X-Request-Timeout", "1ns")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.GATEWAY_TIMEOUT)
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .json("""
+                        {
+                        "status": 504,
+                        "title": "Deadline exceeded",
+                        "code": "DEADLINE_EXCEEDED",
+                        "instance": "/api/lineups/1",
+                        "type": "https://lineup-larry.dev/problems/deadline/exceeded"
+                        }
+                        """, JsonCompareMode.LENIENT);
+    }
 }
@@ -1,11 +1,17 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import org.jooq.DSLContext;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Import;
@@ -16,13 +22,18 @@ import org.testcontainers.postgresql.PostgreSQLContainer;
 
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShardProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShards;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
 
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.LINEUP;
+import static dev.mordi.lineuplarry.lineup_larry_backend.test.jooq.database.Tables.USERS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @JooqTest
-@Import({LineupRepository.class})
+@Import({LineupRepository.class, LikeShards.class})
+@EnableConfigurationProperties({LineupAuthorProperties.class, LikeShardProperties.class})
 @Sql("/test-data.sql")
 @Testcontainers
 public class LineupRepositoryTest {
@@ -34,6 +45,9 @@ public class LineupRepositoryTest {
     @Autowired
     LineupRepository lineupRepository;
 
+    @Autowired
+    DSLContext dsl;
+
     // Get by ID
     @Test
     void successfulGetById() throws Exception {
@@ -154,7 +168,7 @@ public class LineupRepositoryTest {
     @Test
     void successfulGetAllLineupsFromUser() {
         Optional<List<LineupWithAuthorDTO>> lineupsFromUser = lineupRepository
-                .getLineupsByUserId(2L, 20L, null);
+                .getLineupsByUserId(2L, CreatedRange.ANY, 20L, null);
 
         assertThat(lineupsFromUser).isPresent();
         assertThat(lineupsFromUser.get().size()).isEqualTo(3);
@@ -165,7 +179,7 @@ public class LineupRepositoryTest {
     @Test
     void successfulGetAllLineupsFromUserWithZeroLineups() {
         Optional<List<LineupWithAuthorDTO>> lineupsFromUser = lineupRepository
-                .getLineupsByUserId(4L, 20L, null);
+                .getLineupsByUserId(4L, CreatedRange.ANY, 20L, null);
 
         assertThat(lineupsFromUser).isPresent();
         assertThat(lineupsFromUser.get().size()).isZero();
@@ -176,14 +190,14 @@ public class LineupRepositoryTest {
         // expects null which then gets translated into not found?
         Long nonexistentUserId = 55L;
         assertThrows(InvalidLineupException.NoUserException.class, () -> {
-            lineupRepository.getLineupsByUserId(nonexistentUserId, 20L, null);
+            lineupRepository.getLineupsByUserId(nonexistentUserId, CreatedRange.ANY, 20L, null);
         });
     }
 
     @Test
     void successfulGetAllLineupsFromUserPaginated() {
-        Optional<List<LineupWithAuthorDTO>> lineups = lineupRepository.getLineupsByUserId(2L, 20L,
-                2L);
+        Optional<List<LineupWithAuthorDTO>> lineups = lineupRepository.getLineupsByUserId(2L,
+                CreatedRange.ANY, 20L, 2L);
 
         List<LineupWithAuthorDTO> expectedLineups = List.of(
                 new LineupWithAuthorDTO(3L, Agent.BRIMSTONE, Map.BIND, "lineupThree", "bodyThree",
@@ -202,15 +216,15 @@ public class LineupRepositoryTest {
     void GetAllLineupsFromNonexistentUserPaginated() {
         Long nonexistentUserId = 999L;
         assertThrows(InvalidLineupException.NoUserException.class, () -> {
-            lineupRepository.getLineupsByUserId(nonexistentUserId, 20L, 2L);
+            lineupRepository.getLineupsByUserId(nonexistentUserId, CreatedRange.ANY, 20L, 2L);
         });
     }
 
     // test on invalid lastValue, which is just empty set
     @Test
     void getAllLineupsFromUserWithInvalidLastValue() {
-        Optional<List<LineupWithAuthorDTO>> lineups = lineupRepository.getLineupsByUserId(2L, 20L,
-                333L);
+        Optional<List<LineupWithAuthorDTO>> lineups = lineupRepository.getLineupsByUserId(2L,
+                CreatedRange.ANY, 20L, 333L);
 
         assertThat(lineups).isPresent();
         assertThat(lineups.get()).isEqualTo(Collections.EMPTY_LIST);
@@ -219,7 +233,7 @@ public class LineupRepositoryTest {
     @Test
     void successfulFindByMapAndTitle() {
         List<LineupWithAuthorDTO> query = lineupRepository.getLineups("same name", null, Map.ICEBOX,
-                20L, null);
+                CreatedRange.ANY, 20L, null);
 
         List<LineupWithAuthorDTO> expectedResult = List.of(
                 new LineupWithAuthorDTO(5L, Agent.KILLJOY, Map.ICEBOX, "same name", "bodyFour", 3L,
@@ -238,7 +252,7 @@ public class LineupRepositoryTest {
     @Test
     void findByMapAndTitlePagination() {
         List<LineupWithAuthorDTO> query = lineupRepository.getLineups("same name", null, Map.ICEBOX,
-                20L, 5L);
+                CreatedRange.ANY, 20L, 5L);
 
         List<LineupWithAuthorDTO> expectedResult = List.of(new LineupWithAuthorDTO(6L,
                 Agent.KILLJOY, Map.ICEBOX, "same name", "bodyFour", 3L, null, null, "userThree"));
@@ -253,7 +267,7 @@ public class LineupRepositoryTest {
     @Test
     void emptyFindByMapAndTitle() {
         List<LineupWithAuthorDTO> query = lineupRepository.getLineups("not a match", null,
-                Map.PEARL, 20L, null);
+                Map.PEARL, CreatedRange.ANY, 20L, null);
 
         List<LineupWithAuthorDTO> expectedList = List.of();
 
@@ -264,7 +278,7 @@ public class LineupRepositoryTest {
     @Test
     void successfulGetByTitle() {
         List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("same name", null, null,
-                20L, null);
+                CreatedRange.ANY, 20L, null);
 
         List<LineupWithAuthorDTO> expectedResult = List.of(
                 new LineupWithAuthorDTO(5L, Agent.KILLJOY, Map.ICEBOX, "same name", "bodyFour", 3L,
@@ -282,8 +296,8 @@ public class LineupRepositoryTest {
 
     @Test
     void successfulGetByTitlePageSized() {
-        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("same name", null, null, 1L,
-                null);
+        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("same name", null, null,
+                CreatedRange.ANY, 1L, null);
 
         List<LineupWithAuthorDTO> expectedResult = List.of(new LineupWithAuthorDTO(5L,
                 Agent.KILLJOY, Map.ICEBOX, "same name", "bodyFour", 3L, null, null, "userThree"));
@@ -298,8 +312,8 @@ public class LineupRepositoryTest {
 
     @Test
     void successfulGetByTitlePageSizedPagination() {
-        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("same name", null, null, 1L,
-                5L);
+        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("same name", null, null,
+                CreatedRange.ANY, 1L, 5L);
 
         List<LineupWithAuthorDTO> expectedResult = List.of(new LineupWithAuthorDTO(6L,
                 Agent.KILLJOY, Map.ICEBOX, "same name", "bodyFour", 3L, null, null, "userThree"));
@@ -317,7 +331,7 @@ public class LineupRepositoryTest {
     void successfulGetByTitleNoMatches() {
         List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups(
                 "this title will most definitely not result in any lineups being fetched", null,
-                null, 20L, null);
+                null, CreatedRange.ANY, 20L, null);
 
         assertThat(lineups).isEmpty();
     }
@@ -325,7 +339,7 @@ public class LineupRepositoryTest {
     @Test
     void successfulGetByAgentMapAndTitle() {
         List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups("lineupThree",
-                Agent.BRIMSTONE, Map.BIND, 20L, null);
+                Agent.BRIMSTONE, Map.BIND, CreatedRange.ANY, 20L, null);
 
         List<LineupWithAuthorDTO> expectedLineup = Collections
                 .singletonList(new LineupWithAuthorDTO(3L, Agent.BRIMSTONE, Map.BIND, "lineupThree",
@@ -383,4 +397,131 @@ public class LineupRepositoryTest {
             lineupRepository.doesLineupExist(nonexistentLineupId);
         });
     }
+
+    // Author username
+    @Test
+    void createdLineupCopiesItsAuthorsUsername() {
+        Lineup created = lineupRepository.createLineup(new Lineup(null, Agent.SOVA, Map.ASCENT,
+                "valid title", "valid body", 2L, null, null));
+
+        assertThat(dsl.fetchValue(LINEUP.AUTHOR_USERNAME, LINEUP.ID.eq(created.id())))
+                .isEqualTo("userTwo");
+    }
+
+    @Test
+    void copyAuthorUsernameWorksInChunks() {
+        dsl.update(USERS).set(USERS.USERNAME, "renamedThree").where(USERS.ID.eq(3L)).execute();
+        assertThat(lineupRepository.getUsersWithStaleAuthorUsername(10)).containsExactly(3L);
+
+        // user 3 has 19 lineups
+        assertThat(lineupRepository.copyAuthorUsername(3L, 10)).isEqualTo(10);
+        assertThat(lineupRepository.copyAuthorUsername(3L, 10)).isEqualTo(9);
+        assertThat(lineupRepository.copyAuthorUsername(3L, 10)).isZero();
+
+        assertThat(lineupRepository.getUsersWithStaleAuthorUsername(10)).isEmpty();
+        assertThat(dsl.fetchCount(LINEUP, LINEUP.AUTHOR_USERNAME.eq("renamedThree")))
+                .isEqualTo(19);
+    }
+
+    // Created range
+    private static final OffsetDateTime JANUARY = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    private static final OffsetDateTime FEBRUARY = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+
+    @Test
+    void createdRangeIsHalfOpen() {
+        dsl.update(LINEUP).set(LINEUP.CREATED_AT, JANUARY).where(LINEUP.ID.in(1L, 2L)).execute();
+        dsl.update(LINEUP).set(LINEUP.CREATED_AT, FEBRUARY).where(LINEUP.ID.eq(18L)).execute();
+
+        List<LineupWithAuthorDTO> january = lineupRepository.getLineups(null, null, Map.ASCENT,
+                new CreatedRange(JANUARY, FEBRUARY), 20L, null);
+
+        assertThat(january).extracting(LineupWithAuthorDTO::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void createdRangeCombinesWithSeek() {
+        dsl.update(LINEUP).set(LINEUP.CREATED_AT, JANUARY).where(LINEUP.ID.in(1L, 2L, 8L))
+                .execute();
+
+        List<LineupWithAuthorDTO> page = lineupRepository.getLineups(null, null, null,
+                new CreatedRange(JANUARY, FEBRUARY), 1L, 1L);
+
+        assertThat(page).extracting(LineupWithAuthorDTO::id).containsExactly(2L);
+    }
+
+    @Test
+    void createdBeforeKeepsOnlyOlderLineups() {
+        // the test data backdates 22 to 26, everything else is created now
+        List<LineupWithAuthorDTO> lineups = lineupRepository.getLineups(null, null, null,
+                new CreatedRange(null, JANUARY), 20L, null);
+
+        assertThat(lineups).extracting(LineupWithAuthorDTO::id)
+                .containsExactly(22L, 23L, 24L, 25L, 26L);
+    }
+
+    @Test
+    void createdRangeFromUser() {
+        dsl.update(LINEUP).set(LINEUP.CREATED_AT, JANUARY).where(LINEUP.ID.in(2L, 9L)).execute();
+
+        Optional<List<LineupWithAuthorDTO>> lineups = lineupRepository.getLineupsByUserId(2L,
+                new CreatedRange(JANUARY, FEBRUARY), 20L, null);
+        Optional<List<LineupWithAuthorDTO>> newer = lineupRepository.getLineupsByUserId(2L,
+                new CreatedRange(FEBRUARY, null), 20L, null);
+
+        assertThat(lineups.get()).extracting(LineupWithAuthorDTO::id).containsExactly(2L, 9L);
+        assertThat(newer.get()).extracting(LineupWithAuthorDTO::id).containsExactly(3L);
+    }
+
+    // Sync
+    // the test data shares the test transaction's now(), so look slightly into the future
+    private static final Duration NO_LAG = Duration.ofSeconds(-1);
+    private static final OffsetDateTime EPOCH = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+
+    @Test
+    void syncReturnsMapLineupsInUpdatedAtIdOrder() {
+        List<LineupWithAuthorDTO> changed = lineupRepository.getLineupsChangedSince(Map.ASCENT,
+                EPOCH, 0L, NO_LAG, 100);
+
+        assertThat(changed).isNotEmpty().allMatch(lineup -> lineup.map() == Map.ASCENT);
+        assertThat(changed).extracting(LineupWithAuthorDTO::id).isSorted();
+
+        LineupWithAuthorDTO first = changed.getFirst();
+        List<LineupWithAuthorDTO> rest = lineupRepository.getLineupsChangedSince(Map.ASCENT,
+                first.updatedAt(), first.id(), NO_LAG, 100);
+        assertThat(rest).hasSize(changed.size() - 1);
+    }
+
+    @Test
+    void syncHoldsBackRowsYoungerThanSafetyLag() {
+        List<LineupWithAuthorDTO> changed = lineupRepository.getLineupsChangedSince(Map.ASCENT,
+                EPOCH, 0L, Duration.ofSeconds(5), 100);
+
+        assertThat(changed).isEmpty();
+    }
+
+    @Test
+    void deletingOrMovingLineupLeavesTombstone() {
+        lineupRepository.deleteLineup(1L);
+        LineupWithAuthorDTO moved = lineupRepository.getLineupById(2L).orElseThrow();
+        lineupRepository.updateLineup(new Lineup(moved.id(), moved.agent(), Map.BIND,
+                moved.title(), moved.body(), moved.userId(), moved.createdAt(),
+                moved.updatedAt()));
+
+        List<LineupTombstone> ascent = lineupRepository.getTombstonesSince(Map.ASCENT, EPOCH, 0L,
+                NO_LAG, 100);
+        List<LineupTombstone> bind = lineupRepository.getTombstonesSince(Map.BIND, EPOCH, 0L,
+                NO_LAG, 100);
+
+        assertThat(ascent).extracting(LineupTombstone::lineupId).containsExactly(1L, 2L);
+        assertThat(bind).isEmpty();
+    }
+
+    @Test
+    void purgeTombstonesBeforeCutoff() {
+        lineupRepository.deleteLineup(1L);
+
+        assertThat(lineupRepository.purgeTombstonesBefore(EPOCH)).isZero();
+        assertThat(lineupRepository.purgeTombstonesBefore(OffsetDateTime.now().plusDays(1)))
+                .isEqualTo(1);
+    }
 }
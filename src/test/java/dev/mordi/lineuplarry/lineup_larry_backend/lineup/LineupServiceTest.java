@@ -1,5 +1,7 @@
 package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -10,12 +12,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
 import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.User;
+import dev.mordi.lineuplarry.lineup_larry_backend.user.UserRepository;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +37,14 @@ public class LineupServiceTest {
     @Mock
     private LineupRepository lineupRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
+    // caching is disabled, so every call goes straight to the repository
+    @Spy
+    private CacheRegistry cacheRegistry = new CacheRegistry(CacheProperties.disabled(),
+            new SimpleMeterRegistry());
+
     private User userWithLineups;
     private User userWithoutLineups;
     private LineupWithAuthorDTO lineupOne;
@@ -66,184 +82,246 @@ public class LineupServiceTest {
     void getAllLineup() {
         List<LineupWithAuthorDTO> allLineups = Arrays.asList(lineupOne, lineupTwo, lineupThree,
                 lineupFour, lineupFive);
-        when(lineupRepository.getLineups(null, null, null, 20L, null)).thenReturn(allLineups);
+        when(lineupRepository.getLineups(null, null, null, CreatedRange.ANY, 20L, null))
+                .thenReturn(allLineups);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, null, 20L, null);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, null,
+                CreatedRange.ANY, 20L, null);
 
         assertThat(result).isEqualTo(allLineups);
-        verify(lineupRepository).getLineups(null, null, null, 20L, null);
+        verify(lineupRepository).getLineups(null, null, null, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getAllLineupSmallPagination() {
         List<LineupWithAuthorDTO> expectedLineups = List.of(lineupThree, lineupFour);
-        when(lineupRepository.getLineups(null, null, null, 2L, 2L)).thenReturn(expectedLineups);
+        when(lineupRepository.getLineups(null, null, null, CreatedRange.ANY, 2L, 2L))
+                .thenReturn(expectedLineups);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, null, 2L, 2L);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, null,
+                CreatedRange.ANY, 2L, 2L);
 
         assertThat(result).isEqualTo(expectedLineups);
-        verify(lineupRepository).getLineups(null, null, null, 2L, 2L);
+        verify(lineupRepository).getLineups(null, null, null, CreatedRange.ANY, 2L, 2L);
     }
 
     @Test
     void getAllLineupFilteredByAgent() {
         List<LineupWithAuthorDTO> allSovaLineups = Arrays.asList(lineupOne, lineupTwo);
-        when(lineupRepository.getLineups(null, Agent.SOVA, null, 20L, null))
+        when(lineupRepository.getLineups(null, Agent.SOVA, null, CreatedRange.ANY, 20L, null))
                 .thenReturn(allSovaLineups);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", null, 20L, null);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", null,
+                CreatedRange.ANY, 20L, null);
 
         assertThat(result).isEqualTo(allSovaLineups);
-        verify(lineupRepository).getLineups(null, Agent.SOVA, null, 20L, null);
+        verify(lineupRepository).getLineups(null, Agent.SOVA, null, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getAllLineupFilteredByAgentPagination() {
         List<LineupWithAuthorDTO> lastSovaLineup = List.of(lineupTwo);
-        when(lineupRepository.getLineups(null, Agent.SOVA, null, 1L, 1L))
+        when(lineupRepository.getLineups(null, Agent.SOVA, null, CreatedRange.ANY, 1L, 1L))
                 .thenReturn(lastSovaLineup);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", null, 1L, 1L);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", null,
+                CreatedRange.ANY, 1L, 1L);
 
         assertThat(result).isEqualTo(lastSovaLineup);
-        verify(lineupRepository).getLineups(null, Agent.SOVA, null, 1L, 1L);
+        verify(lineupRepository).getLineups(null, Agent.SOVA, null, CreatedRange.ANY, 1L, 1L);
     }
 
     @Test
     void getLineupFilterByMap() {
         List<LineupWithAuthorDTO> allAscentLineups = Arrays.asList(lineupOne, lineupTwo);
-        when(lineupRepository.getLineups(null, null, Map.ASCENT, 20L, null))
+        when(lineupRepository.getLineups(null, null, Map.ASCENT, CreatedRange.ANY, 20L, null))
                 .thenReturn(allAscentLineups);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, "ascent", 20L, null);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, "ascent",
+                CreatedRange.ANY, 20L, null);
 
         assertThat(result).isEqualTo(allAscentLineups);
-        verify(lineupRepository).getLineups(null, null, Map.ASCENT, 20L, null);
+        verify(lineupRepository).getLineups(null, null, Map.ASCENT, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getLineupFilterByMapPagination() {
         List<LineupWithAuthorDTO> secondAscentMap = List.of(lineupTwo);
-        when(lineupRepository.getLineups(null, null, Map.ASCENT, 1L, 1L))
+        when(lineupRepository.getLineups(null, null, Map.ASCENT, CreatedRange.ANY, 1L, 1L))
                 .thenReturn(secondAscentMap);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, "ascent", 1L, 1L);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, null, "ascent",
+                CreatedRange.ANY, 1L, 1L);
 
         assertThat(result).isEqualTo(secondAscentMap);
-        verify(lineupRepository).getLineups(null, null, Map.ASCENT, 1L, 1L);
+        verify(lineupRepository).getLineups(null, null, Map.ASCENT, CreatedRange.ANY, 1L, 1L);
     }
 
     @Test
     void getLineupFilterByTitle() {
         List<LineupWithAuthorDTO> sameNameLineups = Arrays.asList(lineupFour, lineupFive);
-        when(lineupRepository.getLineups("same name", null, null, 20L, null))
+        when(lineupRepository.getLineups("same name", null, null, CreatedRange.ANY, 20L, null))
                 .thenReturn(sameNameLineups);
 
         List<LineupWithAuthorDTO> result = lineupService.getByTitle("same name", 20L, null);
 
         assertThat(result).isEqualTo(sameNameLineups);
-        verify(lineupRepository).getLineups("same name", null, null, 20L, null);
+        verify(lineupRepository).getLineups("same name", null, null, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getLineupFilterByTitlePagination() {
         List<LineupWithAuthorDTO> secondSameNameLineup = List.of(lineupFive);
-        when(lineupRepository.getLineups("same name", null, null, 1L, 4L))
+        when(lineupRepository.getLineups("same name", null, null, CreatedRange.ANY, 1L, 4L))
                 .thenReturn(secondSameNameLineup);
 
         List<LineupWithAuthorDTO> result = lineupService.getByTitle("same name", 1L, 4L);
 
         assertThat(result).isEqualTo(secondSameNameLineup);
-        verify(lineupRepository).getLineups("same name", null, null, 1L, 4L);
+        verify(lineupRepository).getLineups("same name", null, null, CreatedRange.ANY, 1L, 4L);
     }
 
     @Test
     void getLineupFilterByAgentAndMap() {
         List<LineupWithAuthorDTO> cypherOnSunset = Collections.singletonList(lineupFour);
-        when(lineupRepository.getLineups(null, Agent.CYPHER, Map.SUNSET, 20L, null))
+        when(lineupRepository.getLineups(null, Agent.CYPHER, Map.SUNSET, CreatedRange.ANY, 20L,
+                null))
                 .thenReturn(cypherOnSunset);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "cypher", "sunset", 20L,
-                null);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "cypher", "sunset",
+                CreatedRange.ANY, 20L, null);
 
         assertThat(result).isEqualTo(cypherOnSunset);
-        verify(lineupRepository).getLineups(null, Agent.CYPHER, Map.SUNSET, 20L, null);
+        verify(lineupRepository).getLineups(null, Agent.CYPHER, Map.SUNSET, CreatedRange.ANY, 20L,
+                null);
     }
 
     @Test
     void getLineupFilterByAgentAndMapPagination() {
         List<LineupWithAuthorDTO> secondSovaLineupOnAscent = List.of(lineupTwo);
-        when(lineupRepository.getLineups(null, Agent.SOVA, Map.ASCENT, 1L, 1L))
+        when(lineupRepository.getLineups(null, Agent.SOVA, Map.ASCENT, CreatedRange.ANY, 1L, 1L))
                 .thenReturn(secondSovaLineupOnAscent);
 
-        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", "ascent", 1L, 1L);
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", "ascent",
+                CreatedRange.ANY, 1L, 1L);
 
         assertThat(result).isEqualTo(secondSovaLineupOnAscent);
-        verify(lineupRepository).getLineups(null, Agent.SOVA, Map.ASCENT, 1L, 1L);
+        verify(lineupRepository).getLineups(null, Agent.SOVA, Map.ASCENT, CreatedRange.ANY, 1L, 1L);
     }
 
     @Test
     void getLineupFilterByAgentAndMapAndTitle() {
         List<LineupWithAuthorDTO> cypherOnSunsetSameNameTitle = Collections
                 .singletonList(lineupFour);
-        when(lineupRepository.getLineups("same name", Agent.CYPHER, Map.SUNSET, 20L, null))
+        when(lineupRepository.getLineups("same name", Agent.CYPHER, Map.SUNSET, CreatedRange.ANY,
+                20L, null))
                 .thenReturn(cypherOnSunsetSameNameTitle);
 
         List<LineupWithAuthorDTO> result = lineupService.getLineup("same name", "cypher", "sunset",
-                20L, null);
+                CreatedRange.ANY, 20L, null);
 
         assertThat(result).isEqualTo(cypherOnSunsetSameNameTitle);
-        verify(lineupRepository).getLineups("same name", Agent.CYPHER, Map.SUNSET, 20L, null);
+        verify(lineupRepository).getLineups("same name", Agent.CYPHER, Map.SUNSET,
+                CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void getLineupFilterByAgentAndMapAndTitlePagination() {
         List<LineupWithAuthorDTO> twoLastSameNameLineups = List.of(lineupSix, lineupSeven);
-        when(lineupRepository.getLineups("same name", Agent.KILLJOY, Map.ICEBOX, 2L, 5L))
+        when(lineupRepository.getLineups("same name", Agent.KILLJOY, Map.ICEBOX, CreatedRange.ANY,
+                2L, 5L))
                 .thenReturn(twoLastSameNameLineups);
 
         List<LineupWithAuthorDTO> result = lineupService.getLineup("same name", "killjoy", "icebox",
-                2L, 5L);
+                CreatedRange.ANY, 2L, 5L);
 
         assertThat(result).isEqualTo(twoLastSameNameLineups);
-        verify(lineupRepository).getLineups("same name", Agent.KILLJOY, Map.ICEBOX, 2L, 5L);
+        verify(lineupRepository).getLineups("same name", Agent.KILLJOY, Map.ICEBOX,
+                CreatedRange.ANY, 2L, 5L);
     }
 
     @Test
     void failGetLineupFilterByAgentInvalidAgentString() {
-        assertThatThrownBy(() -> lineupService.getLineup(null, "notJett", null, 20L, null))
+        assertThatThrownBy(() -> lineupService.getLineup(null, "notJett", null, CreatedRange.ANY,
+                20L, null))
                 .isInstanceOf(InvalidLineupException.InvalidAgentException.class)
                 .hasMessage("The agent: 'notJett' is not a valid agent");
 
-        verify(lineupRepository, never()).getLineups(null, Agent.BRIMSTONE, null, 20L, null);
+        verify(lineupRepository, never()).getLineups(null, Agent.BRIMSTONE, null, CreatedRange.ANY,
+                20L, null);
     }
 
     @Test
     void failGetLineupFilterByMapInvalidMapString() {
-        assertThatThrownBy(() -> lineupService.getLineup(null, null, "notAMap", 20L, null))
+        assertThatThrownBy(() -> lineupService.getLineup(null, null, "notAMap", CreatedRange.ANY,
+                20L, null))
                 .isInstanceOf(InvalidLineupException.InvalidMapException.class)
                 .hasMessage("The map: 'notAMap' is not a valid map");
 
-        verify(lineupRepository, never()).getLineups(null, null, Map.ASCENT, 20L, null);
+        verify(lineupRepository, never()).getLineups(null, null, Map.ASCENT, CreatedRange.ANY, 20L,
+                null);
     }
 
     @Test
     void failGetLineupFilterByAgentAndMapInvalidStrings() {
-        assertThatThrownBy(() -> lineupService.getLineup(null, "notJett", "notAMap", 20L, null))
+        assertThatThrownBy(() -> lineupService.getLineup(null, "notJett", "notAMap",
+                CreatedRange.ANY, 20L, null))
                 .isInstanceOf(InvalidLineupException.InvalidAgentException.class) // agent fails
                                                                                   // first
                 .hasMessage("The agent: 'notJett' is not a valid agent");
 
-        verify(lineupRepository, never()).getLineups(null, Agent.JETT, Map.ASCENT, 20L, null);
+        verify(lineupRepository, never()).getLineups(null, Agent.JETT, Map.ASCENT,
+                CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void GetLineupFilterByTitleNoMatches() {
-        var res = lineupService.getLineup("not gonna get a match", null, null, 20L, null);
+        var res = lineupService.getLineup("not gonna get a match", null, null, CreatedRange.ANY,
+                20L, null);
 
         assertThat(res.stream().toList()).isEqualTo(Collections.EMPTY_LIST);
     }
 
+    @Test
+    void getLineupFilterByAgentAndCreatedRange() {
+        OffsetDateTime after = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+        OffsetDateTime before = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        List<LineupWithAuthorDTO> sovaLineups = Arrays.asList(lineupOne, lineupTwo);
+        when(lineupRepository.getLineups(null, Agent.SOVA, null, new CreatedRange(after, before),
+                20L, null))
+                .thenReturn(sovaLineups);
+
+        List<LineupWithAuthorDTO> result = lineupService.getLineup(null, "sova", null,
+                new CreatedRange(after, before), 20L, null);
+
+        assertThat(result).isEqualTo(sovaLineups);
+        verify(lineupRepository).getLineups(null, Agent.SOVA, null,
+                new CreatedRange(after, before), 20L, null);
+    }
+
+    @Test
+    void failGetLineupOnInvertedCreatedRange() {
+        OffsetDateTime after = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+        OffsetDateTime before = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+        assertThatThrownBy(() -> lineupService.getLineup(null, null, null,
+                new CreatedRange(after, before), 20L, null))
+                .isInstanceOf(InvalidLineupException.InvalidCreatedRangeException.class);
+
+        verify(lineupRepository, never()).getLineups(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void failGetAllLineupsFromUserOnEmptyCreatedRange() {
+        OffsetDateTime at = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+        assertThatThrownBy(() -> lineupService.getAllLineupsFromUserId(1L,
+                new CreatedRange(at, at), 20L, null))
+                .isInstanceOf(InvalidLineupException.InvalidCreatedRangeException.class);
+
+        verify(lineupRepository, never()).getLineupsByUserId(any(), any(), any(), any());
+    }
+
     // getLineupById
     @Test
     void successfulGetById() {
@@ -275,28 +353,30 @@ public class LineupServiceTest {
     void successfulGetLineupLineupsFromUserWithLineups() {
         Optional<List<LineupWithAuthorDTO>> allLineupsFromUserOne = Optional
                 .of(Arrays.asList(lineupOne, lineupTwo, lineupThree));
-        when(lineupRepository.getLineupsByUserId(1L, 20L, null)).thenReturn(allLineupsFromUserOne);
+        when(lineupRepository.getLineupsByUserId(1L, CreatedRange.ANY, 20L, null))
+                .thenReturn(allLineupsFromUserOne);
 
         Optional<List<LineupWithAuthorDTO>> fetchedLineupsFromUser = lineupService
-                .getAllLineupsFromUserId(1L, 20L, null);
+                .getAllLineupsFromUserId(1L, CreatedRange.ANY, 20L, null);
 
         assertThat(fetchedLineupsFromUser).isPresent();
         assertThat(fetchedLineupsFromUser.get().size()).isEqualTo(3);
         assertThat(fetchedLineupsFromUser.get()).isEqualTo(allLineupsFromUserOne.get());
-        verify(lineupRepository).getLineupsByUserId(1L, 20L, null);
+        verify(lineupRepository).getLineupsByUserId(1L, CreatedRange.ANY, 20L, null);
     }
 
     @Test
     void successfulGetLineupLineupsFromUserWithNoLineups() {
         Optional<List<LineupWithAuthorDTO>> emptyList = Optional.of(List.of());
         Long userId = 2L;
-        when(lineupRepository.getLineupsByUserId(userId, 20L, null)).thenReturn(emptyList);
+        when(lineupRepository.getLineupsByUserId(userId, CreatedRange.ANY, 20L, null))
+                .thenReturn(emptyList);
 
         Optional<List<LineupWithAuthorDTO>> fetchedList = lineupService
-                .getAllLineupsFromUserId(userId, 20L, null);
+                .getAllLineupsFromUserId(userId, CreatedRange.ANY, 20L, null);
 
         assertThat(fetchedList).isPresent();
-        verify(lineupRepository).getLineupsByUserId(userId, 20L, null);
+        verify(lineupRepository).getLineupsByUserId(userId, CreatedRange.ANY, 20L, null);
     }
 
     @Test
@@ -304,15 +384,78 @@ public class LineupServiceTest {
         Long nonexistentUserId = 999L;
         InvalidLineupException.NoUserException exception = new InvalidLineupException.NoUserException(
                 nonexistentUserId);
-        when(lineupRepository.getLineupsByUserId(nonexistentUserId, 20L, null))
+        when(lineupRepository.getLineupsByUserId(nonexistentUserId, CreatedRange.ANY, 20L, null))
                 .thenThrow(exception);
 
         assertThatThrownBy(
-                () -> lineupService.getAllLineupsFromUserId(nonexistentUserId, 20L, null))
+                () -> lineupService.getAllLineupsFromUserId(nonexistentUserId, CreatedRange.ANY,
+                        20L, null))
                 .isInstanceOf(InvalidLineupException.NoUserException.class)
                 .hasMessage("No user with id: '" + nonexistentUserId + "' exists");
 
-        verify(lineupRepository).getLineupsByUserId(nonexistentUserId, 20L, null);
+        verify(lineupRepository).getLineupsByUserId(nonexistentUserId, CreatedRange.ANY, 20L, null);
+    }
+
+    // missing ids, with the caches on
+    @Test
+    void getByIdRechecksTheHighestIdBeforeAnsweringMissing() {
+        LineupService service = withMissingIds();
+        LineupWithAuthorDTO created = new LineupWithAuthorDTO(27L, Agent.SOVA, Map.ASCENT,
+                "created", "body", 1L, null, null, "userOne");
+        when(lineupRepository.getMaxLineupId()).thenReturn(26L, 27L);
+        when(lineupRepository.getLineupById(27L)).thenReturn(Optional.of(created));
+
+        assertThat(service.getById(27L)).isNotPresent();
+        verify(lineupRepository, never()).getLineupById(27L);
+
+        // created on another instance, its invalidation has not arrived yet
+        assertThat(service.getById(27L)).contains(created);
+        verify(lineupRepository, times(2)).getMaxLineupId();
+    }
+
+    @Test
+    void getByIdAnswersSettledMissesWithoutQuerying() {
+        LineupService service = withMissingIds();
+        when(lineupRepository.getMaxLineupId()).thenReturn(26L);
+        when(lineupRepository.getLineupById(5L)).thenReturn(Optional.empty());
+
+        // 5 is below a highest id read before the miss, so it is not an uncommitted insert
+        assertThat(service.getById(5L)).isNotPresent();
+        assertThat(service.getById(5L)).isNotPresent();
+
+        verify(lineupRepository).getLineupById(5L);
+    }
+
+    @Test
+    void lineupsOfUsersAboveTheHighestUserIdAreRechecked() {
+        LineupService service = withMissingIds();
+        when(userRepository.getMaxUserId()).thenReturn(5L, 6L);
+        when(lineupRepository.getLineupsByUserId(6L, CreatedRange.ANY, 20L, null))
+                .thenReturn(Optional.of(List.of()));
+
+        assertThatThrownBy(() -> service.getAllLineupsFromUserId(6L, CreatedRange.ANY, 20L, null))
+                .isInstanceOf(InvalidLineupException.NoUserException.class);
+        verify(lineupRepository, never()).getLineupsByUserId(6L, CreatedRange.ANY, 20L, null);
+
+        assertThat(service.getAllLineupsFromUserId(6L, CreatedRange.ANY, 20L, null))
+                .contains(List.of());
+    }
+
+    @Test
+    void missingIdsAreUnknownWhileTheHighestIdCannotBeRead() {
+        LineupService service = withMissingIds();
+        when(lineupRepository.getMaxLineupId()).thenThrow(new IllegalStateException("down"));
+        when(lineupRepository.getLineupById(27L)).thenReturn(Optional.of(lineupOne));
+
+        assertThat(service.getById(27L)).contains(lineupOne);
+    }
+
+    private LineupService withMissingIds() {
+        CacheProperties properties = new CacheProperties(true, Duration.ofMinutes(1),
+                Duration.ZERO, Duration.ZERO, 100, "cache_invalidation", Duration.ofSeconds(1),
+                true, Duration.ofSeconds(2), Duration.ZERO, Duration.ZERO, 1000);
+        return new LineupService(lineupRepository, userRepository,
+                new CacheRegistry(properties, new SimpleMeterRegistry()));
     }
 
     // create lineup
@@ -0,0 +1,194 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.lineup;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.exceptions.InvalidLineupException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// The repository is replaced by two in-memory streams that honour the cursor and the limit the
+// way the queries do, so paging can be followed across calls.
+@ExtendWith(MockitoExtension.class)
+public class LineupSyncServiceTest {
+
+    // within the tombstone retention, and in whole seconds so it survives the cursor
+    private static final OffsetDateTime T0 = OffsetDateTime.now(ZoneOffset.UTC)
+            .truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+
+    @Mock
+    private LineupRepository lineupRepository;
+
+    private LineupSyncService syncService;
+    private final List<LineupWithAuthorDTO> lineups = new ArrayList<>();
+    private final List<LineupTombstone> tombstones = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        syncService = new LineupSyncService(lineupRepository,
+                new LineupSyncProperties(Duration.ofSeconds(5), Duration.ofDays(30)));
+        lenient().when(lineupRepository.getLineupsChangedSince(eq(Map.ASCENT), any(), anyLong(),
+                any(), anyInt())).thenAnswer(invocation -> after(lineups,
+                        lineup -> new LineupSyncCursor(lineup.updatedAt(), lineup.id()),
+                        invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(4)));
+        lenient().when(lineupRepository.getTombstonesSince(eq(Map.ASCENT), any(), anyLong(),
+                any(), anyInt())).thenAnswer(invocation -> after(tombstones,
+                        tombstone -> new LineupSyncCursor(tombstone.deletedAt(),
+                                tombstone.lineupId()),
+                        invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(4)));
+    }
+
+    @Test
+    void mergesLineupsAndTombstonesInCursorOrder() {
+        lineup(3L, T0.plusSeconds(1));
+        lineup(1L, T0.plusSeconds(3));
+        tombstone(7L, T0.plusSeconds(2));
+
+        LineupSyncPage page = syncService.sync("ascent", cursor(T0, 0L), 10);
+
+        assertThat(page.lineups()).extracting(LineupWithAuthorDTO::id).containsExactly(3L, 1L);
+        assertThat(page.deleted()).containsExactly(7L);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextCursor()).isEqualTo(cursor(T0.plusSeconds(3), 1L));
+    }
+
+    @Test
+    void fullDownloadSkipsTombstones() {
+        lineup(1L, T0);
+        tombstone(2L, T0);
+
+        LineupSyncPage page = syncService.sync("ascent", null, 10);
+
+        assertThat(page.lineups()).extracting(LineupWithAuthorDTO::id).containsExactly(1L);
+        assertThat(page.deleted()).isEmpty();
+        verify(lineupRepository, never()).getTombstonesSince(any(), any(), anyLong(), any(),
+                anyInt());
+    }
+
+    @Test
+    void hasMoreWhileEitherStreamHasRowsPastThePage() {
+        lineup(1L, T0.plusSeconds(1));
+        lineup(2L, T0.plusSeconds(2));
+        tombstone(3L, T0.plusSeconds(3));
+
+        LineupSyncPage first = syncService.sync("ascent", cursor(T0, 0L), 2);
+        LineupSyncPage second = syncService.sync("ascent", first.nextCursor(), 2);
+
+        assertThat(first.lineups()).extracting(LineupWithAuthorDTO::id).containsExactly(1L, 2L);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.nextCursor()).isEqualTo(cursor(T0.plusSeconds(2), 2L));
+        assertThat(second.lineups()).isEmpty();
+        assertThat(second.deleted()).containsExactly(3L);
+        assertThat(second.hasMore()).isFalse();
+    }
+
+    @Test
+    void pagesThroughChangesSharingAnUpdatedAt() {
+        // one transaction wrote all of these, so they share its start time
+        for (long id = 1; id <= 5; id++) {
+            lineup(id, T0.plusSeconds(1));
+        }
+        tombstone(4L, T0.plusSeconds(1));
+        tombstone(6L, T0.plusSeconds(1));
+
+        List<Long> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        String cursor = cursor(T0, 0L);
+        LineupSyncPage page;
+        do {
+            page = syncService.sync("ascent", cursor, 2);
+            page.lineups().forEach(lineup -> upserted.add(lineup.id()));
+            deleted.addAll(page.deleted());
+            cursor = page.nextCursor();
+        } while (page.hasMore());
+
+        // on a tie the tombstone goes first, so a client applying pages in order keeps lineup 4
+        assertThat(upserted).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(deleted).containsExactly(4L, 6L);
+    }
+
+    @Test
+    void tombstoneOfALineupThatCameBackIsDropped() {
+        tombstone(4L, T0.plusSeconds(1));
+        lineup(4L, T0.plusSeconds(2));
+
+        LineupSyncPage page = syncService.sync("ascent", cursor(T0, 0L), 10);
+
+        assertThat(page.lineups()).extracting(LineupWithAuthorDTO::id).containsExactly(4L);
+        assertThat(page.deleted()).isEmpty();
+    }
+
+    @Test
+    void emptyPageKeepsTheCursor() {
+        String since = cursor(T0, 5L);
+
+        LineupSyncPage page = syncService.sync("ascent", since, 10);
+
+        assertThat(page.lineups()).isEmpty();
+        assertThat(page.deleted()).isEmpty();
+        assertThat(page.nextCursor()).isEqualTo(since);
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void failOnCursorOlderThanTheTombstoneRetention() {
+        String since = cursor(OffsetDateTime.now().minusDays(31), 1L);
+
+        assertThatThrownBy(() -> syncService.sync("ascent", since, 10))
+                .isInstanceOf(InvalidLineupException.SyncCursorExpiredException.class);
+        verifyNoInteractions(lineupRepository);
+    }
+
+    @Test
+    void failOnInvalidCursorOrMap() {
+        assertThatThrownBy(() -> syncService.sync("ascent", "not-a-cursor", 10))
+                .isInstanceOf(InvalidLineupException.InvalidSyncCursorException.class);
+        assertThatThrownBy(() -> syncService.sync("nowhere", null, 10))
+                .isInstanceOf(InvalidLineupException.InvalidMapException.class);
+        verifyNoInteractions(lineupRepository);
+    }
+
+    private void lineup(Long id, OffsetDateTime updatedAt) {
+        lineups.add(new LineupWithAuthorDTO(id, Agent.SOVA, Map.ASCENT, "title " + id,
+                "body " + id, 1L, T0, updatedAt, "userOne"));
+    }
+
+    private void tombstone(Long lineupId, OffsetDateTime deletedAt) {
+        tombstones.add(new LineupTombstone(lineupId, deletedAt));
+    }
+
+    // rows strictly after (updatedAt, id), in that order, like the keyset queries
+    private static <T> List<T> after(List<T> rows, Function<T, LineupSyncCursor> position,
+            OffsetDateTime updatedAt, long id, int limit) {
+        Comparator<LineupSyncCursor> order = Comparator.comparing(LineupSyncCursor::updatedAt)
+                .thenComparingLong(LineupSyncCursor::id);
+        LineupSyncCursor from = new LineupSyncCursor(updatedAt, id);
+        return rows.stream()
+                .filter(row -> order.compare(position.apply(row), from) > 0)
+                .sorted(Comparator.comparing(position, order))
+                .limit(limit)
+                .toList();
+    }
+
+    private static String cursor(OffsetDateTime updatedAt, long id) {
+        return new LineupSyncCursor(updatedAt, id).toString();
+    }
+}
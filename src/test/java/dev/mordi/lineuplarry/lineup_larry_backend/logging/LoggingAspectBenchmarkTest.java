@@ -0,0 +1,106 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.logging;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.MessageFormatter;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Agent;
+import dev.mordi.lineuplarry.lineup_larry_backend.enums.Map;
+import dev.mordi.lineuplarry.lineup_larry_backend.lineup.LineupWithAuthorDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Per-call overhead of the controller aspect against the old log-everything one, skipped unless
+// run with -Dbenchmarks=true. The old aspect is reproduced below, formatting its message the way
+// an INFO appender would.
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class LoggingAspectBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingAspectBenchmarkTest.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    public static class FakeController {
+
+        private final List<LineupWithAuthorDTO> lineups = LongStream.range(0, 20)
+                .mapToObj(id -> new LineupWithAuthorDTO(id, Agent.SOVA, Map.ASCENT,
+                        "lineup " + id, "body " + id, 1L, OffsetDateTime.now(),
+                        OffsetDateTime.now(), "userOne"))
+                .toList();
+
+        @GetMapping
+        public List<LineupWithAuthorDTO> getLineups(String map, Long pageSize) {
+            return lineups;
+        }
+    }
+
+    @Aspect
+    static class OldLoggingAspect {
+
+        static long sink;
+
+        @Around("@annotation(org.springframework.web.bind.annotation.GetMapping)")
+        public Object logControllerMethods(ProceedingJoinPoint joinPoint) throws Throwable {
+            sink += MessageFormatter.arrayFormat("Entering method: {} with arguments: {}",
+                    new Object[] {joinPoint.getSignature().toShortString(), joinPoint.getArgs()})
+                    .getMessage().length();
+            long startTime = System.currentTimeMillis();
+            Object result = joinPoint.proceed();
+            long totalTime = System.currentTimeMillis() - startTime;
+            sink += MessageFormatter.arrayFormat(
+                    "Exiting method: {} with result: {}. Executed in {} milliseconds",
+                    new Object[] {joinPoint.getSignature().toShortString(), result, totalTime})
+                    .getMessage().length();
+            return result;
+        }
+    }
+
+    @Test
+    void newAspectIsCheaperThanLoggingEverything() {
+        LoggingAspect aspect = new LoggingAspect(new SimpleMeterRegistry(),
+                new RequestLoggingProperties(0.0, Duration.ofSeconds(1)));
+
+        double oldNanos = nanosPerCall(proxy(new OldLoggingAspect()));
+        double newNanos = nanosPerCall(proxy(aspect));
+
+        log.info("Old aspect: {} ns/call, new aspect: {} ns/call", "%.0f".formatted(oldNanos),
+                "%.0f".formatted(newNanos));
+        assertThat(newNanos).isLessThan(oldNanos / 10);
+    }
+
+    private static FakeController proxy(Object aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FakeController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private static double nanosPerCall(FakeController controller) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += controller.getLineups("ASCENT", 20L).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += controller.getLineups("ASCENT", 20L).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) elapsed / ITERATIONS;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    // a zero window recalculates the limit on every completion
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(
+            new AdaptiveLimitProperties(true, 10, 4, 100, 1.5, 0.2, Duration.ZERO, List.of()));
+
+    @Test
+    void shedsOnceLimitIsInFlight() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.inFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void growsWhileLatencyIsSteadyAndShrinksWhenItRises() {
+        runRounds(20, 10);
+        int grown = limit.limit();
+        assertThat(grown).isGreaterThan(10);
+
+        runRounds(5, 100);
+        assertThat(limit.limit()).isLessThan(grown);
+    }
+
+    @Test
+    void neverDropsBelowMinimum() {
+        runRounds(5, 10);
+        runRounds(50, 1_000);
+
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void doesNotGrowWithoutLoad() {
+        for (int i = 0; i < 50; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.onComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    // fills the current limit, then completes everything with the given latency
+    private void runRounds(int rounds, long rttMillis) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.onComplete(TimeUnit.MILLISECONDS.toNanos(rttMillis), true);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.boot.web.server.test.LocalServerPort;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Overload check for the adaptive limit, skipped unless run with -Dbenchmarks=true. Far more
+// clients than the pool can serve hammer one endpoint; the p99 of admitted requests should
+// settle instead of growing with the queue, while the excess is shed. All callers share one
+// address, so rate limiting is off. The endpoint's bulkhead answers 503 as well, only the
+// limiter's own counter says how much it shed.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "lineup-larry.rate-limit.enabled=false")
+@Sql("/test-data.sql")
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class AdaptiveConcurrencyLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLoadTest.class);
+
+    private static final int CLIENTS = 500;
+    private static final Duration PHASE = Duration.ofSeconds(5);
+    private static final int PHASES = 4;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void keepsP99StableUnderOverload() throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest
+                .newBuilder(URI.create("http://localhost:" + port + "/api/lineups/user/3"))
+                .build();
+        List<ConcurrentLinkedQueue<Long>> latencies = new ArrayList<>();
+        for (int i = 0; i < PHASES; i++) {
+            latencies.add(new ConcurrentLinkedQueue<>());
+        }
+        AtomicInteger unavailable = new AtomicInteger();
+
+        long start = System.nanoTime();
+        long end = start + PHASE.multipliedBy(PHASES).toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request,
+                                HttpResponse.BodyHandlers.discarding());
+                        long done = System.nanoTime();
+                        if (response.statusCode() == 200) {
+                            int phase = (int) Math.min(PHASES - 1,
+                                    (sent - start) / PHASE.toNanos());
+                            latencies.get(phase).add(done - sent);
+                        } else if (response.statusCode() == 503) {
+                            unavailable.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        List<Double> p99s = latencies.stream().map(AdaptiveConcurrencyLoadTest::p99Millis)
+                .toList();
+        double shed = meterRegistry.get("api.concurrency.rejected").counter().count();
+        log.info("p99 per {}s phase (ms): {}, 503s: {}, shed by the limit: {}",
+                PHASE.toSeconds(), p99s, unavailable.get(), (long) shed);
+        assertThat(shed).isPositive();
+        // once the limit has adapted, later phases should not be slower than the warm-up one
+        assertThat(p99s.getLast()).isLessThanOrEqualTo(Math.max(p99s.get(1) * 1.5, 50));
+        assertThat(p99s.getLast()).isLessThan(1_000);
+    }
+
+    private static double p99Millis(ConcurrentLinkedQueue<Long> samples) {
+        List<Long> sorted = new ArrayList<>(samples);
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(sorted);
+        return sorted.get((int) (sorted.size() * 0.99)) / 1e6;
+    }
+}
@@ -0,0 +1,54 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BulkheadRegistryTest {
+
+    private final BulkheadRegistry registry = new BulkheadRegistry(
+            new BulkheadProperties(true, Duration.ofMillis(10), Map.of("summary", 1), 16, 8, 4),
+            new SimpleMeterRegistry());
+
+    @Test
+    void rejectsOnceLimitIsReachedWithinMaxWait() {
+        BulkheadRegistry.Permits permits = registry.get("summary");
+        permits.acquire();
+
+        OverloadException.BulkheadFullException e = assertThrows(
+                OverloadException.BulkheadFullException.class, permits::acquire);
+
+        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void releasedPermitsCanBeReused() {
+        BulkheadRegistry.Permits permits = registry.get("summary");
+        permits.acquire();
+        permits.release();
+
+        permits.acquire();
+    }
+
+    @Test
+    void readAndWriteBudgetsAreSeparate() {
+        BulkheadRegistry.Permits reads = registry.get(BulkheadRegistry.READ_CONNECTIONS);
+        for (int i = 0; i < 8; i++) {
+            reads.acquire();
+        }
+
+        assertThrows(OverloadException.BulkheadFullException.class, reads::acquire);
+        registry.get(BulkheadRegistry.WRITE_CONNECTIONS).acquire();
+    }
+}
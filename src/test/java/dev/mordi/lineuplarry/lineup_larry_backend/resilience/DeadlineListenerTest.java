@@ -0,0 +1,88 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.config.DeadlineConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JooqTest
+@Import(DeadlineConfig.class)
+@Testcontainers
+public class DeadlineListenerTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    DSLContext dsl;
+
+    // inside the test's transaction, so statement_timeout cuts it off to the millisecond
+    @Test
+    void statementTimeoutCancelsAtTheDeadline() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> sleepWithin(Duration.ofMillis(200)))
+                .isInstanceOf(DataAccessException.class)
+                .satisfies(e -> assertThat(RequestDeadline.isQueryCancelled(e)).isTrue());
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void statementTimeoutFollowsTheDeadlineThroughTheTransaction() {
+        ScopedValue.where(RequestDeadline.CURRENT, new RequestDeadline(Duration.ofSeconds(2)))
+                .run(() -> {
+                    assertThat(statementTimeoutMillis()).isGreaterThan(1500);
+                    try {
+                        Thread.sleep(Duration.ofSeconds(1));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    assertThat(statementTimeoutMillis()).isBetween(1, 1000);
+                });
+    }
+
+    // the JDBC query timeout only counts whole seconds
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void queryTimeoutCancelsOutsideATransaction() {
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> sleepWithin(Duration.ofMillis(200)))
+                .isInstanceOf(DataAccessException.class)
+                .satisfies(e -> assertThat(RequestDeadline.isQueryCancelled(e)).isTrue());
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void statementsWithoutADeadlineAreLeftAlone() {
+        dsl.execute("select pg_sleep(0.3)");
+    }
+
+    private int statementTimeoutMillis() {
+        return Integer.parseInt(String.valueOf(dsl.fetchValue(
+                "select setting from pg_settings where name = 'statement_timeout'")));
+    }
+
+    private void sleepWithin(Duration timeout) {
+        ScopedValue.where(RequestDeadline.CURRENT, new RequestDeadline(timeout))
+                .run(() -> dsl.execute("select pg_sleep(5)"));
+    }
+}
@@ -0,0 +1,94 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.FilterChain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerMapping;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.exceptions.OverloadException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties(true,
+            Map.of("lookup", new RateLimitProperties.Budget(1, Duration.ofHours(1))), 600,
+            Duration.ofMinutes(1), 1000);
+    private final HandlerMapping handlerMapping = mock(HandlerMapping.class);
+    private final HandlerExceptionResolver exceptionResolver = mock(
+            HandlerExceptionResolver.class);
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter(properties, new SimpleMeterRegistry()), properties, handlerMapping,
+            exceptionResolver);
+    private final AtomicInteger handled = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> handled.incrementAndGet();
+
+    static class Handlers {
+
+        @RateLimit("lookup")
+        public void lookup() {
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(handlerMapping.getHandler(any())).thenReturn(new HandlerExecutionChain(
+                new HandlerMethod(new Handlers(), Handlers.class.getMethod("lookup"))));
+    }
+
+    @Test
+    void allowedRequestCarriesTheRateLimitHeaders() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, chain);
+
+        assertThat(handled).hasValue(1);
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("1");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+    }
+
+    @Test
+    void rejectedRequestNeverReachesTheRestOfTheChain() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        // AdaptiveConcurrencyFilter is further down the chain, so no slot and no sample
+        assertThat(handled).hasValue(1);
+        verify(exceptionResolver).resolveException(any(), any(), isNull(),
+                isA(OverloadException.RateLimitedException.class));
+    }
+
+    @Test
+    void unmappedRequestIsNotLimited() throws Exception {
+        when(handlerMapping.getHandler(any())).thenReturn(null);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertThat(handled).hasValue(2);
+        verify(exceptionResolver, never()).resolveException(any(), any(), any(), any());
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/lineups/1");
+    }
+}
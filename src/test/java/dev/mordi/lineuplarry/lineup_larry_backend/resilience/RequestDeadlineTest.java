@@ -0,0 +1,47 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestDeadlineTest {
+
+    @Test
+    void unsetDeadlineNeverExpires() {
+        RequestDeadline deadline = new RequestDeadline();
+
+        assertThat(deadline.isSet()).isFalse();
+        assertThat(deadline.isExpired()).isFalse();
+        assertThat(deadline.remainingNanos()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void onlyEverTightens() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofSeconds(1));
+
+        deadline.tighten(Duration.ofMinutes(1));
+        assertThat(deadline.remainingNanos()).isLessThanOrEqualTo(Duration.ofSeconds(1).toNanos());
+
+        deadline.tighten(Duration.ofMillis(10));
+        assertThat(deadline.remainingNanos()).isLessThanOrEqualTo(Duration.ofMillis(10).toNanos());
+    }
+
+    @Test
+    void expiresOncePassed() {
+        RequestDeadline deadline = new RequestDeadline(Duration.ofNanos(1));
+
+        assertThat(deadline.isExpired()).isTrue();
+    }
+
+    @Test
+    void currentIsOnlyExpiredWhileBound() throws Exception {
+        assertThat(RequestDeadline.isCurrentExpired()).isFalse();
+
+        boolean expired = ScopedValue.where(RequestDeadline.CURRENT,
+                new RequestDeadline(Duration.ofNanos(1))).call(RequestDeadline::isCurrentExpired);
+
+        assertThat(expired).isTrue();
+    }
+}
@@ -0,0 +1,52 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 10 requests per 10 seconds, one token back every second
+    private final TokenBucket bucket = new TokenBucket(10, 10 * SECOND, 0);
+
+    @Test
+    void allowsFullBurstThenRejects() {
+        for (int i = 0; i < 10; i++) {
+            TokenBucket.Decision decision = bucket.tryConsume(0);
+            assertThat(decision.allowed()).isTrue();
+            assertThat(decision.remaining()).isEqualTo(9 - i);
+        }
+
+        TokenBucket.Decision rejected = bucket.tryConsume(0);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfterNanos()).isEqualTo(SECOND);
+        assertThat(rejected.resetNanos()).isEqualTo(10 * SECOND);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume(0);
+        }
+
+        assertThat(bucket.tryConsume(SECOND).allowed()).isTrue();
+        assertThat(bucket.tryConsume(SECOND).allowed()).isFalse();
+        assertThat(bucket.isFull(10 * SECOND)).isTrue();
+    }
+
+    @Test
+    void idleBucketDoesNotSaveUpMoreThanLimit() {
+        long later = 100 * SECOND;
+        int allowed = 0;
+        while (bucket.tryConsume(later).allowed()) {
+            allowed++;
+        }
+
+        assertThat(allowed).isEqualTo(10);
+    }
+}
@@ -0,0 +1,139 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.val;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Two schedulers stand in for two nodes. Advisory locks belong to a session, so the tests run
+// outside a test transaction and every call gets its own pooled connection.
+@JooqTest
+@Import({TaskRunRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+public class ClusterSchedulerTest {
+
+    private static final SchedulerProperties PROPERTIES = new SchedulerProperties(true, 20260);
+    private static final Instant FIRE_TIME = Instant.parse("2025-01-01T04:00:00Z");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:18-alpine");
+
+    @Autowired
+    DSLContext dsl;
+
+    @Autowired
+    TaskRunRepository taskRunRepository;
+
+    @Test
+    void fireTimeRunsOnOneNodeOnly() {
+        CountingTask task = new CountingTask("test.runs-once");
+
+        boolean first = node().runIfDue(task, FIRE_TIME);
+        boolean second = node().runIfDue(task, FIRE_TIME);
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(task.runs).hasValue(1);
+        assertThat(taskRunRepository.getLastScheduledFor(task.name())).contains(FIRE_TIME);
+    }
+
+    @Test
+    void laterFireTimeRunsAgain() {
+        CountingTask task = new CountingTask("test.runs-again");
+
+        node().runIfDue(task, FIRE_TIME);
+        boolean ran = node().runIfDue(task, FIRE_TIME.plusSeconds(3600));
+
+        assertThat(ran).isTrue();
+        assertThat(task.runs).hasValue(2);
+    }
+
+    @Test
+    void nodeWithoutTheLockSkipsTheRun() {
+        CountingTask task = new CountingTask("test.locked-elsewhere");
+
+        // another node holds the task's lock on its own session
+        Boolean ran = dsl.connectionResult(connection -> {
+            DSLContext session = DSL.using(connection, dsl.dialect());
+            session.select(field("pg_advisory_lock({0}, hashtext({1}))",
+                    val(PROPERTIES.lockNamespace()), val(task.name()))).fetch();
+            try {
+                return node().runIfDue(task, FIRE_TIME);
+            } finally {
+                session.select(field("pg_advisory_unlock({0}, hashtext({1}))",
+                        val(PROPERTIES.lockNamespace()), val(task.name()))).fetch();
+            }
+        });
+
+        assertThat(ran).isFalse();
+        assertThat(task.runs).hasValue(0);
+        assertThat(taskRunRepository.getLastScheduledFor(task.name())).isEmpty();
+        // and nothing keeps it from running once the lock is free
+        assertThat(node().runIfDue(task, FIRE_TIME)).isTrue();
+    }
+
+    @Test
+    void failedRunStillCountsAsHandled() {
+        CountingTask task = new CountingTask("test.fails") {
+            @Override
+            public void run() {
+                super.run();
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        assertThat(node().runIfDue(task, FIRE_TIME)).isTrue();
+        assertThat(node().runIfDue(task, FIRE_TIME)).isFalse();
+        assertThat(task.runs).hasValue(1);
+    }
+
+    private ClusterScheduler node() {
+        return new ClusterScheduler(dsl, taskRunRepository, List.of(), PROPERTIES,
+                new SimpleMeterRegistry());
+    }
+
+    private static class CountingTask implements ClusterTask {
+
+        private final String name;
+        final AtomicInteger runs = new AtomicInteger();
+
+        CountingTask(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public TaskSchedule schedule() {
+            return TaskSchedule.cron("0 0 4 * * *");
+        }
+
+        @Override
+        public void run() {
+            runs.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskScheduleTest {
+
+    @Test
+    void fixedRateIsAlignedToThePeriod() {
+        TaskSchedule schedule = TaskSchedule.fixedRate(Duration.ofMinutes(5));
+
+        Instant next = schedule.next(Instant.parse("2025-01-01T10:07:13Z"));
+
+        assertThat(next).isEqualTo(Instant.parse("2025-01-01T10:10:00Z"));
+    }
+
+    @Test
+    void fixedRateNextIsStrictlyAfterAFireTime() {
+        TaskSchedule schedule = TaskSchedule.fixedRate(Duration.ofMinutes(5));
+
+        Instant next = schedule.next(Instant.parse("2025-01-01T10:10:00Z"));
+
+        assertThat(next).isEqualTo(Instant.parse("2025-01-01T10:15:00Z"));
+    }
+
+    @Test
+    void cronIsEvaluatedInUtc() {
+        TaskSchedule schedule = TaskSchedule.cron("0 30 3 * * *");
+
+        Instant next = schedule.next(Instant.parse("2025-01-01T10:07:13Z"));
+
+        assertThat(next).isEqualTo(Instant.parse("2025-01-02T03:30:00Z"));
+    }
+
+    @Test
+    void latestFireTimeIsTheLastOneMissed() {
+        Instant last = Instant.parse("2025-01-01T10:10:00Z");
+        Instant now = Instant.parse("2025-01-01T11:07:13Z");
+
+        assertThat(TaskSchedule.fixedRate(Duration.ofMinutes(5)).latest(last, now))
+                .isEqualTo(Instant.parse("2025-01-01T11:05:00Z"));
+        assertThat(TaskSchedule.cron("0 */5 * * * *").latest(last, now))
+                .isEqualTo(Instant.parse("2025-01-01T11:05:00Z"));
+    }
+
+    @Test
+    void latestFireTimeWithoutAMissedRunIsTheLastOne() {
+        Instant last = Instant.parse("2025-01-01T10:10:00Z");
+        Instant now = Instant.parse("2025-01-01T10:13:00Z");
+
+        assertThat(TaskSchedule.fixedRate(Duration.ofMinutes(5)).latest(last, now))
+                .isEqualTo(last);
+        assertThat(TaskSchedule.cron("0 */5 * * * *").latest(last, now)).isEqualTo(last);
+    }
+
+    @Test
+    void missedRunsAreCaughtUpByDefault() {
+        assertThat(TaskSchedule.fixedRate(Duration.ofMinutes(1)).missedRunPolicy())
+                .isEqualTo(TaskSchedule.MissedRunPolicy.RUN_ONCE);
+        assertThat(new TaskSchedule.FixedRate(Duration.ofMinutes(1),
+                TaskSchedule.MissedRunPolicy.RUN_ONCE).skipMissedRuns().missedRunPolicy())
+                .isEqualTo(TaskSchedule.MissedRunPolicy.SKIP);
+    }
+}
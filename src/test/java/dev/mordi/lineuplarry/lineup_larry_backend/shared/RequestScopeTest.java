@@ -0,0 +1,48 @@
+package dev.mordi.lineuplarry.lineup_larry_backend.shared;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.db.RequestQueryStats;
+import dev.mordi.lineuplarry.lineup_larry_backend.resilience.RequestDeadline;
+import dev.mordi.lineuplarry.lineup_larry_backend.timing.RequestTiming;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestScopeTest {
+
+    @Test
+    void tasksOnOtherThreadsSeeTheRequestsValues() throws Exception {
+        RequestDeadline deadline = new RequestDeadline();
+        RequestQueryStats stats = new RequestQueryStats();
+        RequestTiming timing = new RequestTiming();
+
+        List<Object> seen = ScopedValue.where(RequestDeadline.CURRENT, deadline)
+                .where(RequestQueryStats.CURRENT, stats)
+                .where(RequestTiming.CURRENT, timing)
+                .call(() -> runElsewhere(RequestScope.capture().wrap(
+                        () -> List.<Object>of(RequestDeadline.CURRENT.get(),
+                                RequestQueryStats.CURRENT.get(), RequestTiming.CURRENT.get()))));
+
+        assertThat(seen).containsExactly(deadline, stats, timing);
+    }
+
+    @Test
+    void outsideARequestNothingIsBound() throws Exception {
+        boolean bound = runElsewhere(RequestScope.capture().wrap(
+                () -> RequestDeadline.CURRENT.isBound() || RequestQueryStats.CURRENT.isBound()
+                        || RequestTiming.CURRENT.isBound()));
+
+        assertThat(bound).isFalse();
+    }
+
+    private static <T> T runElsewhere(Callable<T> task) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return executor.submit(task).get();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.web.servlet.client.RestTestClient;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.db.QueryBudgetFilter;
+
 public abstract class RestIntegrationTestSupport {
 
     @Autowired
@@ -29,4 +31,14 @@ public abstract class RestIntegrationTestSupport {
                 .returnResult()
                 .getResponseBody();
     }
+
+    // needs lineup-larry.query-budget.expose-count-header=true on the test
+    protected void assertQueryCount(String uri, int expectedQueries) {
+        client.get()
+                .uri(uri)
+                .exchange()
+                .expectHeader()
+                .valueEquals(QueryBudgetFilter.QUERY_COUNT_HEADER,
+                        String.valueOf(expectedQueries));
+    }
 }
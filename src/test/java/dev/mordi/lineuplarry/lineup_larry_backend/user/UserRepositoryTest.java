@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.jooq.test.autoconfigure.JooqTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.context.annotation.Import;
@@ -13,6 +14,8 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.postgresql.PostgreSQLContainer;
 
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShardProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.like.LikeShards;
 import dev.mordi.lineuplarry.lineup_larry_backend.lineup.LineupIdTitleDTO;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
 
@@ -20,7 +23,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @JooqTest
-@Import({UserRepository.class})
+@Import({UserRepository.class, LikeShards.class})
+@EnableConfigurationProperties(LikeShardProperties.class)
 @Sql("/test-data.sql")
 @Testcontainers
 public class UserRepositoryTest {
@@ -9,8 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheProperties;
+import dev.mordi.lineuplarry.lineup_larry_backend.cache.CacheRegistry;
 import dev.mordi.lineuplarry.lineup_larry_backend.user.exceptions.InvalidUserException;
 
 import static org.assertj.core.api.Assertions.*;
@@ -28,6 +33,11 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    // caching is disabled, so every call goes straight to the repository
+    @Spy
+    private CacheRegistry cacheRegistry = new CacheRegistry(CacheProperties.disabled(),
+            new SimpleMeterRegistry());
+
     // might be a better way to go about this
     private User savedUserOne;
     private User savedUserTwo;
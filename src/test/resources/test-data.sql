@@ -1,4 +1,4 @@
-TRUNCATE users, lineup, likes;
+TRUNCATE users, lineup, likes, lineup_tombstone;
 
 INSERT INTO users(id, username) VALUES
     (1, 'userOne'),